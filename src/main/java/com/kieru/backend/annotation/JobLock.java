@@ -0,0 +1,18 @@
+package com.kieru.backend.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs a scheduled job on at most one node at a time (JobLockAspect).
+ * Nodes that do not get the lock skip the run instead of waiting for it.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface JobLock {
+    String name();
+    long leaseMs() default 60000;        // Renewed every leaseMs / 3 while the job runs
+    long lockAtLeastMs() default 10000;  // Held after a short run, so a node with a late clock does not fire it again
+}
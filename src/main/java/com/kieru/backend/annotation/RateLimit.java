@@ -12,5 +12,6 @@ public @interface RateLimit {
     int requests() default 100;
     int windowSeconds() default 60;
     int lockDurationMinutes() default 5; // Can be SpEL expression
+    boolean leased() default false; // Spend node-local leases (RateLimitLeases) instead of one Redis call per request
 }
 
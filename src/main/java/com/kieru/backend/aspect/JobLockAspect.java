@@ -0,0 +1,186 @@
+package com.kieru.backend.aspect;
+
+import com.kieru.backend.annotation.JobLock;
+import com.kieru.backend.entity.JobRunHistory;
+import com.kieru.backend.job.JobRunContext;
+import com.kieru.backend.repository.JobRunHistoryRepository;
+import com.kieru.backend.store.JobLockProvider;
+import com.kieru.backend.util.JobLockConfig;
+import com.kieru.backend.util.KieruUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Lock-at-most-once for @JobLock jobs: the node that gets the lock runs the job and records it in
+ * job_run_history, every other node skips that run. The lease is renewed every leaseMs / 3 while the job
+ * runs, so it only expires when the node dies.
+ *
+ * Ordered first so the lock is taken before @Transactional opens a transaction.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class JobLockAspect implements DisposableBean {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final JobLockProvider lockProvider;
+    private final JobRunHistoryRepository historyRepo;
+    private final JobLockConfig config;
+    private final String nodeId;
+
+    private final ScheduledExecutorService renewals = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "job-lock-renewal");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public JobLockAspect(JobLockProvider lockProvider, JobRunHistoryRepository historyRepo, JobLockConfig config) {
+        this.lockProvider = lockProvider;
+        this.historyRepo = historyRepo;
+        this.config = config;
+        this.nodeId = config.getNodeId() == null || config.getNodeId().isBlank() ? hostName() : config.getNodeId();
+    }
+
+    @Around("@annotation(jobLock)")
+    public Object runLocked(ProceedingJoinPoint joinPoint, JobLock jobLock) throws Throwable {
+        if (!config.isEnabled()) {
+            return joinPoint.proceed();
+        }
+
+        String name = jobLock.name();
+        String owner = nodeId + ":" + UUID.randomUUID();
+
+        boolean locked;
+        try {
+            locked = lockProvider.tryLock(name, owner, jobLock.leaseMs());
+        }
+        catch (Exception e) {
+            // At most once: without a lock store no node can prove it is alone, so nobody runs
+            log.error("Job Lock :: Could not reach the lock store, skipping job: {}", name, e);
+            return null;
+        }
+
+        if (!locked) {
+            log.debug("Job Lock :: Job {} is held by another node, skipping this run", name);
+            return null;
+        }
+
+        long startTime = System.currentTimeMillis();
+        AtomicBoolean leaseLost = new AtomicBoolean();
+        long renewEvery = Math.max(1, jobLock.leaseMs() / 3);
+        ScheduledFuture<?> renewal = renewals.scheduleAtFixedRate(() -> renew(name, owner, jobLock.leaseMs(), leaseLost),
+                renewEvery, renewEvery, TimeUnit.MILLISECONDS);
+
+        JobRunHistory run = startRun(name, startTime);
+        JobRunContext.begin();
+        Throwable failure = null;
+
+        try {
+            return joinPoint.proceed();
+        }
+        catch (Throwable t) {
+            failure = t;
+            throw t;
+        }
+        finally {
+            long rows = JobRunContext.end();
+            renewal.cancel(false);
+            finishRun(run, rows, failure, leaseLost.get());
+
+            long duration = System.currentTimeMillis() - startTime;
+            try {
+                lockProvider.unlock(name, owner, Math.max(0, jobLock.lockAtLeastMs() - duration));
+            }
+            catch (Exception e) {
+                log.warn("Job Lock :: Failed to release job: {}, it frees up when the lease expires", name, e);
+            }
+            log.debug("Job Lock :: Job {} finished on {} in {}, rows: {}", name, nodeId, KieruUtil.millisToRelativeTime(duration), rows);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        renewals.shutdownNow();
+    }
+
+    private void renew(String name, String owner, long leaseMs, AtomicBoolean leaseLost) {
+        if (leaseLost.get()) {
+            return;
+        }
+        try {
+            if (!lockProvider.extend(name, owner, leaseMs)) {
+                leaseLost.set(true);
+                log.error("Job Lock :: Lost the lease of job: {}, another node may start it", name);
+            }
+        }
+        catch (Exception e) {
+            log.warn("Job Lock :: Failed to renew the lease of job: {}, retrying", name, e);
+        }
+    }
+
+    // History is best effort, it must never stop the job itself
+    private JobRunHistory startRun(String name, long startTime) {
+        try {
+            return historyRepo.save(JobRunHistory.builder()
+                    .jobName(name)
+                    .node(nodeId)
+                    .startedAt(Instant.ofEpochMilli(startTime))
+                    .status(JobRunHistory.Status.RUNNING)
+                    .build());
+        }
+        catch (Exception e) {
+            log.warn("Job Lock :: Failed to record the start of job: {}", name, e);
+            return null;
+        }
+    }
+
+    private void finishRun(JobRunHistory run, long rows, Throwable failure, boolean leaseLost) {
+        if (run == null) {
+            return;
+        }
+        run.setFinishedAt(Instant.now());
+        run.setRowsAffected(rows);
+        run.setLeaseLost(leaseLost);
+        run.setStatus(failure == null ? JobRunHistory.Status.SUCCEEDED : JobRunHistory.Status.FAILED);
+        if (failure != null) {
+            String error = String.valueOf(failure);
+            run.setError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+        }
+        try {
+            historyRepo.save(run);
+        }
+        catch (Exception e) {
+            log.warn("Job Lock :: Failed to record the end of job: {}", run.getJobName(), e);
+        }
+    }
+
+    private static String hostName() {
+        String host = System.getenv("HOSTNAME");
+        if (host != null && !host.isBlank()) {
+            return host;
+        }
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        }
+        catch (Exception e) {
+            return "node-" + UUID.randomUUID().toString().substring(0, 8);
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.kieru.backend.aspect;
 
 import com.kieru.backend.annotation.RateLimit;
+import com.kieru.backend.dto.RateLimitDecision;
 import com.kieru.backend.entity.User;
 import com.kieru.backend.exception.RateLimitExceededException;
 import com.kieru.backend.service.RateLimitService;
+import com.kieru.backend.store.RateLimitLeases;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -21,6 +23,7 @@ import org.springframework.stereotype.Component;
 public class RateLimitAspect {
 
     private final RateLimitService rateLimitService;
+    private final RateLimitLeases rateLimitLeases;
     private final HttpServletRequest request;
 
     @Around("@annotation(rateLimit)")
@@ -28,26 +31,22 @@ public class RateLimitAspect {
         log.debug("Rate limit check for endpoint: {}", getEndpoint());
 
         String identifier = getUserId();
-        if (rateLimitService.isLocked(identifier)) {
-            log.warn("Request blocked - user is locked: {}", identifier);
-            throw new RateLimitExceededException("Account temporarily locked");
-        }
-
         String key = buildRateLimitKey(rateLimit);
 
-        boolean allowed = rateLimitService.tryConsume(
-                key,
-                rateLimit.requests(),
-                rateLimit.windowSeconds()
-        );
+        // Lockout check, consumption and lockout in one Redis call (or none, while a local lease lasts)
+        RateLimitDecision decision = rateLimit.leased()
+                ? rateLimitLeases.consume(key, identifier, rateLimit.requests(), rateLimit.windowSeconds(), rateLimit.lockDurationMinutes())
+                : rateLimitService.consume(key, identifier, rateLimit.requests(), rateLimit.windowSeconds(), rateLimit.lockDurationMinutes());
 
-        if(!allowed){
-            // Lock the user for X minutes
-            int lockDuration = rateLimit.lockDurationMinutes();
-            rateLimitService.lock(identifier, lockDuration);
+        if (decision.getStatus() == RateLimitDecision.Status.LOCKED) {
+            log.warn("Request blocked - user is locked: {}", identifier);
+            throw new RateLimitExceededException("Account temporarily locked", decision.getRetryAfterMs());
+        }
 
+        if (decision.getStatus() == RateLimitDecision.Status.REJECTED) {
+            int lockDuration = rateLimit.lockDurationMinutes();
             log.warn("Rate limit exceeded - locking user: {} for {} minutes", identifier, lockDuration);
-            throw new RateLimitExceededException("Too many requests. Account locked for " + lockDuration + " minutes");
+            throw new RateLimitExceededException("Too many requests. Account locked for " + lockDuration + " minutes", decision.getRetryAfterMs());
         }
 
         log.debug("Rate limit check passed for key: {}", key);
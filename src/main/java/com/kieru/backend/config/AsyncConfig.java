@@ -1,24 +1,155 @@
 package com.kieru.backend.config;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.MDC;
+import org.springframework.boot.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.support.CompositeTaskDecorator;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
-import java.util.concurrent.Executor;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * One bounded pool per class of side effect, so blocking JPA work never runs on the
+ * common ForkJoinPool and one noisy side effect cannot starve the others.
+ *
+ * Every pool:
+ *  - copies MDC (secretId, userId, ...) and the tracing context into the task
+ *  - publishes executor.* metrics tagged with its name, plus kieru.executor.rejected
+ *  - keeps accepting during graceful shutdown and waits for queued tasks before closing
+ *
+ * With spring.threads.virtual.enabled (Java 21+) the pools become virtual-thread executors capped at the
+ * same max size, so DB parallelism is unchanged. A full executor then parks the (virtual) caller instead
+ * of applying the rejection policy, and kieru.executor.active replaces the executor.* pool metrics.
+ */
 @Configuration
 @EnableAsync
 public class AsyncConfig {
 
+    public static final String VIEW_STATE_EXECUTOR = "viewStateExecutor";
+    public static final String STREAMING_EXECUTOR = "streamingExecutor";
+    public static final String BACKFILL_EXECUTOR = "backfillExecutor";
+
+    private static final int AWAIT_TERMINATION_SECONDS = 30;
+
+    // Default pool for @Async
     @Bean(name = "taskExecutor")
-    public Executor taskExecutor(){
+    public AsyncTaskExecutor taskExecutor(Environment environment, MeterRegistry meterRegistry){
+        return buildExecutor("task-", 3, 10, 500, new ThreadPoolExecutor.CallerRunsPolicy(), environment, meterRegistry);
+    }
+
+    // View-count persistence and deactivation. Losing these leaves the DB behind Redis, so overflow runs on the caller.
+    @Bean(name = VIEW_STATE_EXECUTOR)
+    public AsyncTaskExecutor viewStateExecutor(Environment environment, MeterRegistry meterRegistry){
+        return buildExecutor("view-state-", 2, 4, 2000, new ThreadPoolExecutor.CallerRunsPolicy(), environment, meterRegistry);
+    }
+
+    // StreamingResponseBody writers of the streamed download endpoint. Each task holds a client connection
+    // for the whole transfer, so a full pool rejects (503) instead of piling up on the caller.
+    @Bean(name = STREAMING_EXECUTOR)
+    public AsyncTaskExecutor streamingExecutor(Environment environment, MeterRegistry meterRegistry){
+        return buildExecutor("streaming-", 4, 32, 100, new ThreadPoolExecutor.AbortPolicy(), environment, meterRegistry);
+    }
+
+    // Analytics backfill, one day per task. Small on purpose: every task is a set of range scans on the primary,
+    // and a full queue slows the request that queued the days instead of growing without bound.
+    @Bean(name = BACKFILL_EXECUTOR)
+    public AsyncTaskExecutor backfillExecutor(Environment environment, MeterRegistry meterRegistry){
+        return buildExecutor("backfill-", 4, 4, 500, new ThreadPoolExecutor.CallerRunsPolicy(), environment, meterRegistry);
+    }
+
+    private static AsyncTaskExecutor buildExecutor(String threadNamePrefix, int coreSize, int maxSize, int queueCapacity,
+                                                   RejectedExecutionHandler rejectionPolicy, Environment environment,
+                                                   MeterRegistry meterRegistry) {
+        String name = threadNamePrefix.substring(0, threadNamePrefix.length() - 1);
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return buildVirtualExecutor(threadNamePrefix, maxSize, name, meterRegistry);
+        }
+
+        Counter rejected = Counter.builder("kieru.executor.rejected").tag("name", name)
+                .description("Tasks handed to the rejection policy").register(meterRegistry);
+
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(3);
-        executor.setMaxPoolSize(10);
-        executor.setQueueCapacity(500);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
         executor.setKeepAliveSeconds(60);
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            rejected.increment();
+            rejectionPolicy.rejectedExecution(task, pool);
+        });
+        executor.setTaskDecorator(new CompositeTaskDecorator(List.of(mdcTaskDecorator(), new ContextPropagatingTaskDecorator())));
+        executor.setAcceptTasksAfterContextClose(true);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(AWAIT_TERMINATION_SECONDS);
         executor.initialize();
+
+        new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), name, Tags.empty()).bindTo(meterRegistry);
         return executor;
     }
+
+    private static AsyncTaskExecutor buildVirtualExecutor(String threadNamePrefix, int concurrencyLimit, String name,
+                                                          MeterRegistry meterRegistry) {
+        AtomicInteger active = new AtomicInteger();
+        Gauge.builder("kieru.executor.active", active, AtomicInteger::get).tag("name", name)
+                .description("Tasks currently running on the virtual-thread executor").register(meterRegistry);
+
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(concurrencyLimit);
+        executor.setTaskDecorator(new CompositeTaskDecorator(List.of(mdcTaskDecorator(), new ContextPropagatingTaskDecorator(),
+                runnable -> () -> {
+                    active.incrementAndGet();
+                    try {
+                        runnable.run();
+                    }
+                    finally {
+                        active.decrementAndGet();
+                    }
+                })));
+        executor.setTaskTerminationTimeout(AWAIT_TERMINATION_SECONDS * 1000L);
+        return executor;
+    }
+
+    private static TaskDecorator mdcTaskDecorator() {
+        return runnable -> {
+            Map<String, String> context = MDC.getCopyOfContextMap();
+            return () -> {
+                Map<String, String> previous = MDC.getCopyOfContextMap();
+                if (context != null) {
+                    MDC.setContextMap(context);
+                }
+                else {
+                    MDC.clear();
+                }
+                try {
+                    runnable.run();
+                }
+                finally {
+                    if (previous != null) {
+                        MDC.setContextMap(previous);
+                    }
+                    else {
+                        MDC.clear();
+                    }
+                }
+            };
+        };
+    }
 }
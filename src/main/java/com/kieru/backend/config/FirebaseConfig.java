@@ -5,6 +5,7 @@ import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
 import com.google.firebase.auth.FirebaseAuth;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -13,7 +14,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 
+// Only with the Firebase verifier, app.auth.verifier=LOCAL starts without FIREBASE_CREDENTIALS
 @Configuration
+@ConditionalOnProperty(name = "app.auth.verifier", havingValue = "FIREBASE", matchIfMissing = true)
 public class FirebaseConfig {
 
     @Value("${FIREBASE_CREDENTIALS}")
@@ -35,8 +35,10 @@ public class SecurityConfig {
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/secrets/validation").permitAll()
                         .requestMatchers(HttpMethod.POST, "/api/secrets/*/access").permitAll()
+                        .requestMatchers(HttpMethod.POST, "/api/secrets/*/access/stream").permitAll()
 
                         .requestMatchers(HttpMethod.POST, "/api/secrets/create").authenticated()
+                        .requestMatchers(HttpMethod.POST, "/api/secrets/create/stream").authenticated()
                         .requestMatchers("/api/dashboard/**").authenticated()
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
 
@@ -52,7 +54,9 @@ public class SecurityConfig {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOrigins(List.of("http://localhost:3000", "http://localhost:5173"));
         configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-        configuration.setAllowedHeaders(List.of("Authorization", "Content-Type", "X-Request-ID"));
+        configuration.setAllowedHeaders(List.of("Authorization", "Content-Type", "X-Request-ID", "X-Secret-Password", "X-Session-Version"));
+        // Metadata of streamed downloads travels in headers, the body is the raw payload
+        configuration.setExposedHeaders(List.of("X-Secret-Type", "X-Views-Left", "X-View-Time-Seconds", "X-Show-Time-Bomb", "X-Expires-At"));
         configuration.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
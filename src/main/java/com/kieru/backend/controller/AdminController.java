@@ -0,0 +1,69 @@
+package com.kieru.backend.controller;
+
+import com.kieru.backend.annotation.RateLimit;
+import com.kieru.backend.annotation.RateLimitType;
+import com.kieru.backend.dto.DayCounters;
+import com.kieru.backend.job.HourlyRollupJob;
+import com.kieru.backend.store.DailyCounterStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+/**
+ * Admin only (SecurityConfig: /api/admin/** requires ROLE_ADMIN).
+ */
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+@Slf4j
+public class AdminController {
+
+    private final DailyCounterStore dailyCounters;
+    private final HourlyRollupJob hourlyRollupJob;
+
+    /**
+     * LIVE STATS FOR TODAY (UTC)
+     * Straight from the Redis counters, at most one flush interval behind.
+     * Usage: GET /api/admin/stats/today
+     */
+    @GetMapping("/stats/today")
+    @RateLimit(type = RateLimitType.USER, requests = 60, windowSeconds = 60, lockDurationMinutes = 1)
+    public ResponseEntity<DayCounters> getTodayStats() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        log.info("AdminController :: Controller : Getting live stats for {}", today);
+
+        return ResponseEntity.ok(dailyCounters.read(today)
+                .orElse(DayCounters.builder().date(today).build()));
+    }
+
+    /**
+     * BACKFILL ANALYTICS
+     * Recomputes hourly_statistics for every day in [from, to] and re-derives daily_statistics from them,
+     * in parallel day chunks. Returns right away, progress is logged by HourlyRollupJob.
+     * Usage: POST /api/admin/stats/backfill?from=2025-01-01&to=2025-06-30
+     */
+    @PostMapping("/stats/backfill")
+    @RateLimit(type = RateLimitType.USER, requests = 5, windowSeconds = 300, lockDurationMinutes = 5)
+    public ResponseEntity<Map<String, Object>> backfillStats(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        log.info("AdminController :: Controller : Backfilling analytics for [{} .. {}]", from, to);
+        hourlyRollupJob.backfill(from, to);
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of(
+                "from", from,
+                "to", to,
+                "days", ChronoUnit.DAYS.between(from, to) + 1,
+                "message", "Backfill started"
+        ));
+    }
+}
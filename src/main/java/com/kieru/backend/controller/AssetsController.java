@@ -26,7 +26,7 @@ public class AssetsController {
      * Cache: 1 Day (These rarely change)
      */
     @GetMapping("/subscriptions")
-    @RateLimit(type = RateLimitType.IP, requests = 30, windowSeconds = 300, lockDurationMinutes = 5)
+    @RateLimit(type = RateLimitType.IP, requests = 30, windowSeconds = 300, lockDurationMinutes = 5, leased = true)
     public ResponseEntity<Map<String, String>> getSubscriptions() {
         return ResponseEntity.ok()
                 .cacheControl(CacheControl.maxAge(24, TimeUnit.HOURS))
@@ -39,7 +39,7 @@ public class AssetsController {
      * Cache: 1 Day
      */
     @GetMapping("/subscriptions/char-limits")
-    @RateLimit(type = RateLimitType.IP, requests = 30, windowSeconds = 300, lockDurationMinutes = 5) // 30/5mins
+    @RateLimit(type = RateLimitType.IP, requests = 30, windowSeconds = 300, lockDurationMinutes = 5, leased = true) // 30/5mins
     public ResponseEntity<Map<String, Integer>> getSubscriptionCharLimits() {
         return ResponseEntity.ok()
                 .cacheControl(CacheControl.maxAge(24, TimeUnit.HOURS))
@@ -52,7 +52,7 @@ public class AssetsController {
      * Cache: 1 Day
      */
     @GetMapping("/subscriptions/file-size-limits")
-    @RateLimit(type = RateLimitType.IP, requests = 30, windowSeconds = 300, lockDurationMinutes = 5) // 30/5mins
+    @RateLimit(type = RateLimitType.IP, requests = 30, windowSeconds = 300, lockDurationMinutes = 5, leased = true) // 30/5mins
     public ResponseEntity<Map<String, Long>> getSubscriptionFileLimits() {
         return ResponseEntity.ok()
                 .cacheControl(CacheControl.maxAge(24, TimeUnit.HOURS))
@@ -65,7 +65,7 @@ public class AssetsController {
      * Cache: 1 Day
      */
     @GetMapping("/subscriptions/daily-secret-limits")
-    @RateLimit(type = RateLimitType.IP, requests = 30, windowSeconds = 300, lockDurationMinutes = 5) // 30/5mins
+    @RateLimit(type = RateLimitType.IP, requests = 30, windowSeconds = 300, lockDurationMinutes = 5, leased = true) // 30/5mins
     public ResponseEntity<Map<String, Integer>> getSubscriptionDailyLimits() {
         return ResponseEntity.ok()
                 .cacheControl(CacheControl.maxAge(24, TimeUnit.HOURS))
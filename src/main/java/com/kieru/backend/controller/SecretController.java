@@ -3,8 +3,10 @@ package com.kieru.backend.controller;
 import com.kieru.backend.annotation.RateLimit;
 import com.kieru.backend.annotation.RateLimitType;
 import com.kieru.backend.dto.CreateSecretRequest;
+import com.kieru.backend.dto.CreateStreamSecretRequest;
 import com.kieru.backend.dto.SecretMetadataResponseDTO;
 import com.kieru.backend.dto.SecretResponseDTO;
+import com.kieru.backend.dto.SecretStreamResponse;
 import com.kieru.backend.entity.User;
 import com.kieru.backend.service.SecretService;
 import jakarta.servlet.http.HttpServletRequest;
@@ -12,10 +14,13 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.time.Instant;
 import java.util.Map;
 
@@ -47,7 +52,7 @@ public class SecretController {
     }
 
     @PostMapping("/{id}/access")
-    @RateLimit(type = RateLimitType.IP, requests = 50, windowSeconds = 3600, lockDurationMinutes = 10)
+    @RateLimit(type = RateLimitType.IP, requests = 50, windowSeconds = 3600, lockDurationMinutes = 10, leased = true)
     public ResponseEntity<SecretResponseDTO> getSecretContent(
             @PathVariable String id,
             @RequestBody(required = false) Map<String, String> body,
@@ -66,6 +71,73 @@ public class SecretController {
         return ResponseEntity.status(status).body(response);
     }
 
+    /**
+     * Streamed create for large (image) secrets: the body is the raw ciphertext and goes to storage as it arrives,
+     * metadata comes as query parameters and the password in X-Secret-Password. Small text secrets keep using /create.
+     */
+    @PostMapping(value = "/create/stream", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @RateLimit(type = RateLimitType.USER, requests = 30, windowSeconds = 3600, lockDurationMinutes = 15)
+    public ResponseEntity<SecretMetadataResponseDTO> createSecretStream(
+            @Valid @ModelAttribute CreateStreamSecretRequest request,
+            @RequestHeader(name = "X-Secret-Password", required = false) String password,
+            @AuthenticationPrincipal User user,
+            HttpServletRequest httpRequest
+    ) throws IOException {
+        String ownerId = (user != null) ? user.getId() : null;
+        String ipAddress = getClientIp(httpRequest);
+        request.setPassword(password);
+
+        log.info("SecretController :: Controller : Create streamed secret request from IP: {}, Owner: {}, Content-Length: {}", ipAddress, ownerId, httpRequest.getContentLengthLong());
+
+        SecretMetadataResponseDTO response = secretService.createSecretStream(request.toCreateSecretRequest(), httpRequest.getInputStream(),
+                httpRequest.getContentLengthLong(), ownerId, ipAddress);
+
+        log.info("SecretController :: Controller : Create streamed secret response - Success: {}, SecretId: {}", response.getIsSuccess(), response.getSecretId());
+
+        return ResponseEntity.status(response.getHttpStatus()).body(response);
+    }
+
+    /**
+     * Streamed access: on success the body is the stored payload (raw bytes, copied from storage in slices)
+     * and the view metadata is in X-* headers. Rejections are the same JSON as /access.
+     */
+    @PostMapping("/{id}/access/stream")
+    @RateLimit(type = RateLimitType.IP, requests = 50, windowSeconds = 3600, lockDurationMinutes = 10, leased = true)
+    public ResponseEntity<?> getSecretContentStream(
+            @PathVariable String id,
+            @RequestBody(required = false) Map<String, String> body,
+            HttpServletRequest httpRequest
+    ) {
+        Instant accessingTime = Instant.now();
+        String password = (body != null) ? body.get("password") : null;
+        String ipAddress = getClientIp(httpRequest);
+        String userAgent = httpRequest.getHeader("User-Agent");
+
+        log.info("SecretController :: Controller : Access streamed secret request. SecretId: {}, IP: {}", id, ipAddress);
+
+        SecretStreamResponse stream = secretService.getSecretContentStream(id, password, accessingTime, ipAddress, userAgent);
+        SecretResponseDTO response = stream.getResponse();
+
+        if (stream.getBody() == null) {
+            HttpStatus status = response.getHttpStatus() != null ? response.getHttpStatus() : HttpStatus.OK;
+            return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(response);
+        }
+
+        SecretStreamResponse.Body payload = stream.getBody();
+        StreamingResponseBody responseBody = payload::writeTo;
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(stream.getContentType()))
+                .contentLength(stream.getContentLength())
+                .header("X-Secret-Type", response.getType())
+                .header("X-Views-Left", String.valueOf(response.getViewsLeft()))
+                .header("X-View-Time-Seconds", String.valueOf(response.getViewTimeSeconds()))
+                .header("X-Show-Time-Bomb", String.valueOf(response.getShowTimeBomb()))
+                .header("X-Expires-At", String.valueOf(response.getExpiresAt()))
+                .header("Cache-Control", "no-store")
+                .body(responseBody);
+    }
+
     @GetMapping("/validation")
     @RateLimit(type = RateLimitType.USER, requests = 75, windowSeconds = 3600, lockDurationMinutes = 10)
     public ResponseEntity<SecretMetadataResponseDTO> validateSecret(
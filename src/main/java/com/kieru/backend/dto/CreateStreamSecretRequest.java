@@ -0,0 +1,54 @@
+package com.kieru.backend.dto;
+
+import com.kieru.backend.util.KieruUtil;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Metadata of a streamed secret, bound from query parameters (the body is the raw ciphertext).
+ * Same rules as CreateSecretRequest, the password travels in the X-Secret-Password header.
+ */
+@Data
+@NoArgsConstructor
+public class CreateStreamSecretRequest {
+
+    @NotBlank(message = "Secret name is required")
+    private String secretName;
+
+    private String password;
+
+    @Min(value = 1, message = "Max views must be at least 1")
+    @Max(value = 20, message = "Max views cannot exceed 20")
+    private Integer maxViews = 5;
+
+    @Min(value = 0, message = "Time cannot be negative")
+    @Max(value = 600, message = "Max 10mins")
+    private Integer viewTimeSeconds = 300;
+
+    private Boolean showTimeBomb = true;
+
+    @NotNull(message = "Secret Type is required")
+    private KieruUtil.SecretType type = KieruUtil.SecretType.IMAGE;
+
+    @Min(value = 1, message = "Expiry must be a positive timestamp")
+    private Long expiresAt = Instant.now().plus(24, ChronoUnit.HOURS).toEpochMilli();
+
+    public CreateSecretRequest toCreateSecretRequest() {
+        return CreateSecretRequest.builder()
+                .secretName(secretName)
+                .password(password)
+                .maxViews(maxViews)
+                .viewTimeSeconds(viewTimeSeconds)
+                .showTimeBomb(showTimeBomb)
+                .type(type)
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
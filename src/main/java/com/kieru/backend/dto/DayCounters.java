@@ -0,0 +1,26 @@
+package com.kieru.backend.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * One UTC day as counted live by DailyCounterStore. Unique counts are HyperLogLog estimates (~0.8% error).
+ */
+@Value
+@Builder
+public class DayCounters {
+    LocalDate date;
+    long secretsCreated;
+    long secretsViewed;
+    long failedViews;
+    long newUsers;
+    long activeUsers;
+    long uniqueViewers;
+    long logicalBytes;
+    long physicalBytes;
+
+    // True when counting started before the day did, i.e. the numbers cover the whole day
+    boolean complete;
+}
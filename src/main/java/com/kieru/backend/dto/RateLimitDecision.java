@@ -0,0 +1,31 @@
+package com.kieru.backend.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Outcome of one rate limit check (RateLimitService.consume).
+ */
+@Value
+@Builder
+public class RateLimitDecision {
+
+    public enum Status {
+        ALLOWED,
+        REJECTED,   // Over the limit on this request, the lockout (if any) starts now
+        LOCKED      // Still locked out by an earlier rejection
+    }
+
+    Status status;
+    long remaining;      // ALLOWED: requests left before the limit
+    long granted;        // ALLOWED: requests taken, more than 1 only for a lease
+    long retryAfterMs;   // REJECTED / LOCKED: time until the caller may try again
+
+    public boolean isAllowed() {
+        return status == Status.ALLOWED;
+    }
+
+    public static RateLimitDecision allowed(long remaining) {
+        return RateLimitDecision.builder().status(Status.ALLOWED).remaining(remaining).granted(1).build();
+    }
+}
@@ -0,0 +1,48 @@
+package com.kieru.backend.dto;
+
+import com.kieru.backend.util.KieruUtil;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Everything the access path needs about one secret, fetched with a single statement
+ * (secret_metadata LEFT JOIN secret_payload on the shared @MapsId key).
+ * Payload columns are null when the payload row is missing.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SecretAccessView {
+    private String id;
+
+    // Metadata
+    private int viewsLeft;
+    private Instant expiresAt;
+    private boolean active;
+    private boolean deleted;
+    private int viewTimeSeconds;
+    private boolean showTimeBomb;
+
+    // Payload
+    private String passwordHash;
+    private KieruUtil.SecretType type;
+    private String encryptedContent;   // Legacy text column, or the decoded content once known
+    private byte[] encodedContent;      // PayloadCodec output, decoded only when a view is granted
+
+    /**
+     * State only (streamed access): content columns are left unread.
+     */
+    public SecretAccessView(String id, int viewsLeft, Instant expiresAt, boolean active, boolean deleted,
+                            int viewTimeSeconds, boolean showTimeBomb, String passwordHash, KieruUtil.SecretType type) {
+        this(id, viewsLeft, expiresAt, active, deleted, viewTimeSeconds, showTimeBomb, passwordHash, type, null, null);
+    }
+
+    public boolean hasPayload() {
+        return type != null;
+    }
+}
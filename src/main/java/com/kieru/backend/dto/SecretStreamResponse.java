@@ -0,0 +1,27 @@
+package com.kieru.backend.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Result of a streamed access. On success body writes the payload and response carries the
+ * metadata (content left null), otherwise only response is set.
+ */
+@Data
+@Builder
+public class SecretStreamResponse {
+
+    @FunctionalInterface
+    public interface Body {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private SecretResponseDTO response;
+
+    private Body body;
+    private long contentLength;
+    private String contentType;
+}
@@ -0,0 +1,17 @@
+package com.kieru.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Raw content columns of one secret_payload row, still encoded (see PayloadCodec).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredContent {
+    // Legacy text column, null for rows written through PayloadCodec
+    private String encryptedContent;
+    private byte[] encodedContent;
+}
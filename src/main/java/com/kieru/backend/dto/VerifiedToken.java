@@ -0,0 +1,46 @@
+package com.kieru.backend.dto;
+
+import com.google.firebase.auth.FirebaseToken;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Claims of a Firebase ID token the filter needs, kept by VerifiedTokenCache once the signature has been checked.
+ */
+@Value
+@Builder(toBuilder = true)
+public class VerifiedToken {
+    String uid;
+    String email;
+    String name;
+    String picture;
+    String signInProvider;   // google.com, github.com, password, anonymous, ...
+    Instant expiresAt;       // exp claim
+    Instant issuedAt;        // iat claim, compared with User.sessionsRevokedAt
+
+    // User.sessionVersion when the token was cached, a newer version (login/logout) invalidates the entry
+    String sessionVersion;
+
+    public static VerifiedToken from(FirebaseToken token) {
+        Map<String, Object> claims = token.getClaims();
+        String signInProvider = null;
+        if (claims.get("firebase") instanceof Map<?, ?> firebaseClaims && firebaseClaims.get("sign_in_provider") instanceof String provider) {
+            signInProvider = provider;
+        }
+        Instant expiresAt = claims.get("exp") instanceof Number exp ? Instant.ofEpochSecond(exp.longValue()) : null;
+        Instant issuedAt = claims.get("iat") instanceof Number iat ? Instant.ofEpochSecond(iat.longValue()) : null;
+
+        return VerifiedToken.builder()
+                .uid(token.getUid())
+                .email(token.getEmail())
+                .name(token.getName())
+                .picture(token.getPicture())
+                .signInProvider(signInProvider)
+                .expiresAt(expiresAt)
+                .issuedAt(issuedAt)
+                .build();
+    }
+}
@@ -0,0 +1,37 @@
+package com.kieru.backend.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@Builder
+public class ViewConsumptionResult {
+
+    public enum Status {
+        MISS,               // No state in Redis, caller must load from DB and seed
+        SEEDED,
+        DELETED,
+        EXPIRED,
+        INACTIVE,
+        PASSWORD_REQUIRED,  // Nothing consumed, caller must verify against passwordHash and retry
+        EXHAUSTED,
+        CONSUMED
+    }
+
+    private Status status;
+    private int viewsLeft;
+
+    // Only present for PASSWORD_REQUIRED
+    private String passwordHash;
+
+    // Present for CONSUMED (and expiresAt for the rejection statuses)
+    private Instant expiresAt;
+    private Integer viewTimeSeconds;
+    private Boolean showTimeBomb;
+    private String type;
+
+    // Encrypted content from the Redis payload tier, null when it has to be read from the DB
+    private String content;
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDate;
 import java.time.ZoneOffset;
@@ -60,6 +61,12 @@ public class DailyStatistic {
     @Column(name = "secrets_failed_views", nullable = false)
     private long secretsFailedViews = 0L; // total views (long for scale)
 
+    @Min(0)
+    @ColumnDefault("0")
+    @Column(name = "unique_viewers", nullable = false)
+    @Builder.Default
+    private long uniqueViewers = 0L;      // distinct viewer IPs (HyperLogLog estimate when from live counters)
+
     // --- SUBSCRIPTION METRICS ---
     @Min(0)
     @Column(name = "new_subscriptions", nullable = false)
@@ -72,7 +79,13 @@ public class DailyStatistic {
     // --- COST METRICS ---
     @Min(0)
     @Column(name = "total_storage_bytes", nullable = false)
-    private long totalStorageBytes = 0L;
+    private long totalStorageBytes = 0L;     // physical: bytes actually stored after compression
+
+    @Min(0)
+    @ColumnDefault("0")
+    @Column(name = "total_logical_bytes", nullable = false)
+    @Builder.Default
+    private long totalLogicalBytes = 0L;     // logical: content size before compression
 
     /**
      * Optional optimistic lock so aggregator jobs can safely update without stomping each other.
@@ -0,0 +1,50 @@
+package com.kieru.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Additive metrics of one UTC hour, written by HourlyRollupJob. Hours without activity have no row.
+ * Daily totals are sums of these; distinct counts (active users, unique viewers) cannot be summed and stay daily only.
+ */
+@Entity
+@Table(
+        name = "hourly_statistics",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_hourly_stats_hour", columnNames = "hour_start")
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HourlyStatistic {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "hour_start", nullable = false)
+    private Instant hourStart;
+
+    @Column(name = "new_users", nullable = false)
+    private long newUsers;
+
+    @Column(name = "secrets_created", nullable = false)
+    private long secretsCreated;
+
+    @Column(name = "secrets_viewed", nullable = false)
+    private long secretsViewed;
+
+    @Column(name = "secrets_failed_views", nullable = false)
+    private long secretsFailedViews;
+
+    @Column(name = "total_storage_bytes", nullable = false)
+    private long totalStorageBytes;     // physical
+
+    @Column(name = "total_logical_bytes", nullable = false)
+    private long totalLogicalBytes;
+}
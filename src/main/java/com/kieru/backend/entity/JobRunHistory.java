@@ -0,0 +1,60 @@
+package com.kieru.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * One row per run of a @JobLock job, written by JobLockAspect on the node that got the lock.
+ */
+@Entity
+@Table(
+        name = "job_run_history",
+        indexes = {
+                @Index(name = "idx_job_run_history_job", columnList = "job_name, started_at")
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JobRunHistory {
+
+    public enum Status {
+        RUNNING,
+        SUCCEEDED,
+        FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_name", nullable = false, length = 100)
+    private String jobName;
+
+    @Column(name = "node", nullable = false, length = 100)
+    private String node;
+
+    @Column(name = "started_at", nullable = false)
+    private Instant startedAt;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    @Column(name = "rows_affected", nullable = false)
+    private long rowsAffected;
+
+    // Set when the lease could not be renewed, another node may have run the job concurrently
+    @Column(name = "lease_lost", nullable = false)
+    private boolean leaseLost;
+
+    @Column(length = 500)
+    private String error;
+}
@@ -8,7 +8,7 @@ import java.time.Instant;
 
 @Entity
 @Table(name = "secret_access_logs", indexes = {
-        @Index(name = "idx_secret_access_logs_secret", columnList = "secret_id"),
+        @Index(name = "idx_secret_access_logs_secret", columnList = "secret_id, accessed_at"),
         @Index(name = "idx_secret_access_logs_accessed_at", columnList = "accessed_at")
 })
 @Getter @Setter
@@ -16,7 +16,8 @@ import java.util.UUID;
         name = "secret_metadata",
         indexes = {
                 @Index(name = "idx_secret_metadata_owner", columnList = "owner_id"),
-                @Index(name = "idx_secret_metadata_expires", columnList = "expires_at")
+                @Index(name = "idx_secret_metadata_expires", columnList = "expires_at"),
+                @Index(name = "idx_secret_metadata_created", columnList = "created_at")   // hourly rollup range scans
         }
 )
 @Getter @Setter
@@ -3,9 +3,10 @@ package com.kieru.backend.entity;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.kieru.backend.util.KieruUtil;
 import jakarta.persistence.*;
-import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 @Entity
 @Table(name = "secret_payload")
@@ -41,9 +42,27 @@ public class SecretPayload {
     /**
      * The encrypted content (could be large, e.g. base64 image).
      * Use @Lob (and columnDefinition 'text' for Postgres) to allow large payloads.
+     * Legacy: only rows written before PayloadCodec use this column, new rows leave it null.
      */
     @Lob
-    @NotBlank
-    @Column(nullable = false, columnDefinition = "text")
+    @Column(columnDefinition = "text")
     private String encryptedContent;
+
+    /**
+     * Encrypted content as written by PayloadCodec (header byte + optionally compressed body).
+     */
+    @JdbcTypeCode(SqlTypes.LONG32VARBINARY)   // bytea on Postgres, longblob on MySQL
+    @Column(name = "encoded_content")
+    private byte[] encodedContent;
+
+    /**
+     * Set when the body is held outside the row by a PayloadStore (e.g. "file:ab/cd/abcd123456"),
+     * encodedContent is then null.
+     */
+    @Column(name = "storage_key")
+    private String storageKey;
+
+    // Logical (uncompressed) size in bytes, physical size is the length of encodedContent
+    @Column(name = "content_length")
+    private Long contentLength;
 }
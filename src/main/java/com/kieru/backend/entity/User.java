@@ -18,7 +18,8 @@ import java.util.UUID;
 @Entity
 @Table(name = "kieru_users",
         indexes = {
-                @Index(name = "idx_kieru_users_email", columnList = "email")
+                @Index(name = "idx_kieru_users_email", columnList = "email"),
+                @Index(name = "idx_kieru_users_joined", columnList = "joined_at")   // hourly rollup range scans
         },
         uniqueConstraints = {
                 @UniqueConstraint(name = "uk_kieru_users_email", columnNames = "email")
@@ -59,6 +60,9 @@ public class User {
     @Column(length = 50)
     private String sessionVersion;
 
+    // Set by logout: ID tokens issued before it are rejected, with or without the session header
+    private Instant sessionsRevokedAt;
+
     // Added Login Provider (Needed for your Filter logic)
     @NotNull
     @Enumerated(EnumType.STRING)
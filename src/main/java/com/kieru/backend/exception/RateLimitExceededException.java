@@ -1,7 +1,19 @@
 package com.kieru.backend.exception;
 
+import lombok.Getter;
+
+@Getter
 public class RateLimitExceededException extends RuntimeException {
+
+    // 0 when unknown
+    private final long retryAfterMs;
+
     public RateLimitExceededException(String message) {
+        this(message, 0);
+    }
+
+    public RateLimitExceededException(String message, long retryAfterMs) {
         super(message);
+        this.retryAfterMs = retryAfterMs;
     }
-}
\ No newline at end of file
+}
@@ -1,10 +1,14 @@
 package com.kieru.backend.filter;
 
-import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.auth.FirebaseAuthException;
-import com.google.firebase.auth.FirebaseToken;
+import com.kieru.backend.dto.VerifiedToken;
 import com.kieru.backend.entity.User;
+import com.kieru.backend.exception.InvalidTokenException;
 import com.kieru.backend.repository.UserRepository;
+import com.kieru.backend.service.LastLoginWriter;
+import com.kieru.backend.service.TokenVerifier;
+import com.kieru.backend.store.DailyCounterStore;
+import com.kieru.backend.store.UserPrincipalCache;
+import com.kieru.backend.store.VerifiedTokenCache;
 import com.kieru.backend.util.KieruUtil;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -20,16 +24,22 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 import java.time.Instant;
 import java.util.Collections;
-import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
 
 @Component
 @RequiredArgsConstructor
 public class FirebaseAuthFilter extends OncePerRequestFilter {
 
-    private final FirebaseAuth firebaseAuth;
+    private static final String LOGIN_PATH = "/api/auth/login";
+
+    private final TokenVerifier tokenVerifier;
     private final UserRepository userRepository;
+    private final DailyCounterStore dailyCounters;
+    private final VerifiedTokenCache tokenCache;
+    private final UserPrincipalCache principalCache;
+    private final LastLoginWriter lastLoginWriter;
+    private final SessionVersionCheck sessionCheck;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -45,17 +55,20 @@ public class FirebaseAuthFilter extends OncePerRequestFilter {
         String token = header.substring(7); // Remove "Bearer "
 
         try {
-            // 1. Verify Token
-            FirebaseToken decodedToken = firebaseAuth.verifyIdToken(token);
-            String uid = decodedToken.getUid();
-            String email = decodedToken.getEmail();
-            String name = decodedToken.getName();
-            String picture = decodedToken.getPicture();
+            // 1. Verify Token (cached for the token's lifetime, RSA verification only on a miss)
+            VerifiedToken verified = tokenCache.get(token);
+            boolean fromCache = verified != null;
+            if (!fromCache) {
+                verified = tokenVerifier.verify(token);
+            }
+            String uid = verified.getUid();
+            String email = verified.getEmail();
+            String name = verified.getName();
+            String picture = verified.getPicture();
 
             // 2. Extract Provider (google.com, github.com, anonymous)
             // Firebase puts this inside a map called "firebase" -> "sign_in_provider"
-            Map<String, Object> firebaseClaims = (Map<String, Object>) decodedToken.getClaims().get("firebase");
-            String signInProvider = (String) firebaseClaims.get("sign_in_provider");
+            String signInProvider = verified.getSignInProvider();
 
             // 3. Determine Plan & Provider Enum
             KieruUtil.SubscriptionPlan plan;
@@ -72,52 +85,103 @@ public class FirebaseAuthFilter extends OncePerRequestFilter {
                 else providerEnum = KieruUtil.LoginProvider.EMAIL;
             }
 
-            // 4. Sync User to Database
-            Optional<User> optionalUser = userRepository.findById(uid);
-            User user;
-
-            if (optionalUser.isEmpty()) {
-                // --- CREATE NEW USER ---
-                user = User.builder()
-                        .id(uid)
-                        .email(email)
-                        .displayName(name != null ? name : "Anonymous User")
-                        .photoUrl(picture)
-                        .role(KieruUtil.UserRole.USER)
-                        .joinedAt(Instant.now())
-                        .lastLoginAt(Instant.now())
-                        .secretsCreatedCount(0)
-                        .isBanned(false)
-                        .subscription(plan)
-                        .loginProvider(providerEnum)
-                        .build();
-
-                userRepository.save(user);
-            } else {
-                // --- UPDATE EXISTING USER ---
-                user = optionalUser.get();
-                // If an anonymous user converts to Google, upgrade them
-                if (user.getSubscription() == KieruUtil.SubscriptionPlan.ANONYMOUS && email != null) {
-                    user.setEmail(email);
-                    user.setDisplayName(name);
-                    user.setPhotoUrl(picture);
-                    user.setSubscription(KieruUtil.SubscriptionPlan.EXPLORER);
-                    user.setLoginProvider(providerEnum);
+            // 4. Sync User to Database (principal cache first, the DB only on a miss or an anonymous upgrade)
+            Instant now = Instant.now();
+            User user = principalCache.get(uid);
+            boolean cachedPrincipal = user != null;
+
+            if (user == null || (user.getSubscription() == KieruUtil.SubscriptionPlan.ANONYMOUS && email != null)) {
+                // Read before the row: put() refuses it if the user is invalidated in between
+                long generation = principalCache.generation(uid);
+                Optional<User> optionalUser = userRepository.findById(uid);
+
+                if (optionalUser.isEmpty()) {
+                    // --- CREATE NEW USER ---
+                    user = User.builder()
+                            .id(uid)
+                            .email(email)
+                            .displayName(name != null ? name : "Anonymous User")
+                            .photoUrl(picture)
+                            .role(KieruUtil.UserRole.USER)
+                            .joinedAt(now)
+                            .lastLoginAt(now)
+                            .secretsCreatedCount(0)
+                            .isBanned(false)
+                            .subscription(plan)
+                            .loginProvider(providerEnum)
+                            .build();
+
+                    userRepository.save(user);
+                    dailyCounters.increment(DailyCounterStore.Counter.NEW_USERS, 1);
+                } else {
+                    // --- UPDATE EXISTING USER ---
+                    user = optionalUser.get();
+                    // If an anonymous user converts to Google, upgrade them
+                    if (user.getSubscription() == KieruUtil.SubscriptionPlan.ANONYMOUS && email != null) {
+                        user.setEmail(email);
+                        user.setDisplayName(name);
+                        user.setPhotoUrl(picture);
+                        user.setSubscription(KieruUtil.SubscriptionPlan.EXPLORER);
+                        user.setLoginProvider(providerEnum);
+                        user.setLastLoginAt(now);
+                        userRepository.save(user);
+                        principalCache.invalidate(uid);
+                        generation = principalCache.generation(uid);
+                    }
                 }
-                user.setLastLoginAt(Instant.now());
+                principalCache.put(user, generation);
+                cachedPrincipal = false;
+            }
 
-                // Save async to not block the request
-                final User userToSave = user;
-                CompletableFuture.runAsync(() -> userRepository.save(userToSave));
+            // lastLoginAt is coalesced, at most one targeted update per user per interval
+            lastLoginWriter.record(uid, now);
+
+            // 5. Check Session Version (skipped on login, which checks the revocation itself and hands out the version)
+            if (!LOGIN_PATH.equals(request.getServletPath())) {
+                SessionVersionCheck.Result session = sessionCheck.check(request, user, verified.getIssuedAt());
+                if (session == SessionVersionCheck.Result.REVOKED && cachedPrincipal
+                        && !principalCache.loadedWithin(uid, sessionCheck.getRecheckIntervalMs())) {
+                    // This node's copy may be stale (missed invalidation): shared tier first, the DB only on a miss.
+                    // At most once per user per interval, so replaying a revoked token stays cheap
+                    User current = principalCache.getShared(uid);
+                    if (current == null) {
+                        long generation = principalCache.generation(uid);
+                        current = userRepository.findById(uid).orElse(null);
+                        if (current != null) {
+                            principalCache.put(current, generation);
+                        }
+                    }
+                    if (current != null) {
+                        user = current;
+                        session = sessionCheck.check(request, user, verified.getIssuedAt());
+                    }
+                }
+                sessionCheck.record(session);
+                if (!session.isAccepted()) {
+                    response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Session Revoked");
+                    return;
+                }
             }
 
-            // 5. Check Ban Status
+            // 6. Check Ban Status
             if (user.isBanned()) {
                 response.sendError(HttpServletResponse.SC_FORBIDDEN, "Account Suspended");
                 return;
             }
 
-            // 6. Set Spring Security Context
+            // Session rotated (logout) since the token was cached: verify it again before trusting it
+            if (fromCache && !Objects.equals(verified.getSessionVersion(), user.getSessionVersion())) {
+                tokenCache.evict(token);
+                verified = tokenVerifier.verify(token);
+                fromCache = false;
+            }
+            if (!fromCache) {
+                tokenCache.put(token, verified.toBuilder().sessionVersion(user.getSessionVersion()).build());
+            }
+
+            dailyCounters.recordActiveUser(uid);
+
+            // 7. Set Spring Security Context
             SimpleGrantedAuthority authority = new SimpleGrantedAuthority("ROLE_" + user.getRole().name());
             UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                     user, null, Collections.singletonList(authority)
@@ -125,7 +189,7 @@ public class FirebaseAuthFilter extends OncePerRequestFilter {
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
 
-        } catch (FirebaseAuthException e) {
+        } catch (InvalidTokenException e) {
             response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid Token");
             return;
         } catch (Exception e) {
@@ -0,0 +1,80 @@
+package com.kieru.backend.filter;
+
+import com.kieru.backend.entity.User;
+import com.kieru.backend.util.SessionConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Checks the token's issue time against the user's last logout and the session version sent by the client
+ * against the current one (see SessionConfig).
+ */
+@Component
+public class SessionVersionCheck {
+
+    public enum Result {
+        VALID,
+        NOT_CHECKED,   // Enforcement off, no header in LENIENT mode, or the user never logged in through /api/auth/login
+        MISSING,       // No header in STRICT mode
+        REVOKED;       // Token issued before the last logout, or header does not match the current version
+
+        public boolean isAccepted() {
+            return this == VALID || this == NOT_CHECKED;
+        }
+    }
+
+    private final SessionConfig config;
+    private final Map<Result, Counter> results = new EnumMap<>(Result.class);
+
+    public SessionVersionCheck(SessionConfig config, MeterRegistry meterRegistry) {
+        this.config = config;
+
+        for (Result result : Result.values()) {
+            results.put(result, Counter.builder("kieru.auth.session").tag("result", result.name().toLowerCase())
+                    .description("Session version checks of authenticated requests").register(meterRegistry));
+        }
+    }
+
+    /**
+     * Result of the check, without recording it (the filter may re-check against a fresher user).
+     */
+    public Result check(HttpServletRequest request, User user, Instant tokenIssuedAt) {
+        if (config.getEnforcement() == SessionConfig.Enforcement.OFF) {
+            return Result.NOT_CHECKED;
+        }
+        if (isRevoked(user, tokenIssuedAt)) {
+            return Result.REVOKED;
+        }
+        if (user.getSessionVersion() == null) {
+            return Result.NOT_CHECKED;
+        }
+
+        String presented = request.getHeader(config.getHeader());
+        if (presented == null || presented.isBlank()) {
+            return config.getEnforcement() == SessionConfig.Enforcement.STRICT ? Result.MISSING : Result.NOT_CHECKED;
+        }
+        return presented.equals(user.getSessionVersion()) ? Result.VALID : Result.REVOKED;
+    }
+
+    /**
+     * True when the user logged out after the token was issued (a token without iat counts as issued before).
+     */
+    public static boolean isRevoked(User user, Instant tokenIssuedAt) {
+        Instant revokedAt = user.getSessionsRevokedAt();
+        return revokedAt != null && (tokenIssuedAt == null || tokenIssuedAt.isBefore(revokedAt));
+    }
+
+    public long getRecheckIntervalMs() {
+        return config.getRecheckIntervalMs();
+    }
+
+    public void record(Result result) {
+        results.get(result).increment();
+    }
+}
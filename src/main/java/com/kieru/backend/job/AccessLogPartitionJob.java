@@ -0,0 +1,266 @@
+package com.kieru.backend.job;
+
+import com.kieru.backend.annotation.JobLock;
+import com.kieru.backend.util.AccessLogPartitionConfig;
+import com.kieru.backend.util.KieruUtil;
+import com.kieru.backend.util.PurgeConfig;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * secret_access_logs is RANGE partitioned by month on accessed_at:
+ *   secret_access_logs_legacy   the pre-partitioning table, attached as-is (MINVALUE .. end of the conversion month)
+ *   secret_access_logs_pYYYYMM  one per month, created premakeMonths ahead
+ *   secret_access_logs_default  safety net, should stay empty
+ * Retention detaches and drops whole partitions (O(1)) instead of deleting rows.
+ * Time-range queries stay prunable as long as they filter on accessed_at.
+ */
+@Component
+@Slf4j
+public class AccessLogPartitionJob implements InitializingBean {
+
+    private static final String TABLE = "secret_access_logs";
+    private static final DateTimeFormatter MONTH_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    // Whole conversion is one statement (one transaction) under an advisory lock, so concurrent nodes and
+    // a failure halfway are both safe. Legacy rows are validated once and never copied.
+    private static final String CONVERT_SQL = """
+            DO $$
+            DECLARE
+                legacy_upper timestamptz := date_trunc('month', now() AT TIME ZONE 'UTC') AT TIME ZONE 'UTC' + interval '1 month';
+                max_id bigint;
+                con record;
+            BEGIN
+                PERFORM pg_advisory_xact_lock(hashtext('secret_access_logs_partitioning'));
+
+                IF (SELECT relkind FROM pg_class WHERE oid = to_regclass('secret_access_logs')) IS DISTINCT FROM 'r' THEN
+                    RETURN;
+                END IF;
+
+                ALTER TABLE secret_access_logs RENAME TO secret_access_logs_legacy;
+                FOR con IN SELECT conname, contype FROM pg_constraint WHERE conrelid = 'secret_access_logs_legacy'::regclass AND contype IN ('p', 'f') LOOP
+                    IF con.contype = 'p' THEN
+                        EXECUTE format('ALTER TABLE secret_access_logs_legacy RENAME CONSTRAINT %I TO secret_access_logs_legacy_pkey', con.conname);
+                    ELSE
+                        EXECUTE format('ALTER TABLE secret_access_logs_legacy DROP CONSTRAINT %I', con.conname);
+                    END IF;
+                END LOOP;
+                ALTER INDEX IF EXISTS idx_secret_access_logs_secret RENAME TO idx_secret_access_logs_legacy_secret;
+                ALTER INDEX IF EXISTS idx_secret_access_logs_accessed_at RENAME TO idx_secret_access_logs_legacy_accessed_at;
+
+                SELECT COALESCE(max(id), 0) INTO max_id FROM secret_access_logs_legacy;
+                ALTER TABLE secret_access_logs_legacy ALTER COLUMN id DROP IDENTITY IF EXISTS;
+                ALTER TABLE secret_access_logs_legacy ALTER COLUMN id DROP DEFAULT;
+
+                CREATE TABLE secret_access_logs (LIKE secret_access_logs_legacy INCLUDING DEFAULTS) PARTITION BY RANGE (accessed_at);
+                CREATE SEQUENCE secret_access_logs_pid_seq OWNED BY secret_access_logs.id;
+                PERFORM setval('secret_access_logs_pid_seq', max_id + 1, false);
+                ALTER TABLE secret_access_logs ALTER COLUMN id SET DEFAULT nextval('secret_access_logs_pid_seq');
+                ALTER TABLE secret_access_logs ADD PRIMARY KEY (id, accessed_at);
+                CREATE INDEX idx_secret_access_logs_secret ON secret_access_logs (secret_id, accessed_at);
+                CREATE INDEX idx_secret_access_logs_accessed_at ON secret_access_logs (accessed_at);
+
+                EXECUTE format('ALTER TABLE secret_access_logs_legacy ADD CONSTRAINT secret_access_logs_legacy_range CHECK (accessed_at < %L)', legacy_upper);
+                EXECUTE format('ALTER TABLE secret_access_logs ATTACH PARTITION secret_access_logs_legacy FOR VALUES FROM (MINVALUE) TO (%L)', legacy_upper);
+                CREATE TABLE secret_access_logs_default PARTITION OF secret_access_logs DEFAULT;
+
+                ALTER TABLE secret_access_logs ADD CONSTRAINT fk_secret_access_logs_secret FOREIGN KEY (secret_id) REFERENCES secret_metadata (id);
+            END $$
+            """;
+
+    // Bounds parsed by Postgres itself: MINVALUE/MAXVALUE come back as null
+    private static final String LIST_PARTITIONS_SQL = """
+            SELECT c.relname AS name,
+                   (regexp_match(pg_get_expr(c.relpartbound, c.oid), 'FROM \\(''([^'']+)''\\)'))[1]::timestamptz AS lower_bound,
+                   (regexp_match(pg_get_expr(c.relpartbound, c.oid), 'TO \\(''([^'']+)''\\)'))[1]::timestamptz AS upper_bound,
+                   pg_get_expr(c.relpartbound, c.oid) = 'DEFAULT' AS is_default
+            FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = to_regclass('secret_access_logs')
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AccessLogPartitionConfig config;
+    private final PurgeConfig purgeConfig;
+
+    private volatile boolean partitioned;
+
+    @Data
+    @AllArgsConstructor
+    private static class Partition {
+        private String name;
+        private Instant lowerBound;   // null: MINVALUE
+        private Instant upperBound;   // null: MAXVALUE
+        private boolean isDefault;
+
+        boolean overlaps(Instant from, Instant to) {
+            return !isDefault && (lowerBound == null || lowerBound.isBefore(to)) && (upperBound == null || upperBound.isAfter(from));
+        }
+    }
+
+    // EntityManagerFactory: Hibernate has created/updated the table before the conversion runs
+    public AccessLogPartitionJob(JdbcTemplate jdbcTemplate, AccessLogPartitionConfig config, PurgeConfig purgeConfig,
+                                 EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.config = config;
+        this.purgeConfig = purgeConfig;
+    }
+
+    /**
+     * True once secret_access_logs is partitioned, retention is then handled here instead of by row deletes.
+     */
+    public boolean isPartitioned() {
+        return partitioned;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!config.isEnabled() || !isPostgres()) {
+            log.info("AccessLogPartitionJob :: Partitioning disabled or not on Postgres, access log retention stays row based");
+            return;
+        }
+
+        try {
+            jdbcTemplate.execute(CONVERT_SQL);
+            partitioned = isPartitionedTable();
+            if (partitioned) {
+                maintainPartitions();
+            }
+        }
+        catch (Exception e) {
+            log.error("AccessLogPartitionJob :: Partition setup failed, access logs stay in a plain table", e);
+        }
+    }
+
+    /**
+     * Job: Maintain Access Log Partitions
+     * Runs daily at 00:05 UTC. Creates the next premakeMonths months and drops months past retention.
+     */
+    @Scheduled(cron = "0 5 0 * * *", zone = "UTC")
+    @JobLock(name = "access-log-partitions")
+    public void maintainPartitions() {
+        if (!partitioned) {
+            return;
+        }
+
+        MDC.put("job", "AccessLogPartitions");
+        long startTime = System.currentTimeMillis();
+        int created = 0;
+        int dropped = 0;
+
+        try {
+            List<Partition> partitions = listPartitions();
+            created = createUpcoming(partitions);
+            dropped = dropExpired(partitions);
+        }
+        catch (Exception e) {
+            log.error("AccessLogPartitionJob :: Partition maintenance failed after creating {} and dropping {}", created, dropped, e);
+        }
+        finally {
+            long duration = System.currentTimeMillis() - startTime;
+            MDC.put("duration_ms", String.valueOf(duration));
+            log.info("AccessLogPartitionJob :: Finished. Created {} partitions, dropped {} in {}.",
+                    created, dropped, KieruUtil.millisToRelativeTime(duration));
+            JobRunContext.addRows(created + dropped);
+            MDC.clear();
+        }
+    }
+
+    private int createUpcoming(List<Partition> partitions) {
+        int created = 0;
+        LocalDate month = LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1);
+
+        for (int i = 0; i <= config.getPremakeMonths(); i++, month = month.plusMonths(1)) {
+            Instant from = month.atStartOfDay(ZoneOffset.UTC).toInstant();
+            Instant to = month.plusMonths(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+
+            // The legacy partition (or an earlier run) may already cover it
+            if (partitions.stream().anyMatch(partition -> partition.overlaps(from, to))) {
+                continue;
+            }
+
+            String name = TABLE + "_p" + month.format(MONTH_SUFFIX);
+            try {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF " + TABLE +
+                        " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+                created++;
+                log.info("AccessLogPartitionJob :: Created partition {} [{} .. {})", name, from, to);
+            }
+            catch (Exception e) {
+                // Typically rows for that month already sit in the default partition
+                log.error("AccessLogPartitionJob :: Failed to create partition {}", name, e);
+            }
+        }
+        return created;
+    }
+
+    private int dropExpired(List<Partition> partitions) {
+        int dropped = 0;
+        Instant cutoff = Instant.now().minus(purgeConfig.getAccessLogRetentionDays(), ChronoUnit.DAYS);
+
+        for (Partition partition : partitions) {
+            if (partition.isDefault() || partition.getUpperBound() == null || partition.getUpperBound().isAfter(cutoff)) {
+                continue;
+            }
+
+            String name = partition.getName();
+            try {
+                // One connection: lock_timeout applies to the detach, which needs a brief exclusive lock on the parent
+                jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute("SET lock_timeout = " + config.getLockTimeoutMs());
+                        try {
+                            statement.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + name);
+                            statement.execute("DROP TABLE " + name);
+                        }
+                        finally {
+                            statement.execute("RESET lock_timeout");
+                        }
+                    }
+                    return null;
+                });
+                dropped++;
+                log.info("AccessLogPartitionJob :: Dropped partition {} (upper bound {}, cutoff {})", name, partition.getUpperBound(), cutoff);
+            }
+            catch (Exception e) {
+                log.warn("AccessLogPartitionJob :: Failed to drop partition {}, will retry next run: {}", name, e.getMessage());
+            }
+        }
+        return dropped;
+    }
+
+    private List<Partition> listPartitions() {
+        return jdbcTemplate.query(LIST_PARTITIONS_SQL, (rs, rowNum) -> {
+            Timestamp lower = rs.getTimestamp("lower_bound");
+            Timestamp upper = rs.getTimestamp("upper_bound");
+            return new Partition(rs.getString("name"), lower == null ? null : lower.toInstant(),
+                    upper == null ? null : upper.toInstant(), rs.getBoolean("is_default"));
+        });
+    }
+
+    private boolean isPartitionedTable() {
+        List<String> relkind = jdbcTemplate.queryForList("SELECT relkind::text FROM pg_class WHERE oid = to_regclass('" + TABLE + "')", String.class);
+        return relkind.contains("p");
+    }
+
+    private boolean isPostgres() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equalsIgnoreCase(product);
+    }
+}
@@ -1,7 +1,10 @@
 package com.kieru.backend.job;
 
+import com.kieru.backend.annotation.JobLock;
+import com.kieru.backend.dto.DayCounters;
 import com.kieru.backend.entity.DailyStatistic;
 import com.kieru.backend.repository.*;
+import com.kieru.backend.store.DailyCounterStore;
 import com.kieru.backend.util.KieruUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -13,6 +16,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
@@ -23,60 +27,38 @@ public class DailyAnalyticsJob {
     private final UserRepository userRepo;
     private final SecretMetadataRepository secretRepo;
     private final AccessLogRepository logRepo;
+    private final DailyCounterStore dailyCounters;
 
     /**
      * ETL JOB: Generate Daily Statistics
      * Runs at 00:30 UTC every day.
      * Processes data for "Yesterday".
+     *
+     * Snapshots the live counters of DailyCounterStore (O(1) whatever the table sizes). Falls back to
+     * the SQL path when those counters do not cover the whole day (Redis flushed, counting started mid-day).
      */
     @Scheduled(cron = "0 30 0 * * *")
+    @JobLock(name = "daily-analytics", leaseMs = 120000)
     @Transactional // Atomic Transaction: All stats save or nothing saves
     public void generateDailyStats() {
         MDC.put("job", "DailyAnalytics");
         long startTime = System.currentTimeMillis();
 
-        // 1. TRANSFORM: Define the Time Window (Yesterday 00:00:00 to 23:59:59 UTC)
         // We run at 00:30 Today, so we look back 1 day.
         LocalDate targetDate = LocalDate.now(ZoneOffset.UTC).minusDays(1);
-
-        Instant startOfDay = targetDate.atStartOfDay(ZoneOffset.UTC).toInstant();
-        Instant endOfDay = targetDate.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant().minusMillis(1);
-
         log.info("GenerateDailyStatsJob :: Starting Analytics ETL for Date: {}", targetDate);
 
         try {
-            // 2. EXTRACT: Gather metrics from all sources
-            // User Metrics
-            long newUsers = userRepo.countByJoinedAtBetween(startOfDay, endOfDay);
-            long activeUsers = userRepo.countByLastLoginAtBetween(startOfDay, endOfDay);
-
-            // Secret Metrics
-            long secretsCreated = secretRepo.countByCreatedAtBetween(startOfDay, endOfDay);
-            long storageBytes = secretRepo.sumStorageBytesBetween(startOfDay, endOfDay);
-
-            // Access Metrics
-            long viewsSuccess = logRepo.countByAccessedAtBetweenAndWasSuccessfulTrue(startOfDay, endOfDay);
-            long viewsFailed = logRepo.countByAccessedAtBetweenAndWasSuccessfulFalse(startOfDay, endOfDay);
-
-            // 3. IDEMPOTENCY CHECK (Load Strategy)
-            DailyStatistic stats = statsRepo.findByDate(targetDate)
-                    .orElse(DailyStatistic.builder().date(targetDate).build());
-
-            stats.setNewUsers((int) newUsers);
-            stats.setActiveUsers((int) activeUsers);
-            stats.setSecretsCreated((int) secretsCreated);
-            stats.setTotalStorageBytes(storageBytes);
-            stats.setSecretsViewed(viewsSuccess);
-            stats.setSecretsFailedViews(viewsFailed);
-
-            stats.setNewSubscriptions(0);
-            stats.setTotalActiveSubscriptions(0);
-
-            statsRepo.save(stats);
-
-            log.info("GenerateDailyStatsJob :: Analytics ETL Finished. Stats for {}: [Users: {}, Secrets: {}, Views: {}]",
-                    targetDate, newUsers, secretsCreated, viewsSuccess);
-
+            Optional<DayCounters> counters = readCounters(targetDate);
+            DailyStatistic stats = counters.isPresent()
+                    ? saveFromCounters(counters.get())
+                    : backfillFromDatabase(targetDate);
+            JobRunContext.addRows(1);
+
+            log.info("GenerateDailyStatsJob :: Analytics ETL Finished from {}. Stats for {}: [Users: {}, Active: {}, Secrets: {}, Views: {}, Unique Viewers: {}, Storage: {}/{} bytes (physical/logical)]",
+                    counters.isPresent() ? "live counters" : "database", targetDate, stats.getNewUsers(), stats.getActiveUsers(),
+                    stats.getSecretsCreated(), stats.getSecretsViewed(), stats.getUniqueViewers(),
+                    stats.getTotalStorageBytes(), stats.getTotalLogicalBytes());
         }
         catch (Exception e) {
             log.error("GenerateDailyStatsJob :: Analytics ETL Failed", e);
@@ -85,17 +67,88 @@ public class DailyAnalyticsJob {
         finally {
             long duration = System.currentTimeMillis() - startTime;
             MDC.put("duration_ms", String.valueOf(duration));
-            log.error("GenerateDailyStatsJob :: Daily analtics job completed for date: {} total time taken: {}", targetDate, KieruUtil.millisToRelativeTime(duration));
+            log.info("GenerateDailyStatsJob :: Daily analytics job completed for date: {} total time taken: {}", targetDate, KieruUtil.millisToRelativeTime(duration));
             MDC.clear();
         }
     }
 
+    /**
+     * Recomputes a day from the tables (six range queries). Used when live counters are missing or incomplete,
+     * and to backfill past days. activeUsers can only be approximated here: lastLoginAt keeps the latest login only.
+     */
+    @Transactional
+    public DailyStatistic backfillFromDatabase(LocalDate targetDate) {
+        Instant startOfDay = targetDate.atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant nextDay = targetDate.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant endOfDay = nextDay.minusMillis(1);
+
+        // User Metrics
+        long newUsers = userRepo.countByJoinedAtBetween(startOfDay, endOfDay);
+        long activeUsers = userRepo.countByLastLoginAtBetween(startOfDay, endOfDay);
+
+        // Secret Metrics
+        long secretsCreated = secretRepo.countByCreatedAtBetween(startOfDay, endOfDay);
+        SecretMetadataRepository.StorageBytes storageBytes = secretRepo.sumStorageBytesBetween(startOfDay, endOfDay);
+
+        // Access Metrics
+        AccessLogRepository.ViewCounts viewCounts = logRepo.countViewsBetween(startOfDay, nextDay);
+
+        DailyStatistic stats = statsFor(targetDate);
+        stats.setNewUsers((int) newUsers);
+        stats.setActiveUsers((int) activeUsers);
+        stats.setSecretsCreated((int) secretsCreated);
+        stats.setTotalStorageBytes(storageBytes.getPhysicalBytes());
+        stats.setTotalLogicalBytes(storageBytes.getLogicalBytes());
+        stats.setSecretsViewed(viewCounts.getSuccessful());
+        stats.setSecretsFailedViews(viewCounts.getFailed());
+        stats.setUniqueViewers(viewCounts.getUniqueViewers());
+        return statsRepo.save(stats);
+    }
+
+    private Optional<DayCounters> readCounters(LocalDate targetDate) {
+        try {
+            Optional<DayCounters> counters = dailyCounters.read(targetDate);
+            if (counters.isPresent() && !counters.get().isComplete()) {
+                log.warn("GenerateDailyStatsJob :: Live counters for {} do not cover the whole day, using the database", targetDate);
+                return Optional.empty();
+            }
+            return counters;
+        }
+        catch (Exception e) {
+            log.warn("GenerateDailyStatsJob :: Could not read live counters for {}, using the database", targetDate, e);
+            return Optional.empty();
+        }
+    }
+
+    private DailyStatistic saveFromCounters(DayCounters counters) {
+        DailyStatistic stats = statsFor(counters.getDate());
+        stats.setNewUsers((int) counters.getNewUsers());
+        stats.setActiveUsers((int) counters.getActiveUsers());
+        stats.setSecretsCreated((int) counters.getSecretsCreated());
+        stats.setTotalStorageBytes(counters.getPhysicalBytes());
+        stats.setTotalLogicalBytes(counters.getLogicalBytes());
+        stats.setSecretsViewed(counters.getSecretsViewed());
+        stats.setSecretsFailedViews(counters.getFailedViews());
+        stats.setUniqueViewers(counters.getUniqueViewers());
+        return statsRepo.save(stats);
+    }
+
+    // IDEMPOTENCY CHECK (Load Strategy): reruns overwrite the day's row
+    private DailyStatistic statsFor(LocalDate date) {
+        DailyStatistic stats = statsRepo.findByDate(date)
+                .orElse(DailyStatistic.builder().date(date).build());
+        stats.setNewSubscriptions(0);
+        stats.setTotalActiveSubscriptions(0);
+        return stats;
+    }
+
     /**
      * CLEANUP JOB: Retention Policy
      * Runs at 02:00 UTC every day.
      * Deletes analytics rows older than 180 days.
      */
     @Scheduled(cron = "0 0 2 * * *")
+    @JobLock(name = "analytics-cleanup")
     @Transactional
     public void cleanupOldStats() {
         MDC.put("job", "AnalyticsCleanup");
@@ -107,6 +160,7 @@ public class DailyAnalyticsJob {
             LocalDate cutoffDate = LocalDate.now(ZoneOffset.UTC).minusDays(180);
 
             int deletedCount = statsRepo.deleteOlderThan(cutoffDate);
+            JobRunContext.addRows(deletedCount);
 
             if (deletedCount > 0) {
                 long duration = System.currentTimeMillis() - startTime;
@@ -0,0 +1,278 @@
+package com.kieru.backend.job;
+
+import com.kieru.backend.annotation.JobLock;
+import com.kieru.backend.config.AsyncConfig;
+import com.kieru.backend.entity.DailyStatistic;
+import com.kieru.backend.entity.HourlyStatistic;
+import com.kieru.backend.entity.RollupWatermark;
+import com.kieru.backend.repository.*;
+import com.kieru.backend.util.KieruUtil;
+import com.kieru.backend.util.PurgeConfig;
+import com.kieru.backend.util.RollupConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class HourlyRollupJob {
+
+    private static final String WATERMARK_NAME = "hourly_statistics";
+
+    // Epoch hour, independent of the session time zone (date_trunc on timestamptz is not)
+    private static final String HOUR_OF = "CAST(FLOOR(EXTRACT(EPOCH FROM %s) / 3600) AS BIGINT)";
+
+    private static final String USERS_SQL = "SELECT " + hourOf("joined_at") + " AS bucket, COUNT(*) AS new_users " +
+            "FROM kieru_users WHERE joined_at >= ? AND joined_at < ? GROUP BY " + hourOf("joined_at");
+
+    private static final String SECRETS_SQL = "SELECT " + hourOf("m.created_at") + " AS bucket, COUNT(*) AS created, " +
+            "COALESCE(SUM(COALESCE(p.content_length, OCTET_LENGTH(p.encrypted_content))), 0) AS logical_bytes, " +
+            "COALESCE(SUM(COALESCE(OCTET_LENGTH(p.encoded_content), CASE WHEN p.storage_key IS NOT NULL THEN p.content_length END, " +
+            "OCTET_LENGTH(p.encrypted_content))), 0) AS physical_bytes " +
+            "FROM secret_metadata m LEFT JOIN secret_payload p ON p.id = m.id " +
+            "WHERE m.created_at >= ? AND m.created_at < ? GROUP BY " + hourOf("m.created_at");
+
+    private static final String VIEWS_SQL = "SELECT " + hourOf("accessed_at") + " AS bucket, " +
+            "COUNT(CASE WHEN was_successful = true THEN 1 END) AS viewed, " +
+            "COUNT(CASE WHEN was_successful = false THEN 1 END) AS failed " +
+            "FROM secret_access_logs WHERE accessed_at >= ? AND accessed_at < ? GROUP BY " + hourOf("accessed_at");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final HourlyStatisticRepository hourlyRepo;
+    private final DailyStatisticRepository statsRepo;
+    private final RollupWatermarkRepository watermarkRepo;
+    private final AccessLogRepository logRepo;
+    private final UserRepository userRepo;
+    private final RollupConfig config;
+    private final PurgeConfig purgeConfig;
+    @Qualifier(AsyncConfig.BACKFILL_EXECUTOR)
+    private final AsyncTaskExecutor backfillExecutor;
+
+    private final AtomicBoolean backfillRunning = new AtomicBoolean();
+
+    /**
+     * Job: Hourly Rollup
+     * Runs every hour at minute 10.
+     * Rolls up the closed hours between the persisted watermark and now - lagMinutes, so every run only reads
+     * rows it has not seen yet. The hours and the new watermark are committed together.
+     */
+    @Scheduled(cron = "0 10 * * * *")
+    @JobLock(name = "hourly-rollup", leaseMs = 120000)
+    public void rollupIncremental() {
+        if (!config.isEnabled()) {
+            return;
+        }
+
+        MDC.put("job", "HourlyRollup");
+        long startTime = System.currentTimeMillis();
+        Instant[] range = new Instant[2];
+
+        try {
+            Instant now = Instant.now();
+            Instant closedUntil = now.minus(config.getLagMinutes(), ChronoUnit.MINUTES).truncatedTo(ChronoUnit.HOURS);
+
+            Integer hours = transactionTemplate.execute(status -> {
+                RollupWatermark watermark = watermarkRepo.findById(WATERMARK_NAME).orElseGet(() -> RollupWatermark.builder()
+                        .name(WATERMARK_NAME)
+                        .watermark(closedUntil.minus(config.getInitialLookbackHours(), ChronoUnit.HOURS))
+                        .build());
+
+                range[0] = watermark.getWatermark();
+                range[1] = min(closedUntil, range[0].plus(config.getMaxHoursPerRun(), ChronoUnit.HOURS));
+                if (!range[1].isAfter(range[0])) {
+                    return 0;
+                }
+
+                int written = rollupRange(range[0], range[1]);
+                watermark.setWatermark(range[1]);
+                watermark.setUpdatedAt(now);
+                watermarkRepo.save(watermark);
+                return written;
+            });
+            JobRunContext.addRows(hours == null ? 0 : hours);
+
+            long duration = System.currentTimeMillis() - startTime;
+            MDC.put("duration_ms", String.valueOf(duration));
+            log.info("HourlyRollupJob :: Finished. Rolled up [{} .. {}) into {} hourly rows in {}.",
+                    range[0], range[1], hours, KieruUtil.millisToRelativeTime(duration));
+        }
+        catch (Exception e) {
+            log.error("HourlyRollupJob :: Rollup of [{} .. {}) failed, watermark unchanged", range[0], range[1], e);
+        }
+        finally {
+            MDC.clear();
+        }
+    }
+
+    /**
+     * Recomputes the hours of every day in [from, to] and derives each day's DailyStatistic by summing them.
+     * One day per task, on the bounded backfill pool, each in its own transaction. Only one backfill runs per node.
+     * Days older than the purge retention are rejected: their secrets and access logs are partly gone, so
+     * re-deriving them would replace correct nightly values with smaller ones.
+     */
+    public CompletableFuture<Integer> backfill(LocalDate from, LocalDate to) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new IllegalArgumentException("Backfill range must have from <= to");
+        }
+        LocalDate earliest = earliestBackfillDay();
+        if (from.isBefore(earliest)) {
+            throw new IllegalArgumentException("Backfill cannot start before " + earliest
+                    + ", older secrets and access logs are already purged (app.purge.*-retention-days)");
+        }
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        if (days > config.getMaxBackfillDays()) {
+            throw new IllegalArgumentException("Backfill range is limited to " + config.getMaxBackfillDays() + " days");
+        }
+        if (!backfillRunning.compareAndSet(false, true)) {
+            throw new IllegalStateException("A backfill is already running");
+        }
+
+        long startTime = System.currentTimeMillis();
+        AtomicInteger done = new AtomicInteger();
+        log.info("HourlyRollupJob :: Backfill Started: {} days [{} .. {}]", days, from, to);
+
+        List<CompletableFuture<Integer>> chunks = new ArrayList<>();
+        try {
+            for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+                LocalDate chunkDay = day;
+                chunks.add(CompletableFuture.supplyAsync(() -> {
+                    int hours = backfillDay(chunkDay);
+                    log.debug("HourlyRollupJob :: Backfilled {} ({} hourly rows), {}/{} days done", chunkDay, hours, done.incrementAndGet(), days);
+                    return hours;
+                }, backfillExecutor));
+            }
+        }
+        catch (RuntimeException e) {
+            backfillRunning.set(false);
+            throw e;
+        }
+
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0]))
+                .handle((ignored, error) -> {
+                    backfillRunning.set(false);
+                    long duration = System.currentTimeMillis() - startTime;
+                    int hours = chunks.stream().filter(chunk -> !chunk.isCompletedExceptionally()).mapToInt(CompletableFuture::join).sum();
+                    if (error != null) {
+                        log.error("HourlyRollupJob :: Backfill of [{} .. {}] finished with errors, {}/{} days done in {}",
+                                from, to, done.get(), days, KieruUtil.millisToRelativeTime(duration), error);
+                    }
+                    else {
+                        log.info("HourlyRollupJob :: Backfill Finished: {} days, {} hourly rows in {}.",
+                                days, hours, KieruUtil.millisToRelativeTime(duration));
+                    }
+                    return hours;
+                });
+    }
+
+    public boolean isBackfillRunning() {
+        return backfillRunning.get();
+    }
+
+    /**
+     * First day whose secrets and access logs are all still within retention.
+     */
+    public LocalDate earliestBackfillDay() {
+        int retentionDays = Math.min(purgeConfig.getSecretRetentionDays(), purgeConfig.getAccessLogRetentionDays());
+        return LocalDate.now(ZoneOffset.UTC).minusDays(retentionDays - 1);
+    }
+
+    private int backfillDay(LocalDate day) {
+        Instant start = day.atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant end = day.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+
+        Integer hours = transactionTemplate.execute(status -> {
+            int written = rollupRange(start, end);
+            deriveDaily(day, start, end);
+            return written;
+        });
+        return hours == null ? 0 : hours;
+    }
+
+    /**
+     * Replaces the hourly rows of [start, end) with fresh aggregates: three GROUP BY range scans, one per source table.
+     * Must run inside a transaction.
+     */
+    int rollupRange(Instant start, Instant end) {
+        Map<Long, HourlyStatistic> hours = new TreeMap<>();
+        Timestamp from = Timestamp.from(start);
+        Timestamp to = Timestamp.from(end);
+        Function<Long, HourlyStatistic> hour = bucket -> hours.computeIfAbsent(bucket,
+                key -> HourlyStatistic.builder().hourStart(Instant.ofEpochSecond(key * 3600)).build());
+
+        jdbcTemplate.query(USERS_SQL, rs -> {
+            hour.apply(rs.getLong("bucket")).setNewUsers(rs.getLong("new_users"));
+        }, from, to);
+
+        jdbcTemplate.query(SECRETS_SQL, rs -> {
+            HourlyStatistic stats = hour.apply(rs.getLong("bucket"));
+            stats.setSecretsCreated(rs.getLong("created"));
+            stats.setTotalLogicalBytes(rs.getLong("logical_bytes"));
+            stats.setTotalStorageBytes(rs.getLong("physical_bytes"));
+        }, from, to);
+
+        jdbcTemplate.query(VIEWS_SQL, rs -> {
+            HourlyStatistic stats = hour.apply(rs.getLong("bucket"));
+            stats.setSecretsViewed(rs.getLong("viewed"));
+            stats.setSecretsFailedViews(rs.getLong("failed"));
+        }, from, to);
+
+        hourlyRepo.deleteRange(start, end);
+        hourlyRepo.flush();
+        hourlyRepo.saveAll(hours.values());
+        return hours.size();
+    }
+
+    /**
+     * Additive daily metrics are the sum of the day's hours. Distinct counts cannot be summed, and the byte totals
+     * of the hours undercount (payload rows are purged minutes after the last view): an existing row keeps the
+     * values the live counters gave it, a new row gets the SQL estimates.
+     */
+    private void deriveDaily(LocalDate day, Instant start, Instant end) {
+        HourlyStatisticRepository.Totals totals = hourlyRepo.sumRange(start, end);
+        DailyStatistic stats = statsRepo.findByDate(day).orElse(null);
+
+        if (stats == null) {
+            stats = DailyStatistic.builder().date(day).build();
+            stats.setActiveUsers((int) userRepo.countByLastLoginAtBetween(start, end.minusMillis(1)));
+            stats.setUniqueViewers(logRepo.countViewsBetween(start, end).getUniqueViewers());
+            stats.setTotalStorageBytes(totals.getTotalStorageBytes());
+            stats.setTotalLogicalBytes(totals.getTotalLogicalBytes());
+        }
+
+        stats.setNewUsers((int) totals.getNewUsers());
+        stats.setSecretsCreated((int) totals.getSecretsCreated());
+        stats.setSecretsViewed(totals.getSecretsViewed());
+        stats.setSecretsFailedViews(totals.getSecretsFailedViews());
+        statsRepo.save(stats);
+    }
+
+    private static String hourOf(String column) {
+        return String.format(HOUR_OF, column);
+    }
+
+    private static Instant min(Instant a, Instant b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
@@ -0,0 +1,30 @@
+package com.kieru.backend.job;
+
+/**
+ * Rows affected by the @JobLock run on the current thread, recorded in job_run_history.
+ * A no-op outside a locked run.
+ */
+public final class JobRunContext {
+
+    private static final ThreadLocal<long[]> ROWS = new ThreadLocal<>();
+
+    private JobRunContext() {
+    }
+
+    public static void addRows(long rows) {
+        long[] counter = ROWS.get();
+        if (counter != null) {
+            counter[0] += rows;
+        }
+    }
+
+    public static void begin() {
+        ROWS.set(new long[1]);
+    }
+
+    public static long end() {
+        long[] counter = ROWS.get();
+        ROWS.remove();
+        return counter == null ? 0 : counter[0];
+    }
+}
@@ -0,0 +1,103 @@
+package com.kieru.backend.job;
+
+import com.kieru.backend.annotation.JobLock;
+import com.kieru.backend.util.KieruUtil;
+import com.kieru.backend.util.PayloadCodec;
+import com.kieru.backend.util.PayloadCodecConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PayloadMigrationJob {
+
+    private static final String SELECT_LEGACY_SQL = "SELECT id, encrypted_content FROM secret_payload " +
+            "WHERE encoded_content IS NULL AND encrypted_content IS NOT NULL AND id > ? ORDER BY id LIMIT ?";
+
+    // encoded_content IS NULL keeps reruns and concurrent nodes from rewriting a row twice
+    private static final String UPDATE_SQL = "UPDATE secret_payload SET encoded_content = ?, content_length = ?, " +
+            "encrypted_content = NULL WHERE id = ? AND encoded_content IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PayloadCodec payloadCodec;
+    private final PayloadCodecConfig codecConfig;
+
+    /**
+     * Job: Migrate Legacy Payloads
+     * Runs every hour at minute 15 when app.payload-codec.migration.enabled=true.
+     * Rewrites rows that still store content in the encrypted_content text column through PayloadCodec
+     * (binary + compressed), walking the primary key in batches so every statement stays small.
+     */
+    @Scheduled(cron = "0 15 * * * *")
+    @JobLock(name = "payload-migration")
+    public void migrateLegacyPayloads() {
+        PayloadCodecConfig.Migration config = codecConfig.getMigration();
+        if (!config.isEnabled()) {
+            return;
+        }
+
+        MDC.put("job", "PayloadMigration");
+        long startTime = System.currentTimeMillis();
+        log.info("PayloadMigrationJob :: Job Started: Scanning for legacy text payloads...");
+
+        int migrated = 0;
+        long bytesBefore = 0;
+        long bytesAfter = 0;
+        String lastId = "";
+
+        try {
+            while (migrated < config.getMaxRowsPerRun()) {
+                List<Object[]> batch = new ArrayList<>();
+                List<String> ids = new ArrayList<>();
+
+                List<String[]> rows = jdbcTemplate.query(SELECT_LEGACY_SQL,
+                        (rs, rowNum) -> new String[]{rs.getString("id"), rs.getString("encrypted_content")},
+                        lastId, config.getBatchSize());
+
+                if (rows.isEmpty()) {
+                    break;
+                }
+
+                for (String[] row : rows) {
+                    byte[] encoded = payloadCodec.encode(row[1]);
+                    batch.add(new Object[]{encoded, (long) row[1].length(), row[0]});
+                    ids.add(row[0]);
+                    bytesBefore += row[1].length();
+                    bytesAfter += encoded.length;
+                }
+
+                jdbcTemplate.batchUpdate(UPDATE_SQL, batch);
+                migrated += rows.size();
+                lastId = ids.get(ids.size() - 1);
+                log.debug("PayloadMigrationJob :: Migrated batch of {} payloads, last id: {}", rows.size(), lastId);
+
+                if (rows.size() < config.getBatchSize()) {
+                    break;
+                }
+            }
+
+            if (migrated >= config.getMaxRowsPerRun()) {
+                log.warn("PayloadMigrationJob :: Job Safety Stop: Migrated {} payloads. Will continue next run.", migrated);
+            }
+        }
+        catch (Exception e) {
+            log.error("PayloadMigrationJob :: Failed after {} payloads, last id: {}", migrated, lastId, e);
+        }
+        finally {
+            long duration = System.currentTimeMillis() - startTime;
+            MDC.put("duration_ms", String.valueOf(duration));
+            log.info("PayloadMigrationJob :: Finished. Migrated {} payloads ({} -> {} bytes) in {}.",
+                    migrated, bytesBefore, bytesAfter, KieruUtil.millisToRelativeTime(duration));
+            JobRunContext.addRows(migrated);
+            MDC.clear();
+        }
+    }
+}
@@ -1,17 +1,21 @@
 package com.kieru.backend.job;
 
-import com.kieru.backend.entity.SecretMetadata;
+import com.kieru.backend.annotation.JobLock;
 import com.kieru.backend.repository.SecretMetadataRepository;
+import com.kieru.backend.store.ExpiryIndex;
+import com.kieru.backend.store.PayloadStores;
+import com.kieru.backend.store.ViewCounterStore;
+import com.kieru.backend.util.ExpiryConfig;
 import com.kieru.backend.util.KieruUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.List;
 
@@ -20,13 +24,88 @@ import java.util.List;
 @Slf4j
 public class SecretCleanupJobs {
 
+    // Postgres: a row locked by a concurrent sweep, expireFromIndex or a view in progress is left for the next chunk.
+    // The outer is_active check drops rows deactivated between the subquery and the update
+    private static final String EXPIRE_CHUNK_SQL = "UPDATE secret_metadata SET is_active = false WHERE is_active = true AND id IN (" +
+            "SELECT id FROM secret_metadata WHERE is_active = true AND expires_at < ? " +
+            "ORDER BY expires_at LIMIT ? FOR UPDATE SKIP LOCKED) RETURNING id";
+
     private final SecretMetadataRepository metaRepo;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ViewCounterStore viewCounterStore;
+    private final PayloadStores payloadStores;
+    private final ExpiryIndex expiryIndex;
+    private final ExpiryConfig expiryConfig;
+
+    /**
+     * Job: Expire Secrets From Index
+     * Runs every app.expiry.poll-interval-ms (5 seconds).
+     * Claims the secrets that are due from the Redis expiry index and deactivates each batch with one UPDATE,
+     * so expiry lags expiresAt by seconds and an idle poll costs a single Redis call.
+     * A batch that fails to deactivate goes back into the index for the next poll.
+     */
+    @Scheduled(fixedDelayString = "${app.expiry.poll-interval-ms:5000}", initialDelayString = "${app.expiry.poll-interval-ms:5000}")
+    public void expireFromIndex() {
+        if (!expiryConfig.isEnabled()) {
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        int totalClaimed = 0;
+        int totalExpired = 0;
+        int totalReleased = 0;
+
+        try {
+            MDC.put("job", "ExpireFromIndex");
+
+            for (int batch = 0; batch < expiryConfig.getMaxBatchesPerPoll(); batch++) {
+                Instant now = Instant.now();
+                List<String> due = expiryIndex.claimDue(now, expiryConfig.getBatchSize());
+                if (due.isEmpty()) {
+                    break;
+                }
+                totalClaimed += due.size();
+
+                try {
+                    totalExpired += metaRepo.deactivateExpired(due, now);
+                }
+                catch (Exception e) {
+                    expiryIndex.reschedule(due, now);
+                    throw e;
+                }
+
+                // Ids that were already inactive (consumed, deleted) have nothing left to release either
+                totalReleased += payloadStores.release(due);
+
+                if (due.size() < expiryConfig.getBatchSize()) {
+                    break;
+                }
+            }
+        }
+        catch (Exception e) {
+            log.error("ExpireFromIndexJob :: Failed after {} claimed secrets", totalClaimed, e);
+        }
+        finally {
+            if (totalClaimed > 0) {
+                long duration = System.currentTimeMillis() - startTime;
+                MDC.put("duration_ms", String.valueOf(duration));
+                log.info("ExpireFromIndexJob :: Finished. Claimed {}, expired {} secrets ({} payload files released) in {}.",
+                        totalClaimed, totalExpired, totalReleased, KieruUtil.millisToRelativeTime(duration));
+            }
+            MDC.clear();
+        }
+    }
 
     /**
-     * Job: Expire Secrets
-     * Runs every 5 minutes.
+     * Job: Expire Secrets (safety net)
+     * Runs on app.expiry.sweep-cron (every 6 hours).
      * Scans for secrets that have passed their expiration time and marks them as inactive.
-     * Processes in batches of 100 to avoid long transactions.
+     * Only finds what the expiry index missed (secrets created while Redis was unavailable, a flushed index).
+     * Set-based: every chunk is one UPDATE ... WHERE id IN (SELECT ... FOR UPDATE SKIP LOCKED LIMIT n) RETURNING id
+     * committed on its own, so no row stays locked for longer than one chunk. @JobLock normally keeps it to one node
+     * per run; SKIP LOCKED keeps chunks safe without it (lock disabled, expireFromIndex touching the same rows),
+     * since concurrent sweepers never wait on or re-pick each other's rows. On a single node it costs nothing.
      *
      * sec   min   hour   day   month   weekday
      *    |     |     |      |      |        |
@@ -34,49 +113,57 @@ public class SecretCleanupJobs {
      *
      */
 
-    @Scheduled(cron = "0 0 */6 * * *") // Every 6 hours
-    @Transactional
+    @Scheduled(cron = "${app.expiry.sweep-cron:0 0 */6 * * *}")
+    @JobLock(name = "expire-secrets-sweep")
     public void expireSecretsBatch() {
         MDC.put("job", "ExpireSecrets");
         long startTime = System.currentTimeMillis();
         log.info("ExpireSecretsJob :: Job Started: Scanning for expired secrets...");
 
         int totalProcessed = 0;
-        int batchSize = 100;
-        List<SecretMetadata> expiredSecrets;
-
-        do {
-            Pageable limit = PageRequest.of(0, batchSize);
-            Instant now = Instant.now();
-
-            expiredSecrets = metaRepo.findExpiredSecrets(now, limit);
+        int totalReleased = 0;
+        int batchSize = expiryConfig.getBatchSize();
+        int chunks = 0;
+        List<String> expiredIds;
 
-            if (expiredSecrets.isEmpty()) {
-                break;
-            }
+        try {
+            do {
+                Timestamp now = Timestamp.from(Instant.now());
 
-            for (SecretMetadata secret : expiredSecrets) {
-                secret.setActive(false);
-                log.debug("ExpireSecretsJob :: Marking secret {} as expired.", secret.getId());
-            }
+                // One short transaction per chunk
+                expiredIds = transactionTemplate.execute(status ->
+                        jdbcTemplate.queryForList(EXPIRE_CHUNK_SQL, String.class, now, batchSize));
 
-            metaRepo.saveAll(expiredSecrets);
+                if (expiredIds == null || expiredIds.isEmpty()) {
+                    break;
+                }
+                log.debug("ExpireSecretsJob :: Expired chunk of {} secrets.", expiredIds.size());
 
-            totalProcessed += expiredSecrets.size();
+                // Expired secrets can never be viewed again, their view state and file bodies can go right away
+                viewCounterStore.deleteAll(expiredIds);
+                expiryIndex.removeAll(expiredIds);
+                totalReleased += payloadStores.release(expiredIds);
 
-            if (totalProcessed > 10000) {
-                log.warn("ExpireSecretsJob :: Job Safety Stop: Processed 10,000 secrets. Will continue next run.");
-                break;
-            }
+                totalProcessed += expiredIds.size();
 
-        } while (expiredSecrets.size() >= batchSize); // Continue if we filled the batch
+                if (++chunks >= expiryConfig.getMaxSweepChunks()) {
+                    log.warn("ExpireSecretsJob :: Job Safety Stop: Processed {} secrets. Will continue next run.", totalProcessed);
+                    break;
+                }
 
+            } while (expiredIds.size() >= batchSize); // Continue if we filled the chunk
+        }
+        catch (Exception e) {
+            log.error("ExpireSecretsJob :: Failed after {} secrets", totalProcessed, e);
+        }
+        JobRunContext.addRows(totalProcessed);
 
         if (totalProcessed > 0) {
             long duration = System.currentTimeMillis() - startTime;
             MDC.put("duration_ms", String.valueOf(duration));
-            log.info("ExpireSecretsJob :: Expire Secrets Job :: Finished. Expired {} secrets in {} on {}.",
+            log.info("ExpireSecretsJob :: Expire Secrets Job :: Finished. Expired {} secrets ({} payload files released) in {} on {}.",
                     totalProcessed,
+                    totalReleased,
                     KieruUtil.millisToRelativeTime(duration),
                     KieruUtil.millisToDateString(System.currentTimeMillis())
             );
@@ -84,5 +171,6 @@ public class SecretCleanupJobs {
         else {
             log.info("ExpireSecretsJob :: Finished. No expired secrets found.");
         }
+        MDC.clear();
     }
-}
\ No newline at end of file
+}
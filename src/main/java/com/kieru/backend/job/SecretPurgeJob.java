@@ -0,0 +1,201 @@
+package com.kieru.backend.job;
+
+import com.kieru.backend.annotation.JobLock;
+import com.kieru.backend.store.PayloadStores;
+import com.kieru.backend.util.KieruUtil;
+import com.kieru.backend.util.PurgeConfig;
+import com.kieru.backend.util.RedisKeyUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SecretPurgeJob {
+
+    // Can never be served again, and no successful view in the grace window (a streamed download may still be reading it)
+    private static final String SELECT_PAYLOADS_SQL = "SELECT p.id FROM secret_payload p JOIN secret_metadata m ON m.id = p.id " +
+            "WHERE p.id > ? AND (m.is_deleted = true OR m.views_left = 0 OR m.expires_at < ?) " +
+            "AND NOT EXISTS (SELECT 1 FROM secret_access_logs l WHERE l.secret_id = p.id AND l.accessed_at > ?) " +
+            "ORDER BY p.id LIMIT ?";
+
+    private static final String SELECT_SECRETS_SQL = "SELECT m.id FROM secret_metadata m " +
+            "WHERE m.id > ? AND (m.expires_at < ? OR ((m.is_deleted = true OR m.views_left = 0) AND m.created_at < ?)) " +
+            "ORDER BY m.id LIMIT ?";
+
+    private static final String SELECT_ACCESS_LOGS_SQL = "SELECT id FROM secret_access_logs WHERE id > ? AND accessed_at < ? ORDER BY id LIMIT ?";
+
+    private static final String DELETE_PAYLOADS_SQL = "DELETE FROM secret_payload WHERE id IN (:ids)";
+    private static final String DELETE_SECRET_LOGS_SQL = "DELETE FROM secret_access_logs WHERE secret_id IN (:ids)";
+    private static final String DELETE_SECRETS_SQL = "DELETE FROM secret_metadata WHERE id IN (:ids)";
+    private static final String DELETE_ACCESS_LOGS_SQL = "DELETE FROM secret_access_logs WHERE id IN (:ids)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final PayloadStores payloadStores;
+    private final AccessLogPartitionJob accessLogPartitionJob;
+    private final PurgeConfig config;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Job: Purge Dead Secrets
+     * Runs continuously (fixed delay of app.purge.interval-ms) when app.purge.enabled=true.
+     *   1. payload rows (and file bodies) of consumed, expired and deleted secrets, after a short grace
+     *   2. metadata + access logs of those secrets after secret-retention-days
+     *   3. access logs older than access-log-retention-days, unless the table is partitioned
+     *      (AccessLogPartitionJob drops whole months instead)
+     * Every phase walks its primary key in chunks of batchSize, one short transaction per chunk, pausing throttleMs
+     * in between. The keyset cursor is checkpointed in Redis, so a stopped run resumes where it left off.
+     */
+    @Scheduled(fixedDelayString = "${app.purge.interval-ms:300000}", initialDelayString = "${app.purge.interval-ms:300000}")
+    @JobLock(name = "secret-purge")
+    public void purge() {
+        if (!config.isEnabled()) {
+            return;
+        }
+
+        MDC.put("job", "Purge");
+        long startTime = System.currentTimeMillis();
+        long deadline = startTime + config.getMaxRunMs();
+        log.info("PurgeJob :: Job Started: Purging dead secrets...");
+
+        int payloads = 0;
+        int secrets = 0;
+        int accessLogs = 0;
+
+        try {
+            Instant now = Instant.now();
+            Timestamp graceCutoff = Timestamp.from(now.minus(config.getPayloadGraceMinutes(), ChronoUnit.MINUTES));
+            Timestamp secretCutoff = Timestamp.from(now.minus(config.getSecretRetentionDays(), ChronoUnit.DAYS));
+            Timestamp accessLogCutoff = Timestamp.from(now.minus(config.getAccessLogRetentionDays(), ChronoUnit.DAYS));
+
+            payloads = runPhase("payloads", deadline,
+                    cursor -> jdbcTemplate.queryForList(SELECT_PAYLOADS_SQL, String.class, cursor, graceCutoff, graceCutoff, config.getBatchSize()),
+                    this::deletePayloads);
+
+            secrets = runPhase("secrets", deadline,
+                    cursor -> jdbcTemplate.queryForList(SELECT_SECRETS_SQL, String.class, cursor, secretCutoff, secretCutoff, config.getBatchSize()),
+                    this::deleteSecrets);
+
+            if (!accessLogPartitionJob.isPartitioned()) {
+                accessLogs = runPhase("access_logs", deadline,
+                        cursor -> jdbcTemplate.queryForList(SELECT_ACCESS_LOGS_SQL, Long.class, cursor.isEmpty() ? 0L : Long.parseLong(cursor),
+                                accessLogCutoff, config.getBatchSize()),
+                        this::deleteAccessLogs);
+            }
+        }
+        catch (Exception e) {
+            log.error("PurgeJob :: Failed after {} payloads, {} secrets, {} access logs", payloads, secrets, accessLogs, e);
+        }
+        finally {
+            long duration = System.currentTimeMillis() - startTime;
+            MDC.put("duration_ms", String.valueOf(duration));
+            log.info("PurgeJob :: Finished. Purged {} payloads, {} secrets, {} access logs in {}.",
+                    payloads, secrets, accessLogs, KieruUtil.millisToRelativeTime(duration));
+            JobRunContext.addRows(payloads + secrets + accessLogs);
+            MDC.clear();
+        }
+    }
+
+    /**
+     * Deletes chunk after chunk until the phase is exhausted, maxChunksPerRun is reached or the run deadline passes.
+     * Returns the number of rows selected for deletion.
+     */
+    private <T> int runPhase(String phase, long deadline, Function<String, List<T>> selectChunk, Consumer<List<T>> deleteChunk) {
+        String checkpointKey = RedisKeyUtil.buildKey(RedisKeyUtil.KeyType.PURGE_CHECKPOINT, phase);
+        String checkpoint = redisTemplate.opsForValue().get(checkpointKey);
+        String cursor = checkpoint == null ? "" : checkpoint;
+        Timer chunkTimer = Timer.builder("kieru.purge.chunk").tag("phase", phase)
+                .description("Select + delete of one purge chunk").register(meterRegistry);
+
+        int purged = 0;
+        boolean exhausted = false;
+
+        for (int chunk = 0; chunk < config.getMaxChunksPerRun() && System.currentTimeMillis() < deadline; chunk++) {
+            long chunkStart = System.nanoTime();
+            List<T> ids = selectChunk.apply(cursor);
+            if (!ids.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status -> deleteChunk.accept(ids));
+            }
+            chunkTimer.record(System.nanoTime() - chunkStart, TimeUnit.NANOSECONDS);
+
+            purged += ids.size();
+            if (ids.size() < config.getBatchSize()) {
+                exhausted = true;
+                break;
+            }
+
+            cursor = String.valueOf(ids.get(ids.size() - 1));
+            redisTemplate.opsForValue().set(checkpointKey, cursor, 1, TimeUnit.DAYS);
+            log.debug("PurgeJob :: Phase {} purged chunk of {}, cursor: {}", phase, ids.size(), cursor);
+
+            if (!throttle()) {
+                break;
+            }
+        }
+
+        // A full pass is done, the next run starts from the lowest key again
+        if (exhausted) {
+            redisTemplate.delete(checkpointKey);
+        }
+        else {
+            log.warn("PurgeJob :: Phase {} stopped at cursor {} after {} rows. Will continue next run.", phase, cursor, purged);
+        }
+        return purged;
+    }
+
+    private void deletePayloads(List<String> ids) {
+        // File bodies first: a failed unlink only leaves an orphan file, never a row pointing at nothing
+        payloadStores.release(ids);
+        record("secret_payload", namedJdbcTemplate.update(DELETE_PAYLOADS_SQL, Map.of("ids", ids)));
+    }
+
+    private void deleteSecrets(List<String> ids) {
+        payloadStores.release(ids);
+        Map<String, List<String>> params = Map.of("ids", ids);
+        record("secret_access_logs", namedJdbcTemplate.update(DELETE_SECRET_LOGS_SQL, params));
+        record("secret_payload", namedJdbcTemplate.update(DELETE_PAYLOADS_SQL, params));
+        record("secret_metadata", namedJdbcTemplate.update(DELETE_SECRETS_SQL, params));
+    }
+
+    private void deleteAccessLogs(List<Long> ids) {
+        record("secret_access_logs", namedJdbcTemplate.update(DELETE_ACCESS_LOGS_SQL, Map.of("ids", ids)));
+    }
+
+    private void record(String table, int rows) {
+        Counter.builder("kieru.purge.deleted").tag("table", table)
+                .description("Rows removed by the purge job").register(meterRegistry).increment(rows);
+    }
+
+    private boolean throttle() {
+        try {
+            Thread.sleep(config.getThrottleMs());
+            return true;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
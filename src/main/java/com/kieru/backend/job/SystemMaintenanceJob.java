@@ -1,7 +1,10 @@
 package com.kieru.backend.job;
 
+import com.kieru.backend.annotation.JobLock;
 import com.kieru.backend.entity.User;
+import com.kieru.backend.repository.JobRunHistoryRepository;
 import com.kieru.backend.repository.UserRepository;
+import com.kieru.backend.util.JobLockConfig;
 import com.kieru.backend.util.KieruUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -11,6 +14,7 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.concurrent.TimeUnit;
 
 @Component
@@ -20,6 +24,8 @@ public class SystemMaintenanceJob {
 
     private final StringRedisTemplate redisTemplate;
     private final UserRepository userRepo;
+    private final JobRunHistoryRepository jobRunHistoryRepo;
+    private final JobLockConfig jobLockConfig;
 
     // Hardcoded ID for the maintenance bot user
     private static final String SYSTEM_BOT_ID = "system_maintenance_bot";
@@ -30,6 +36,7 @@ public class SystemMaintenanceJob {
      * Purpose: Performs a WRITE operation to DB and Redis to reset inactivity timers.
      */
     @Scheduled(cron = "0 0 2 * * *")
+    @JobLock(name = "system-heartbeat")
     public void sendHeartbeats() {
         MDC.put("job", "SystemHeartbeat");
         log.info("Maintenance: Starting write-based heartbeats...");
@@ -60,6 +67,29 @@ public class SystemMaintenanceJob {
         }
     }
 
+    /**
+     * Job: Prune Job Run History
+     * Runs daily at 02:10 AM.
+     * Deletes job_run_history rows older than app.job-lock.history-retention-days.
+     */
+    @Scheduled(cron = "0 10 2 * * *")
+    @JobLock(name = "job-history-prune")
+    public void pruneJobHistory() {
+        MDC.put("job", "JobHistoryPrune");
+        try {
+            Instant cutoff = Instant.now().minus(jobLockConfig.getHistoryRetentionDays(), ChronoUnit.DAYS);
+            int deleted = jobRunHistoryRepo.deleteStartedBefore(cutoff);
+            JobRunContext.addRows(deleted);
+            log.info("PruneJobHistory :: Deleted {} job runs older than {}", deleted, cutoff);
+        }
+        catch (Exception e) {
+            log.error("PruneJobHistory :: Failed", e);
+        }
+        finally {
+            MDC.clear();
+        }
+    }
+
     /**
      * Helper: Updates a specific 'Bot' user row.
      * If the bot doesn't exist, it creates it.
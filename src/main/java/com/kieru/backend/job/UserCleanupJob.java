@@ -1,47 +1,75 @@
 package com.kieru.backend.job;
 
-import com.kieru.backend.repository.UserRepository;
+import com.kieru.backend.annotation.JobLock;
 import com.kieru.backend.util.KieruUtil;
+import com.kieru.backend.util.RedisKeyUtil;
+import com.kieru.backend.util.UserCleanupConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Timestamp;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class UserCleanupJob {
 
-    private final UserRepository userRepo;
+    // Last activity = last login, or the join time of a user who never logged in again.
+    // Keyset on (activity, id): every chunk starts where the previous one ended, never re-reads skipped rows.
+    private static final String ACTIVITY = "COALESCE(last_login_at, joined_at)";
+
+    private static final String SELECT_CHUNK_SQL = "SELECT id, " + ACTIVITY + " AS activity FROM kieru_users " +
+            "WHERE subscription IN (:plans) AND " + ACTIVITY + " < :cutoff " +
+            "AND (" + ACTIVITY + " > :lastActivity OR (" + ACTIVITY + " = :lastActivity AND id > :lastId)) " +
+            "ORDER BY " + ACTIVITY + ", id LIMIT :limit";
+
+    // Re-checks the predicate: a user who logged in since the select is kept
+    private static final String DELETE_CHUNK_SQL = "DELETE FROM kieru_users WHERE id IN (:ids) " +
+            "AND subscription IN (:plans) AND " + ACTIVITY + " < :cutoff";
+
+    private static final Timestamp KEYSET_START = Timestamp.from(Instant.EPOCH);
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final UserCleanupConfig config;
+    private final MeterRegistry meterRegistry;
 
     /**
      * Logic: Remove ANONYMOUS/EXPLORER users inactive for 180 days.
      * Runs daily at 01:30 AM
      */
     @Scheduled(cron = "0 30 1 * * *")
-    @Transactional
+    @JobLock(name = "user-cleanup")
     public void removeInactiveUsers() {
-        long startTime = System.currentTimeMillis();
         MDC.put("job", "UserCleanup");
-        log.info("RemoveInactiveUsersJob :: Starting cleanup of inactive registered users (180 days)...");
+        log.info("RemoveInactiveUsersJob :: Starting cleanup of inactive registered users ({} days)...", config.getInactiveDays());
 
         try {
-            Instant cutoff = Instant.now().minus(180, ChronoUnit.DAYS);
+            Instant cutoff = Instant.now().minus(config.getInactiveDays(), ChronoUnit.DAYS);
             List<KieruUtil.SubscriptionPlan> targetPlans = List.of(
                     KieruUtil.SubscriptionPlan.ANONYMOUS,
                     KieruUtil.SubscriptionPlan.EXPLORER
             );
 
-            int deletedCount = userRepo.deleteInactiveUsers(targetPlans, cutoff);
+            int deletedCount = deleteInactive("inactive", targetPlans, cutoff);
 
-            long duration = System.currentTimeMillis() - startTime;
-            MDC.put("duration_ms", String.valueOf(duration));
             if (deletedCount > 0) {
                 log.warn("RemoveInactiveUsersJob :: Cleanup Complete: Removed {} inactive users (older than {}).", deletedCount, cutoff);
             }
@@ -49,6 +77,9 @@ public class UserCleanupJob {
                 log.info("RemoveInactiveUsersJob :: Cleanup Complete: No inactive users found.");
             }
         }
+        catch (Exception e) {
+            log.error("RemoveInactiveUsersJob :: Cleanup Failed", e);
+        }
         finally {
             MDC.clear();
         }
@@ -59,30 +90,131 @@ public class UserCleanupJob {
      * Runs daily at 01:35 AM (Offset by 5 mins to reduce load spike)
      */
     @Scheduled(cron = "0 35 1 * * *")
-    @Transactional
+    @JobLock(name = "anonymous-cleanup")
     public void removeAnonymousUsers() {
-        long startTime = System.currentTimeMillis();
         MDC.put("job", "AnonCleanup");
-        log.info("RemoveAnonymousUsersJob :: Starting cleanup of anonymous sessions (30 days)...");
+        log.info("RemoveAnonymousUsersJob :: Starting cleanup of anonymous sessions ({} days)...", config.getAnonymousInactiveDays());
 
         try {
-            Instant cutoff = Instant.now().minus(30, ChronoUnit.DAYS);
+            Instant cutoff = Instant.now().minus(config.getAnonymousInactiveDays(), ChronoUnit.DAYS);
 
             List<KieruUtil.SubscriptionPlan> targetPlans = List.of(KieruUtil.SubscriptionPlan.ANONYMOUS);
 
-            int deletedCount = userRepo.deleteInactiveUsers(targetPlans, cutoff);
+            int deletedCount = deleteInactive("anonymous", targetPlans, cutoff);
 
             if (deletedCount > 0) {
-                long duration = System.currentTimeMillis() - startTime;
-                MDC.put("duration_ms", String.valueOf(duration));
                 log.warn("RemoveAnonymousUsersJob :: Cleanup Complete: Purged {} anonymous sessions.", deletedCount);
             }
             else {
                 log.info("RemoveAnonymousUsersJob :: Cleanup Complete: No expired anonymous sessions.");
             }
         }
+        catch (Exception e) {
+            log.error("RemoveAnonymousUsersJob :: Cleanup Failed", e);
+        }
         finally {
             MDC.clear();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Walks the matching users in (activity, id) order, deleting batchSize of them per transaction with a throttleMs
+     * pause in between, until none are left, maxChunksPerRun is reached or maxRunMs passes.
+     * Cached plans and principals of deleted users are dropped right after each chunk commits.
+     */
+    private int deleteInactive(String cleanup, List<KieruUtil.SubscriptionPlan> plans, Instant cutoff) {
+        long startTime = System.currentTimeMillis();
+        long deadline = startTime + config.getMaxRunMs();
+        List<String> planNames = plans.stream().map(Enum::name).toList();
+        Timestamp cutoffTs = Timestamp.from(cutoff);
+
+        Counter deletedCounter = Counter.builder("kieru.user_cleanup.deleted").tag("cleanup", cleanup)
+                .description("Users removed by the inactive user cleanup").register(meterRegistry);
+        Timer chunkTimer = Timer.builder("kieru.user_cleanup.chunk").tag("cleanup", cleanup)
+                .description("Select + delete of one user cleanup chunk").register(meterRegistry);
+
+        Timestamp lastActivity = KEYSET_START;
+        String lastId = "";
+        int deleted = 0;
+        int chunks = 0;
+        boolean exhausted = false;
+
+        while (chunks < config.getMaxChunksPerRun() && System.currentTimeMillis() < deadline) {
+            long chunkStart = System.nanoTime();
+
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("plans", planNames)
+                    .addValue("cutoff", cutoffTs)
+                    .addValue("lastActivity", lastActivity)
+                    .addValue("lastId", lastId)
+                    .addValue("limit", config.getBatchSize());
+
+            List<String> ids = new ArrayList<>();
+            List<Timestamp> activities = new ArrayList<>();
+            namedJdbcTemplate.query(SELECT_CHUNK_SQL, params, rs -> {
+                ids.add(rs.getString("id"));
+                activities.add(rs.getTimestamp("activity"));
+            });
+
+            if (!ids.isEmpty()) {
+                params.addValue("ids", ids);
+                Integer rows = transactionTemplate.execute(status -> namedJdbcTemplate.update(DELETE_CHUNK_SQL, params));
+                int chunkDeleted = rows == null ? 0 : rows;
+                evictPlans(ids);
+
+                deleted += chunkDeleted;
+                deletedCounter.increment(chunkDeleted);
+                lastActivity = activities.get(activities.size() - 1);
+                lastId = ids.get(ids.size() - 1);
+            }
+            chunkTimer.record(System.nanoTime() - chunkStart, TimeUnit.NANOSECONDS);
+            chunks++;
+
+            if (ids.size() < config.getBatchSize()) {
+                exhausted = true;
+                break;
+            }
+
+            log.debug("UserCleanupJob :: [{}] Chunk {} deleted, {} users so far, cursor: ({}, {})", cleanup, chunks, deleted, lastActivity, lastId);
+            if (!throttle()) {
+                break;
+            }
+        }
+
+        long duration = System.currentTimeMillis() - startTime;
+        MDC.put("duration_ms", String.valueOf(duration));
+        if (!exhausted) {
+            log.warn("UserCleanupJob :: [{}] Stopped after {} chunks ({} users) in {}. Will continue next run.",
+                    cleanup, chunks, deleted, KieruUtil.millisToRelativeTime(duration));
+        }
+        else {
+            log.info("UserCleanupJob :: [{}] Deleted {} users in {} chunks, {}.", cleanup, deleted, chunks, KieruUtil.millisToRelativeTime(duration));
+        }
+        JobRunContext.addRows(deleted);
+        return deleted;
+    }
+
+    private void evictPlans(List<String> userIds) {
+        try {
+            redisTemplate.delete(userIds.stream()
+                    .flatMap(id -> Stream.of(RedisKeyUtil.buildKey(RedisKeyUtil.KeyType.SUBSCRIPTION_PLAN, id),
+                            RedisKeyUtil.buildKey(RedisKeyUtil.KeyType.USER_PRINCIPAL, id)))
+                    .toList());
+        }
+        catch (Exception e) {
+            // Both expire on their own within minutes
+            log.warn("UserCleanupJob :: Failed to evict cached plans and principals of {} users", userIds.size(), e);
+        }
+    }
+
+    private boolean throttle() {
+        try {
+            Thread.sleep(config.getThrottleMs());
+            return true;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -5,6 +5,8 @@ import com.kieru.backend.dto.SecretMetadataResponseDTO;
 import com.kieru.backend.entity.SecretAccessLog;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
@@ -24,6 +26,11 @@ public interface AccessLogRepository extends JpaRepository<SecretAccessLog, Long
      */
     List<SecretAccessLog> findBySecret_IdOrderByAccessedAtDesc(String secretId, Pageable pageable);
 
+    /**
+     * Same, bounded below by the secret's creation time so a partitioned table only scans the months since then.
+     */
+    List<SecretAccessLog> findBySecret_IdAndAccessedAtGreaterThanEqualOrderByAccessedAtDesc(String secretId, Instant since, Pageable pageable);
+
     /**
      * Fetch last N logs for a secret (small result set, convenience method).
      */
@@ -34,6 +41,19 @@ public interface AccessLogRepository extends JpaRepository<SecretAccessLog, Long
      */
     void deleteBySecret_Id(String secretId);
 
+    // Extract: Views + Failed Views + distinct viewer IPs in one pass. Half-open [start, end) so a day never touches the next month's partition.
+    @Query("SELECT COUNT(CASE WHEN l.wasSuccessful = true THEN 1 END) AS successful, " +
+            "COUNT(CASE WHEN l.wasSuccessful = false THEN 1 END) AS failed, " +
+            "COUNT(DISTINCT l.ipAddress) AS uniqueViewers " +
+            "FROM SecretAccessLog l WHERE l.accessedAt >= :start AND l.accessedAt < :end")
+    ViewCounts countViewsBetween(@Param("start") Instant start, @Param("end") Instant end);
+
+    interface ViewCounts {
+        long getSuccessful();
+        long getFailed();
+        long getUniqueViewers();
+    }
+
     // Extract: Views
     long countByAccessedAtBetweenAndWasSuccessfulTrue(Instant start, Instant end);
 
@@ -0,0 +1,37 @@
+package com.kieru.backend.repository;
+
+import com.kieru.backend.entity.HourlyStatistic;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface HourlyStatisticRepository extends JpaRepository<HourlyStatistic, Long> {
+
+    List<HourlyStatistic> findByHourStartGreaterThanEqualAndHourStartLessThanOrderByHourStartAsc(Instant start, Instant end);
+
+    // Re-rolling a range replaces it, so reruns and overlapping backfills stay idempotent
+    @Modifying
+    @Query("DELETE FROM HourlyStatistic h WHERE h.hourStart >= :start AND h.hourStart < :end")
+    int deleteRange(@Param("start") Instant start, @Param("end") Instant end);
+
+    @Query("SELECT COALESCE(SUM(h.newUsers), 0) AS newUsers, COALESCE(SUM(h.secretsCreated), 0) AS secretsCreated, " +
+            "COALESCE(SUM(h.secretsViewed), 0) AS secretsViewed, COALESCE(SUM(h.secretsFailedViews), 0) AS secretsFailedViews, " +
+            "COALESCE(SUM(h.totalStorageBytes), 0) AS totalStorageBytes, COALESCE(SUM(h.totalLogicalBytes), 0) AS totalLogicalBytes " +
+            "FROM HourlyStatistic h WHERE h.hourStart >= :start AND h.hourStart < :end")
+    Totals sumRange(@Param("start") Instant start, @Param("end") Instant end);
+
+    interface Totals {
+        long getNewUsers();
+        long getSecretsCreated();
+        long getSecretsViewed();
+        long getSecretsFailedViews();
+        long getTotalStorageBytes();
+        long getTotalLogicalBytes();
+    }
+}
@@ -0,0 +1,23 @@
+package com.kieru.backend.repository;
+
+import com.kieru.backend.entity.JobRunHistory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface JobRunHistoryRepository extends JpaRepository<JobRunHistory, Long> {
+
+    List<JobRunHistory> findTop20ByJobNameOrderByStartedAtDesc(String jobName);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM JobRunHistory h WHERE h.startedAt < :cutoff")
+    int deleteStartedBefore(@Param("cutoff") Instant cutoff);
+}
@@ -0,0 +1,135 @@
+package com.kieru.backend.repository;
+
+import com.kieru.backend.util.KieruUtil;
+import com.kieru.backend.util.PayloadCodec;
+import com.kieru.backend.util.SizeLimitedInputStream;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Streaming access to secret_payload.encoded_content, for payloads too large to hold in heap.
+ *
+ * Used by DatabasePayloadStore, and for the storage_key of bodies held by other stores.
+ *
+ * Writes: pgjdbc spools a stream of unknown length to a temp file past 50 KB, so the request body
+ * is never materialized. Reads: fixed-size substring() slices; with STORAGE EXTERNAL (schema-postgresql.sql)
+ * Postgres fetches only the TOAST chunks of each slice.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PayloadStreamRepository {
+
+    private static final int SLICE_BYTES = 256 * 1024;
+
+    private static final String INSERT_SQL = "INSERT INTO secret_payload (id, type, password_hash) VALUES (?, ?, ?)";
+    private static final String WRITE_BODY_SQL = "UPDATE secret_payload SET encoded_content = ? WHERE id = ?";
+    private static final String UPDATE_STORAGE_SQL = "UPDATE secret_payload SET storage_key = ?, content_length = ? WHERE id = ?";
+    private static final String INFO_SQL = "SELECT substring(encoded_content FROM 1 FOR 1) AS header, octet_length(encoded_content) AS length, " +
+            "storage_key, content_length FROM secret_payload WHERE id = ?";
+    private static final String SLICE_SQL = "SELECT substring(encoded_content FROM ? FOR ?) FROM secret_payload WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Data
+    @AllArgsConstructor
+    public static class StreamInfo {
+        private byte header;          // 0 when the body is not in the row
+        private long length;          // Stored length, including the header byte
+        private String storageKey;    // PayloadStore holding the body, null when it is in the row
+        private Long contentLength;
+
+        public boolean isRawBinary() {
+            return storageKey == null && length > 0 && header == PayloadCodec.rawBinaryHeader();
+        }
+
+        public boolean isBinary() {
+            return storageKey == null && length > 0 && PayloadCodec.isBinary(header);
+        }
+
+        public boolean isExternal() {
+            return storageKey != null;
+        }
+
+        /**
+         * Bytes a streamed read returns, for raw rows and external bodies.
+         */
+        public long getBodyLength() {
+            return isExternal() ? contentLength : length - 1;
+        }
+    }
+
+    /**
+     * Payload row of a streamed secret, the body is written afterwards by a PayloadStore.
+     * Must run inside the transaction that created the metadata row.
+     */
+    public void insertRow(String id, KieruUtil.SecretType type, String passwordHash) {
+        jdbcTemplate.update(INSERT_SQL, id, type.name(), passwordHash);
+    }
+
+    /**
+     * Streams the body into encoded_content as raw ciphertext (PayloadCodec raw-binary layout).
+     * Returns the number of body bytes.
+     */
+    public long writeRawBody(String id, InputStream body, long maxBytes) {
+        SizeLimitedInputStream limited = new SizeLimitedInputStream(body, maxBytes);
+        InputStream encoded = new SequenceInputStream(new ByteArrayInputStream(new byte[]{PayloadCodec.rawBinaryHeader()}), limited);
+
+        jdbcTemplate.update(WRITE_BODY_SQL, ps -> {
+            ps.setBinaryStream(1, encoded);
+            ps.setString(2, id);
+        });
+        return limited.getCount();
+    }
+
+    public void updateStorage(String id, String storageKey, long contentLength) {
+        jdbcTemplate.update(UPDATE_STORAGE_SQL, storageKey, contentLength, id);
+    }
+
+    /**
+     * Header byte, stored length and storage key, without reading the body.
+     * Empty when there is no body (no row, or a legacy text-only row).
+     */
+    public Optional<StreamInfo> findStreamInfo(String id) {
+        List<StreamInfo> rows = jdbcTemplate.query(INFO_SQL, (rs, rowNum) -> {
+            byte[] header = rs.getBytes("header");
+            String storageKey = rs.getString("storage_key");
+            if (storageKey == null && (header == null || header.length == 0)) {
+                return null;
+            }
+            long contentLength = rs.getLong("content_length");
+            return new StreamInfo(header == null || header.length == 0 ? 0 : header[0], rs.getLong("length"),
+                    storageKey, rs.wasNull() ? null : contentLength);
+        }, id);
+        return rows.isEmpty() ? Optional.empty() : Optional.ofNullable(rows.get(0));
+    }
+
+    /**
+     * Copies the body (everything after the header byte) to out, one slice at a time.
+     */
+    public void copyBodyTo(String id, long bodyLength, OutputStream out) throws IOException {
+        long position = 2;   // substring() is 1-based, byte 1 is the header
+        long end = bodyLength + 2;
+
+        while (position < end) {
+            int sliceLength = (int) Math.min(SLICE_BYTES, end - position);
+            byte[] slice = jdbcTemplate.queryForObject(SLICE_SQL, byte[].class, position, sliceLength, id);
+            if (slice == null || slice.length == 0) {
+                throw new IllegalStateException("Payload for secret " + id + " ended early at " + (position - 2) + " of " + bodyLength + " bytes");
+            }
+            out.write(slice);
+            position += slice.length;
+        }
+        out.flush();
+    }
+}
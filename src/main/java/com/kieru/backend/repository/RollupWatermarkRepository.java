@@ -0,0 +1,9 @@
+package com.kieru.backend.repository;
+
+import com.kieru.backend.entity.RollupWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RollupWatermarkRepository extends JpaRepository<RollupWatermark, String> {
+}
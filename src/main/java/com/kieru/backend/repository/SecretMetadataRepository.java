@@ -10,7 +10,9 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface SecretMetadataRepository extends JpaRepository<SecretMetadata, String> {
@@ -30,15 +32,39 @@ public interface SecretMetadataRepository extends JpaRepository<SecretMetadata,
     @Query("UPDATE SecretMetadata s SET s.isActive = false WHERE s.id = :id")
     void disableSecret(@Param("id") String id);
 
-    @Query("SELECT s FROM SecretMetadata s WHERE s.isActive = true AND s.expiresAt < :now")
-    List<SecretMetadata> findExpiredSecrets(@Param("now") Instant now, Pageable pageable);
+    /**
+     * Persists the view count decided by Redis.
+     * Only moves the counter downwards, so out-of-order async writes can't resurrect views.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE SecretMetadata s SET s.viewsLeft = :viewsLeft, s.isActive = :active " +
+            "WHERE s.id = :id AND s.viewsLeft > :viewsLeft")
+    int updateViewsLeft(@Param("id") String id, @Param("viewsLeft") int viewsLeft, @Param("active") boolean active);
+
+    @Query("SELECT s.createdAt FROM SecretMetadata s WHERE s.id = :id")
+    Optional<Instant> findCreatedAtById(@Param("id") String id);
+
+    // expiresAt guard: the expiry index is only a hint, the row decides
+    @Modifying
+    @Transactional
+    @Query("UPDATE SecretMetadata s SET s.isActive = false WHERE s.id IN :ids AND s.isActive = true AND s.expiresAt <= :now")
+    int deactivateExpired(@Param("ids") Collection<String> ids, @Param("now") Instant now);
 
     // Extract: Secrets Created
     long countByCreatedAtBetween(Instant start, Instant end);
 
-    // Extract: Storage Used (Sum of encrypted payload size)
-    // Note: Joining with Payload table for byte size
-    @Query("SELECT COALESCE(SUM(LENGTH(p.encryptedContent)), 0) FROM SecretMetadata m " +
-            "JOIN m.payload p WHERE m.createdAt BETWEEN :start AND :end")
-    long sumStorageBytesBetween(@Param("start") Instant start, @Param("end") Instant end);
+    // Extract: Storage Used
+    // logical  = content size before PayloadCodec (content_length, or the legacy text column)
+    // physical = what is actually stored (encoded_content, or the legacy text column)
+    @Query(value = "SELECT COALESCE(SUM(COALESCE(p.content_length, OCTET_LENGTH(p.encrypted_content))), 0) AS logicalBytes, " +
+            "COALESCE(SUM(COALESCE(OCTET_LENGTH(p.encoded_content), OCTET_LENGTH(p.encrypted_content))), 0) AS physicalBytes " +
+            "FROM secret_metadata m JOIN secret_payload p ON p.id = m.id " +
+            "WHERE m.created_at BETWEEN :start AND :end", nativeQuery = true)
+    StorageBytes sumStorageBytesBetween(@Param("start") Instant start, @Param("end") Instant end);
+
+    interface StorageBytes {
+        long getLogicalBytes();
+        long getPhysicalBytes();
+    }
 }
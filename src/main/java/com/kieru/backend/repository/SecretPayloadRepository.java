@@ -1,9 +1,15 @@
 package com.kieru.backend.repository;
 
+import com.kieru.backend.dto.SecretAccessView;
+import com.kieru.backend.dto.StoredContent;
 import com.kieru.backend.entity.SecretPayload;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -15,6 +21,36 @@ public interface SecretPayloadRepository extends JpaRepository<SecretPayload, St
      */
     Optional<SecretPayload> findByMetadata_Id(String metadataId);
 
+    /**
+     * Access path (Redis miss): metadata columns + payload in ONE statement.
+     * LEFT JOIN so a missing payload row still returns the metadata (integrity error, not "not found").
+     */
+    @Query("SELECT new com.kieru.backend.dto.SecretAccessView(m.id, m.viewsLeft, m.expiresAt, m.isActive, m.isDeleted, " +
+            "m.viewTimeSeconds, m.showTimeBomb, p.passwordHash, p.type, p.encryptedContent, p.encodedContent) " +
+            "FROM SecretMetadata m LEFT JOIN m.payload p WHERE m.id = :id")
+    Optional<SecretAccessView> findAccessViewById(@Param("id") String id);
+
+    /**
+     * Streamed access path (Redis miss): same as findAccessViewById without the content columns,
+     * the body is read afterwards in slices by PayloadStreamRepository.
+     */
+    @Query("SELECT new com.kieru.backend.dto.SecretAccessView(m.id, m.viewsLeft, m.expiresAt, m.isActive, m.isDeleted, " +
+            "m.viewTimeSeconds, m.showTimeBomb, p.passwordHash, p.type) " +
+            "FROM SecretMetadata m LEFT JOIN m.payload p WHERE m.id = :id")
+    Optional<SecretAccessView> findAccessStateById(@Param("id") String id);
+
+    /**
+     * Access path (Redis hit, payload not cached): only the content columns, metadata is never touched.
+     */
+    @Query("SELECT new com.kieru.backend.dto.StoredContent(p.encryptedContent, p.encodedContent) FROM SecretPayload p WHERE p.id = :id")
+    Optional<StoredContent> findStoredContentById(@Param("id") String id);
+
+    /**
+     * [id, storageKey] of the given secrets whose body lives in an external PayloadStore.
+     */
+    @Query("SELECT p.id, p.storageKey FROM SecretPayload p WHERE p.id IN :ids AND p.storageKey IS NOT NULL")
+    List<Object[]> findStorageKeys(@Param("ids") Collection<String> ids);
+
 //    SecretPayload updatePasswordById(String id, String password);
 //
 //    String getPasswordHashById(String id);
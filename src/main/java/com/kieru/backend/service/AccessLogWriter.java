@@ -0,0 +1,11 @@
+package com.kieru.backend.service;
+
+import com.kieru.backend.dto.CreateAccessLog;
+
+public interface AccessLogWriter {
+    /**
+     * Queues an access log for asynchronous batch insert. Never touches the DB on the caller's thread.
+     * Returns false when the entry was dropped by the overflow policy.
+     */
+    public boolean submit(CreateAccessLog accessLog);
+}
@@ -0,0 +1,11 @@
+package com.kieru.backend.service;
+
+import java.time.Instant;
+
+public interface LastLoginWriter {
+    /**
+     * Notes that the user was active at the given time. Never touches the DB on the caller's thread,
+     * kieru_users.last_login_at is written at most once per user per app.user-cache.last-login-interval-seconds.
+     */
+    public void record(String userId, Instant at);
+}
@@ -1,9 +1,19 @@
 package com.kieru.backend.service;
 
-public interface RateLimitService {
-    public boolean tryConsume(String key, int limit, int windowSeconds);
+import com.kieru.backend.dto.RateLimitDecision;
 
-    public void lock(String identifier, int durationMinutes);
+public interface RateLimitService {
+    /**
+     * Checks the lockout of lockIdentifier, consumes one request of key (limit per windowSeconds, GCRA)
+     * and, when over the limit, locks lockIdentifier out for lockDurationMinutes. All in one Redis call.
+     */
+    public default RateLimitDecision consume(String key, String lockIdentifier, int limit, int windowSeconds, int lockDurationMinutes) {
+        return consume(key, lockIdentifier, limit, windowSeconds, lockDurationMinutes, 1);
+    }
 
-    public boolean isLocked(String identifier);
+    /**
+     * Same as consume(), but takes up to tokens requests at once (fewer when fewer are left), see getGranted().
+     * Used to lease a block of requests that a node then hands out locally.
+     */
+    public RateLimitDecision consume(String key, String lockIdentifier, int limit, int windowSeconds, int lockDurationMinutes, int tokens);
 }
@@ -4,8 +4,11 @@ import com.kieru.backend.dto.CreateSecretRequest;
 import com.kieru.backend.dto.SecretLogsResponseDTO;
 import com.kieru.backend.dto.SecretMetadataResponseDTO;
 import com.kieru.backend.dto.SecretResponseDTO;
+import com.kieru.backend.dto.SecretStreamResponse;
 import org.springframework.data.domain.Pageable;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.Instant;
 import java.util.List;
 
@@ -13,10 +16,14 @@ public interface SecretService {
 
     SecretMetadataResponseDTO createSecret(CreateSecretRequest request, String ownerId, String ipAddress);
 
+    SecretMetadataResponseDTO createSecretStream(CreateSecretRequest request, InputStream body, long declaredLength, String ownerId, String ipAddress) throws IOException;
+
     SecretMetadataResponseDTO validateSecret(String secretId);
 
     SecretResponseDTO getSecretContent(String id, String password, Instant accessedAt, String ipAddress, String userAgent);
 
+    SecretStreamResponse getSecretContentStream(String id, String password, Instant accessedAt, String ipAddress, String userAgent);
+
     SecretMetadataResponseDTO deleteSecret(String secretId);
 
     List<SecretMetadataResponseDTO> getMySecretsMeta(String ownerId, int startOffset, int limit, boolean onlyActive);
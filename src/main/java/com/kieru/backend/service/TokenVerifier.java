@@ -0,0 +1,12 @@
+package com.kieru.backend.service;
+
+import com.kieru.backend.dto.VerifiedToken;
+import com.kieru.backend.exception.InvalidTokenException;
+
+public interface TokenVerifier {
+    /**
+     * Checks signature, expiry and issuer of an ID token and returns its claims.
+     * Throws InvalidTokenException when the token cannot be trusted.
+     */
+    public VerifiedToken verify(String idToken) throws InvalidTokenException;
+}
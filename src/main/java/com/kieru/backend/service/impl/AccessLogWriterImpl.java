@@ -0,0 +1,267 @@
+package com.kieru.backend.service.impl;
+
+import com.kieru.backend.dto.CreateAccessLog;
+import com.kieru.backend.service.AccessLogWriter;
+import com.kieru.backend.util.AccessLogWriterConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded access-log pipeline.
+ *
+ * Request threads only enqueue. One drainer thread collects up to batchSize entries (or whatever
+ * arrived within flushIntervalMs) and writes them with a single JDBC batch keyed by secret_id,
+ * so no SecretMetadata is loaded and the IDENTITY key does not force row-by-row inserts.
+ * With reWriteBatchedInserts the Postgres driver sends the batch as multi-row INSERTs.
+ *
+ * A batch rejected for a bad row is retried row by row. A batch that fails because the DB is down or slow is
+ * dropped whole and writes pause (outageBackoffMs, doubling), so an outage never stalls the drainer row by row.
+ */
+@Service
+@Slf4j
+public class AccessLogWriterImpl implements AccessLogWriter, SmartLifecycle {
+
+    private static final String INSERT_SQL = "INSERT INTO secret_access_logs " +
+            "(secret_id, accessed_at, ip_address, device_type, user_agent, was_successful, failure_reason) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AccessLogWriterConfig config;
+    private final BlockingQueue<CreateAccessLog> queue;
+
+    private final Timer flushTimer;
+    private final Counter written;
+    private final Counter droppedOverflow;
+    private final Counter droppedSampled;
+    private final Counter droppedFailed;
+    private final Counter droppedUnavailable;
+
+    private volatile boolean running = false;
+    private Thread drainer;
+
+    // Drainer thread only
+    private int consecutiveOutages = 0;
+    private long writeAgainAt = 0;
+
+    public AccessLogWriterImpl(JdbcTemplate jdbcTemplate, AccessLogWriterConfig config, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.config = config;
+        this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+
+        Gauge.builder("kieru.access_log.queue.depth", queue, BlockingQueue::size)
+                .description("Access logs waiting to be written").register(meterRegistry);
+        this.flushTimer = Timer.builder("kieru.access_log.flush")
+                .description("Time to write one access-log batch").register(meterRegistry);
+        this.written = Counter.builder("kieru.access_log.written").register(meterRegistry);
+        this.droppedOverflow = Counter.builder("kieru.access_log.dropped").tag("reason", "overflow").register(meterRegistry);
+        this.droppedSampled = Counter.builder("kieru.access_log.dropped").tag("reason", "sampled").register(meterRegistry);
+        this.droppedFailed = Counter.builder("kieru.access_log.dropped").tag("reason", "failed").register(meterRegistry);
+        this.droppedUnavailable = Counter.builder("kieru.access_log.dropped").tag("reason", "unavailable").register(meterRegistry);
+    }
+
+    @Override
+    public boolean submit(CreateAccessLog accessLog) {
+        if (accessLog.getAccessedAt() == null) {
+            accessLog.setAccessedAt(Instant.now());
+        }
+
+        switch (config.getOverflowPolicy()) {
+            case BLOCK -> {
+                try {
+                    if (queue.offer(accessLog, config.getBlockTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                droppedOverflow.increment();
+                return false;
+            }
+            case DROP_OLDEST -> {
+                while (!queue.offer(accessLog)) {
+                    if (queue.poll() != null) {
+                        droppedOverflow.increment();
+                    }
+                }
+                return true;
+            }
+            case SAMPLE -> {
+                if (queue.size() >= config.getQueueCapacity() * config.getSampleThreshold()
+                        && ThreadLocalRandom.current().nextDouble() >= config.getSampleRate()) {
+                    droppedSampled.increment();
+                    return false;
+                }
+                if (queue.offer(accessLog)) {
+                    return true;
+                }
+                droppedOverflow.increment();
+                return false;
+            }
+            default -> throw new IllegalStateException("Unknown overflow policy: " + config.getOverflowPolicy());
+        }
+    }
+
+    private void drainLoop() {
+        List<CreateAccessLog> batch = new ArrayList<>(config.getBatchSize());
+        long flushDeadline = System.currentTimeMillis() + config.getFlushIntervalMs();
+
+        while (running || !queue.isEmpty()) {
+            try {
+                long waitMs = Math.max(1, flushDeadline - System.currentTimeMillis());
+                CreateAccessLog next = queue.poll(waitMs, TimeUnit.MILLISECONDS);
+                if (next != null) {
+                    batch.add(next);
+                    queue.drainTo(batch, config.getBatchSize() - batch.size());
+                }
+            }
+            catch (InterruptedException e) {
+                // Only happens on JVM shutdown, write what is left and exit
+                running = false;
+            }
+
+            if (batch.size() >= config.getBatchSize() || System.currentTimeMillis() >= flushDeadline || !running) {
+                flush(batch);
+                batch.clear();
+                flushDeadline = System.currentTimeMillis() + config.getFlushIntervalMs();
+            }
+        }
+        flush(batch);
+    }
+
+    private void flush(List<CreateAccessLog> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (System.currentTimeMillis() < writeAgainAt) {
+            // DB still backing off: drop the batch rather than stall the drainer (and, under BLOCK, request threads)
+            droppedUnavailable.increment(batch.size());
+            return;
+        }
+
+        long startTime = System.nanoTime();
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    bind(ps, batch.get(i));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return batch.size();
+                }
+            });
+            written.increment(batch.size());
+            consecutiveOutages = 0;
+            log.debug("Access Log Writer :: Flushed {} access logs", batch.size());
+        }
+        catch (DataIntegrityViolationException e) {
+            // One bad row (e.g. secret purged meanwhile -> FK violation) fails the whole batch, retry row by row
+            log.warn("Access Log Writer :: Batch of {} failed, retrying row by row: {}", batch.size(), e.getMessage());
+            for (int i = 0; i < batch.size(); i++) {
+                CreateAccessLog accessLog = batch.get(i);
+                try {
+                    jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, accessLog));
+                    written.increment();
+                }
+                catch (DataIntegrityViolationException rowError) {
+                    droppedFailed.increment();
+                    log.warn("Access Log Writer :: Skipping access log for secret: {}, reason: {}", accessLog.getSecretId(), rowError.getMessage());
+                }
+                catch (Exception rowError) {
+                    outage(batch.size() - i, rowError);
+                    break;
+                }
+            }
+        }
+        catch (Exception e) {
+            outage(batch.size(), e);
+        }
+        finally {
+            flushTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * The DB itself failed (connection, timeout): no row by row retry, each row would wait out the same timeout.
+     */
+    private void outage(int dropped, Exception e) {
+        droppedUnavailable.increment(dropped);
+        consecutiveOutages++;
+        long backoff = Math.min(config.getMaxOutageBackoffMs(),
+                config.getOutageBackoffMs() << Math.min(consecutiveOutages - 1, 20));
+        writeAgainAt = System.currentTimeMillis() + backoff;
+        log.warn("Access Log Writer :: Database unavailable, dropped {} access logs, next write in {} ms: {}", dropped, backoff, e.getMessage());
+    }
+
+    private static void bind(PreparedStatement ps, CreateAccessLog accessLog) throws SQLException {
+        ps.setString(1, accessLog.getSecretId());
+        ps.setTimestamp(2, Timestamp.from(accessLog.getAccessedAt()));
+        ps.setString(3, truncate(accessLog.getIpAddress(), 45));
+        ps.setString(4, truncate(accessLog.getDeviceType(), 100));
+        ps.setString(5, truncate(accessLog.getUserAgent(), 1024));
+        ps.setBoolean(6, Boolean.TRUE.equals(accessLog.getWasSuccessful()));
+        ps.setString(7, truncate(accessLog.getFailureReason(), 100));
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        drainer = new Thread(this::drainLoop, "access-log-writer");
+        drainer.setDaemon(true);
+        drainer.start();
+        log.info("Access Log Writer :: Started, capacity: {}, batch size: {}, policy: {}",
+                config.getQueueCapacity(), config.getBatchSize(), config.getOverflowPolicy());
+    }
+
+    @Override
+    public void stop() {
+        // The drainer notices within one flush interval and writes whatever is still queued
+        running = false;
+        try {
+            drainer.join(config.getShutdownTimeoutMs());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Access Log Writer :: Stopped, {} access logs left unwritten", queue.size());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before and stops after the web server, so requests still in flight during
+     * graceful shutdown can enqueue and get flushed.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
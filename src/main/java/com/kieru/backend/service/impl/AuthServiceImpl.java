@@ -1,13 +1,17 @@
 package com.kieru.backend.service.impl;
 
-import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.auth.FirebaseAuthException;
-import com.google.firebase.auth.FirebaseToken;
 import com.kieru.backend.dto.AuthResponse;
 import com.kieru.backend.dto.LoginRequest;
+import com.kieru.backend.dto.VerifiedToken;
 import com.kieru.backend.entity.User;
+import com.kieru.backend.exception.InvalidTokenException;
+import com.kieru.backend.filter.SessionVersionCheck;
 import com.kieru.backend.repository.UserRepository;
 import com.kieru.backend.service.AuthService;
+import com.kieru.backend.service.TokenVerifier;
+import com.kieru.backend.store.DailyCounterStore;
+import com.kieru.backend.store.UserPrincipalCache;
+import com.kieru.backend.store.VerifiedTokenCache;
 import com.kieru.backend.util.KieruUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -16,7 +20,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
-import java.util.Map;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -24,8 +29,11 @@ import java.util.UUID;
 @Slf4j
 public class AuthServiceImpl implements AuthService {
 
-    private final FirebaseAuth firebaseAuth;
+    private final TokenVerifier tokenVerifier;
     private final UserRepository userRepository;
+    private final DailyCounterStore dailyCounters;
+    private final VerifiedTokenCache tokenCache;
+    private final UserPrincipalCache principalCache;
 
     @Override
     @Transactional
@@ -34,7 +42,7 @@ public class AuthServiceImpl implements AuthService {
         long startTime = System.currentTimeMillis();
 
         try {
-            FirebaseToken decodedToken = firebaseAuth.verifyIdToken(request.getFirebaseToken());
+            VerifiedToken decodedToken = tokenVerifier.verify(request.getFirebaseToken());
 
             String uid = decodedToken.getUid();
             String email = decodedToken.getEmail();
@@ -49,19 +57,13 @@ public class AuthServiceImpl implements AuthService {
 //            }
 
             KieruUtil.LoginProvider provider = KieruUtil.LoginProvider.UNKNOWN;
-            Map<String, Object> claims = decodedToken.getClaims();
-            Object firebaseClaim = claims.get("firebase");
-
-            if (firebaseClaim instanceof Map<?, ?> firebaseMap) {
-                Object signInProvider = firebaseMap.get("sign_in_provider");
-
-                if (signInProvider instanceof String providerStr) {
-                    provider = KieruUtil.LoginProvider.fromFirebaseProvider(providerStr);
-                }
+            if (decodedToken.getSignInProvider() != null) {
+                provider = KieruUtil.LoginProvider.fromFirebaseProvider(decodedToken.getSignInProvider());
             }
 
-            boolean isNewUser = false;
-            User user = userRepository.findById(uid).orElseGet(() -> {
+            Optional<User> existingUser = userRepository.findById(uid);
+            boolean isNewUser = existingUser.isEmpty();
+            User user = existingUser.orElseGet(() -> {
                 log.info("Auth Service :: Creating new user for UID: {}", uid);
                 return User.builder()
                         .id(uid)
@@ -91,10 +93,25 @@ public class AuthServiceImpl implements AuthService {
             user.setLastLoginIp(ip);
             user.setLoginProvider(provider);
 
-            String newSessionVersion = UUID.randomUUID().toString();
-            user.setSessionVersion(newSessionVersion);
+            // A token issued before the last logout cannot start a new session
+            if (SessionVersionCheck.isRevoked(user, decodedToken.getIssuedAt())) {
+                log.warn("Auth Service :: Login blocked: Token issued before the last logout. UID: {}", uid);
+                throw new RuntimeException("Auth Service :: Session revoked");
+            }
+
+            // Shared by every device of the user, only logout rotates it
+            if (user.getSessionVersion() == null) {
+                user.setSessionVersion(UUID.randomUUID().toString());
+            }
 
             userRepository.save(user);
+            tokenCache.evictUser(uid);
+            principalCache.invalidate(uid);
+
+            if (isNewUser) {
+                dailyCounters.increment(DailyCounterStore.Counter.NEW_USERS, 1);
+            }
+            dailyCounters.recordActiveUser(uid);
 
             long duration = System.currentTimeMillis() - startTime;
             MDC.put("duration_ms", String.valueOf(duration));
@@ -108,11 +125,11 @@ public class AuthServiceImpl implements AuthService {
                     .role(user.getRole().name())
                     .subscription(user.getSubscription().name())
                     .loginProvider(provider.name())
-                    .sessionVersion(newSessionVersion)
+                    .sessionVersion(user.getSessionVersion())
                     .build();
 
         }
-        catch (FirebaseAuthException e) {
+        catch (InvalidTokenException e) {
             log.error("Auth Service :: Firebase token verification failed from IP: {}", ip, e);
             throw new RuntimeException("Auth Service :: Invalid Firebase token", e);
         }
@@ -127,9 +144,13 @@ public class AuthServiceImpl implements AuthService {
                     return new RuntimeException("Auth Service :: User not found");
                 });
 
-        String newSessionVersion = UUID.randomUUID().toString();
-        user.setSessionVersion(newSessionVersion);
+        // Ends every session of the user: the old version and every token issued so far stop working
+        user.setSessionVersion(UUID.randomUUID().toString());
+        // Whole seconds like iat, so a token minted right after logout (re-login) is not caught by it
+        user.setSessionsRevokedAt(Instant.now().truncatedTo(ChronoUnit.SECONDS));
         userRepository.save(user);
+        tokenCache.evictUser(userId);
+        principalCache.invalidate(userId);
 
         long duration = System.currentTimeMillis() - startTime;
         MDC.put("duration_ms", String.valueOf(duration));
@@ -0,0 +1,31 @@
+package com.kieru.backend.service.impl;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseAuthException;
+import com.kieru.backend.dto.VerifiedToken;
+import com.kieru.backend.exception.InvalidTokenException;
+import com.kieru.backend.service.TokenVerifier;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Firebase Admin SDK verification, Google's signing keys are fetched and cached by the SDK.
+ */
+@Service
+@ConditionalOnProperty(name = "app.auth.verifier", havingValue = "FIREBASE", matchIfMissing = true)
+@RequiredArgsConstructor
+public class FirebaseTokenVerifier implements TokenVerifier {
+
+    private final FirebaseAuth firebaseAuth;
+
+    @Override
+    public VerifiedToken verify(String idToken) {
+        try {
+            return VerifiedToken.from(firebaseAuth.verifyIdToken(idToken));
+        }
+        catch (FirebaseAuthException e) {
+            throw new InvalidTokenException("Firebase rejected the ID token: " + e.getMessage(), e);
+        }
+    }
+}
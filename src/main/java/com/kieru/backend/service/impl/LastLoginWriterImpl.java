@@ -0,0 +1,103 @@
+package com.kieru.backend.service.impl;
+
+import com.kieru.backend.service.LastLoginWriter;
+import com.kieru.backend.util.UserCacheConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coalesced lastLoginAt updates.
+ *
+ * Requests only touch two maps: the last time each user was written, and the latest pending time per user.
+ * flush() writes the pending ones as one JDBC batch of single-column updates, so a dashboard session costs one
+ * kieru_users write per interval instead of a full-row save per API call.
+ */
+@Service
+@Slf4j
+public class LastLoginWriterImpl implements LastLoginWriter, DisposableBean {
+
+    // Never moves last_login_at backwards (another node may have written a later time)
+    private static final String UPDATE_SQL = "UPDATE kieru_users SET last_login_at = ? " +
+            "WHERE id = ? AND (last_login_at IS NULL OR last_login_at < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserCacheConfig config;
+
+    private final Map<String, Instant> pending = new ConcurrentHashMap<>();
+    private final Map<String, Instant> lastWritten = new ConcurrentHashMap<>();
+
+    private final Counter written;
+    private final Counter coalesced;
+
+    public LastLoginWriterImpl(JdbcTemplate jdbcTemplate, UserCacheConfig config, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.config = config;
+
+        this.written = Counter.builder("kieru.users.last_login").tag("result", "written")
+                .description("lastLoginAt updates written to kieru_users").register(meterRegistry);
+        this.coalesced = Counter.builder("kieru.users.last_login").tag("result", "coalesced")
+                .description("Requests whose lastLoginAt update was skipped or merged").register(meterRegistry);
+    }
+
+    @Override
+    public void record(String userId, Instant at) {
+        Instant lastWrite = lastWritten.get(userId);
+        if (lastWrite != null && at.isBefore(lastWrite.plusSeconds(config.getLastLoginIntervalSeconds()))) {
+            coalesced.increment();
+            return;
+        }
+        pending.compute(userId, (id, current) -> {
+            if (current == null) {
+                return at;
+            }
+            coalesced.increment();
+            return at.isAfter(current) ? at : current;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.user-cache.last-login-flush-ms:5000}")
+    public void flush() {
+        List<Object[]> batch = new ArrayList<>();
+        for (Map.Entry<String, Instant> entry : pending.entrySet()) {
+            // remove(key, value): a newer time recorded meanwhile stays pending for the next flush
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                Timestamp at = Timestamp.from(entry.getValue());
+                batch.add(new Object[]{at, entry.getKey(), at});
+                lastWritten.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            try {
+                jdbcTemplate.batchUpdate(UPDATE_SQL, batch);
+                written.increment(batch.size());
+                log.debug("Last Login Writer :: Wrote lastLoginAt of {} users", batch.size());
+            }
+            catch (Exception e) {
+                // Best effort: the next request of each user records it again
+                batch.forEach(row -> lastWritten.remove((String) row[1]));
+                log.warn("Last Login Writer :: Failed to write lastLoginAt of {} users", batch.size(), e);
+            }
+        }
+
+        Instant horizon = Instant.now().minusSeconds(config.getLastLoginIntervalSeconds());
+        lastWritten.values().removeIf(at -> at.isBefore(horizon));
+    }
+
+    @Override
+    public void destroy() {
+        flush();
+    }
+}
@@ -0,0 +1,162 @@
+package com.kieru.backend.service.impl;
+
+import com.kieru.backend.dto.VerifiedToken;
+import com.kieru.backend.exception.InvalidTokenException;
+import com.kieru.backend.service.TokenVerifier;
+import com.kieru.backend.util.AuthConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * RS256 JWTs checked against the key set in app.auth.local.public-keys, with no network access.
+ * Tokens carry the same claims as Firebase ID tokens (sub, exp, iat, email, name, picture,
+ * firebase.sign_in_provider), so the rest of the auth path cannot tell the verifiers apart.
+ */
+@Service
+@ConditionalOnProperty(name = "app.auth.verifier", havingValue = "LOCAL")
+@Slf4j
+public class LocalJwtTokenVerifier implements TokenVerifier {
+
+    private static final JsonMapper JSON = JsonMapper.builder().build();
+    private static final Base64.Decoder BASE64_URL = Base64.getUrlDecoder();
+
+    private final AuthConfig.Local config;
+    private final Map<String, PublicKey> keys = new HashMap<>();
+    private final Supplier<Instant> clock;
+
+    public LocalJwtTokenVerifier(AuthConfig authConfig) {
+        this(authConfig.getLocal(), Instant::now);
+    }
+
+    public LocalJwtTokenVerifier(AuthConfig.Local config, Supplier<Instant> clock) {
+        this.config = config;
+        this.clock = clock;
+
+        if (config.getPublicKeys().isEmpty()) {
+            throw new IllegalStateException("app.auth.verifier=LOCAL needs at least one key in app.auth.local.public-keys");
+        }
+        // Firebase's signing keys are shared by every project, only iss/aud tie a token to this one
+        if (isBlank(config.getIssuer()) || isBlank(config.getAudience())) {
+            throw new IllegalStateException("app.auth.verifier=LOCAL needs app.auth.local.issuer and app.auth.local.audience");
+        }
+        config.getPublicKeys().forEach((kid, encoded) -> keys.put(kid, parsePublicKey(kid, encoded)));
+        log.info("Local Token Verifier :: Loaded {} keys: {}", keys.size(), keys.keySet());
+    }
+
+    @Override
+    public VerifiedToken verify(String idToken) {
+        String[] parts = idToken.split("\\.");
+        if (parts.length != 3) {
+            throw new InvalidTokenException("Malformed token");
+        }
+
+        Map<String, Object> header = readJson(parts[0]);
+        if (!"RS256".equals(header.get("alg"))) {
+            throw new InvalidTokenException("Unsupported algorithm: " + header.get("alg"));
+        }
+        PublicKey key = keys.get(String.valueOf(header.get("kid")));
+        if (key == null) {
+            throw new InvalidTokenException("Unknown key id: " + header.get("kid"));
+        }
+        if (!signatureMatches(key, parts)) {
+            throw new InvalidTokenException("Invalid signature");
+        }
+
+        Map<String, Object> claims = readJson(parts[1]);
+        checkClaims(claims);
+
+        String signInProvider = null;
+        if (claims.get("firebase") instanceof Map<?, ?> firebaseClaims && firebaseClaims.get("sign_in_provider") instanceof String provider) {
+            signInProvider = provider;
+        }
+
+        return VerifiedToken.builder()
+                .uid((String) claims.get("sub"))
+                .email((String) claims.get("email"))
+                .name((String) claims.get("name"))
+                .picture((String) claims.get("picture"))
+                .signInProvider(signInProvider)
+                .expiresAt(Instant.ofEpochSecond(((Number) claims.get("exp")).longValue()))
+                .issuedAt(claims.get("iat") instanceof Number iat ? Instant.ofEpochSecond(iat.longValue()) : null)
+                .build();
+    }
+
+    private void checkClaims(Map<String, Object> claims) {
+        long now = clock.get().getEpochSecond();
+        long skew = config.getClockSkewSeconds();
+
+        if (!(claims.get("sub") instanceof String sub) || sub.isBlank()) {
+            throw new InvalidTokenException("Token has no subject");
+        }
+        if (!(claims.get("exp") instanceof Number exp) || exp.longValue() + skew <= now) {
+            throw new InvalidTokenException("Token expired");
+        }
+        if (claims.get("iat") instanceof Number iat && iat.longValue() - skew > now) {
+            throw new InvalidTokenException("Token issued in the future");
+        }
+        if (!config.getIssuer().equals(claims.get("iss"))) {
+            throw new InvalidTokenException("Unexpected issuer: " + claims.get("iss"));
+        }
+        if (!audienceMatches(claims.get("aud"))) {
+            throw new InvalidTokenException("Unexpected audience: " + claims.get("aud"));
+        }
+    }
+
+    private boolean audienceMatches(Object aud) {
+        return aud instanceof List<?> audiences ? audiences.contains(config.getAudience()) : config.getAudience().equals(aud);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static boolean signatureMatches(PublicKey key, String[] parts) {
+        try {
+            Signature verifier = Signature.getInstance("SHA256withRSA");
+            verifier.initVerify(key);
+            verifier.update((parts[0] + "." + parts[1]).getBytes(StandardCharsets.US_ASCII));
+            return verifier.verify(BASE64_URL.decode(parts[2]));
+        }
+        catch (GeneralSecurityException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> readJson(String part) {
+        try {
+            return JSON.readValue(BASE64_URL.decode(part), Map.class);
+        }
+        catch (RuntimeException e) {
+            throw new InvalidTokenException("Malformed token", e);
+        }
+    }
+
+    private static PublicKey parsePublicKey(String kid, String encoded) {
+        String base64 = encoded
+                .replace("-----BEGIN PUBLIC KEY-----", "")
+                .replace("-----END PUBLIC KEY-----", "")
+                .replaceAll("\\s", "");
+        try {
+            return KeyFactory.getInstance("RSA").generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(base64)));
+        }
+        catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid RSA public key for kid " + kid, e);
+        }
+    }
+}
@@ -1,56 +1,60 @@
 package com.kieru.backend.service.impl;
 
+import com.kieru.backend.dto.RateLimitDecision;
 import com.kieru.backend.service.RateLimitService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
-import java.util.concurrent.TimeUnit;
+import java.util.List;
 
+/**
+ * GCRA limiter, see scripts/rate_limit.lua. Lockout check, consumption and lockout are one atomic call,
+ * and every key it writes has a TTL.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class RateLimitServiceImpl implements RateLimitService {
 
+    private static final RedisScript<List> RATE_LIMIT_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/rate_limit.lua"), List.class);
+
+    private static final String LOCK_PREFIX = "ratelimit:lock:";
+
     private final StringRedisTemplate redisTemplate;
 
     @Override
-    public boolean tryConsume(String key, int limit, int windowSeconds) {
+    public RateLimitDecision consume(String key, String lockIdentifier, int limit, int windowSeconds, int lockDurationMinutes, int tokens) {
         try {
-            Long current = redisTemplate.opsForValue().increment(key);
+            List<?> reply = redisTemplate.execute(RATE_LIMIT_SCRIPT, List.of(key, LOCK_PREFIX + lockIdentifier),
+                    String.valueOf(limit), String.valueOf(windowSeconds * 1000L), String.valueOf(lockDurationMinutes * 60_000L),
+                    String.valueOf(tokens));
 
-            if (current == null) {
-                log.warn("RateLimit :: Redis increment returned null for key: {}", key);
-                return false;
+            if (reply == null || reply.size() < 2) {
+                log.warn("RateLimit :: Unexpected script reply for key: {}: {}", key, reply);
+                return RateLimitDecision.allowed(limit);
             }
 
-            if (current == 1) {
-                redisTemplate.expire(key, windowSeconds, TimeUnit.SECONDS);
-                log.debug("RateLimit :: Set TTL for key: {}, window: {}s", key, windowSeconds);
-            }
+            long status = ((Number) reply.get(0)).longValue();
+            long value = ((Number) reply.get(1)).longValue();
+            RateLimitDecision decision = switch ((int) status) {
+                case 1 -> RateLimitDecision.builder().status(RateLimitDecision.Status.ALLOWED).remaining(value)
+                        .granted(reply.size() > 2 ? ((Number) reply.get(2)).longValue() : 1).build();
+                case 0 -> RateLimitDecision.builder().status(RateLimitDecision.Status.REJECTED).retryAfterMs(value).build();
+                default -> RateLimitDecision.builder().status(RateLimitDecision.Status.LOCKED).retryAfterMs(value).build();
+            };
 
-            boolean allowed = current <= limit;
-            log.debug("Rate limit check - Key: {}, Current: {}, Limit: {}, Allowed: {}",
-                key, current, limit, allowed);
-
-            return allowed;
+            log.debug("Rate limit check - Key: {}, Limit: {}, Decision: {}", key, limit, decision);
+            return decision;
 
         } catch (Exception e) {
+            // Fail open: an unavailable Redis must not take the API down with it
             log.error("RateLimit :: Rate limit check failed for key: {}", key, e);
-            return true;
+            return RateLimitDecision.allowed(limit);
         }
     }
-
-    @Override
-    public void lock(String identifier, int durationMinutes) {
-        String lockKey = "ratelimit:lock:" + identifier;
-        redisTemplate.opsForValue().set(lockKey, "locked", durationMinutes, TimeUnit.MINUTES);
-    }
-
-    @Override
-    public boolean isLocked(String identifier) {
-        String lockKey = "ratelimit:lock:" + identifier;
-        return Boolean.TRUE.equals(redisTemplate.hasKey(lockKey));
-    }
-}
\ No newline at end of file
+}
@@ -1,32 +1,59 @@
 package com.kieru.backend.service.impl;
 
+import com.kieru.backend.config.AsyncConfig;
 import com.kieru.backend.dto.*;
 import com.kieru.backend.entity.SecretAccessLog;
 import com.kieru.backend.entity.SecretMetadata;
 import com.kieru.backend.entity.SecretPayload;
+import com.kieru.backend.exception.PayloadTooLargeException;
 import com.kieru.backend.repository.AccessLogRepository;
+import com.kieru.backend.repository.PayloadStreamRepository;
 import com.kieru.backend.repository.SecretMetadataRepository;
 import com.kieru.backend.repository.SecretPayloadRepository;
 import com.kieru.backend.repository.UserRepository;
+import com.kieru.backend.service.AccessLogWriter;
 import com.kieru.backend.service.SecretService;
+import com.kieru.backend.store.DailyCounterStore;
+import com.kieru.backend.store.ExpiryIndex;
+import com.kieru.backend.store.PayloadStore;
+import com.kieru.backend.store.PayloadStores;
+import com.kieru.backend.store.ViewCounterStore;
 import com.kieru.backend.util.KieruUtil;
+import com.kieru.backend.util.PayloadCodec;
 import com.kieru.backend.util.RedisKeyUtil;
 import com.kieru.backend.util.SecurityUtil;
+import com.kieru.backend.util.SizeLimitedInputStream;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
 import lombok.extern.slf4j.Slf4j;
@@ -38,12 +65,22 @@ import org.slf4j.MDC;
 public class SecretServiceImpl implements SecretService {
 
     private final SecretPayloadRepository payloadRepo;
+    private final PayloadStreamRepository payloadStreamRepo;
+    private final PayloadStores payloadStores;
     private final SecretMetadataRepository metaRepo;
     private final AccessLogRepository logRepo;
+    private final AccessLogWriter accessLogWriter;
     private final UserRepository userRepo;
     private final StringRedisTemplate redisTemplate;
+    private final ViewCounterStore viewCounterStore;
+    private final ExpiryIndex expiryIndex;
+    private final DailyCounterStore dailyCounters;
+    @Qualifier(AsyncConfig.VIEW_STATE_EXECUTOR)
+    private final Executor viewStateExecutor;
     private final SecurityUtil securityUtil;
+    private final PayloadCodec payloadCodec;
     private final KieruUtil kieruUtil;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
     @Transactional
@@ -55,111 +92,163 @@ public class SecretServiceImpl implements SecretService {
         long startTime = System.currentTimeMillis();
 
         try {
-            String userPlan;
-            String redisOwnerSubscriptionKey = RedisKeyUtil.buildKey(RedisKeyUtil.KeyType.SUBSCRIPTION_PLAN, ownerId != null ? ownerId : "anon");
-
             log.info("Create Secret :: Request to create secret. Name: [{}], Type: [{}]", request.getSecretName(), request.getType());
 
-            if (ownerId == null || ownerId.isBlank()) {
-                userPlan = KieruUtil.SubscriptionPlan.ANONYMOUS.getName();
-                log.debug("Create Secret :: User is anonymous. Using default plan.");
-            }
-            else {
-                String cachedPlan = redisTemplate.opsForValue().get(redisOwnerSubscriptionKey);
-                if (cachedPlan != null) {
-                    userPlan = cachedPlan;
-                    log.debug("Create Secret :: Using cached plan: {}", userPlan);
-                } else {
-                    KieruUtil.SubscriptionPlan planEnum = userRepo.findSubscriptionPlanById(ownerId);
-                    userPlan = planEnum == null ? KieruUtil.SubscriptionPlan.EXPLORER.getName() : planEnum.getName();
-                    redisTemplate.opsForValue().set(redisOwnerSubscriptionKey, userPlan, 5, TimeUnit.MINUTES);
-                    log.debug("Create Secret :: Fetched plan from DB: {}", userPlan);
-                }
+            String userPlan = resolvePlan(ownerId);
+            SecretMetadataResponseDTO limitReached = checkDailyLimit(userPlan, ownerId, ipAddress);
+            if (limitReached != null) {
+                return limitReached;
             }
 
-            String todayString = LocalDate.now().toString();
-            KieruUtil.SubscriptionPlan planEnum = KieruUtil.SubscriptionPlan.getEnumByName(userPlan);
-            int dailyLimit = kieruUtil.getUserDailyCreateLimit(planEnum);
-
-            String limitKey;
-            if (ownerId != null && !ownerId.isBlank()) {
-                limitKey = RedisKeyUtil.buildKey(RedisKeyUtil.KeyType.RATE_LIMIT_DAILY_USER, ownerId, todayString);
-            } else {
-                limitKey = RedisKeyUtil.buildKey(RedisKeyUtil.KeyType.RATE_LIMIT_DAILY_IP, ipAddress, todayString);
-            }
-
-            Long limitUsed = redisTemplate.opsForValue().increment(limitKey);
-            if (limitUsed != null && limitUsed == 1) {
-                redisTemplate.expire(limitKey, 24, TimeUnit.HOURS);
-            }
-
-            if(limitUsed != null && limitUsed > dailyLimit){
-                log.warn("Create Secret :: Daily limit reached. Plan: {}, Limit: {}, Used: {}", userPlan, dailyLimit, limitUsed);
-                return SecretMetadataResponseDTO.builder()
-                        .isSuccess(false).httpStatus(HttpStatus.TOO_MANY_REQUESTS)
-                        .message("Daily Limit Reached").build();
-            }
-
-            boolean isPasswordProtected = request.getPassword() != null && !request.getPassword().isBlank();
-            Instant expiryInstant = Instant.ofEpochMilli(request.getExpiresAt() != null ? request.getExpiresAt() : (System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1)));
-            int maxViews = request.getMaxViews() == null ? 1 : request.getMaxViews();
-
-            String id = securityUtil.generateRandomId(10);
-            log.debug("Create Secret :: Generated secret ID: {}", id);
-
-            SecretMetadata meta = new SecretMetadata();
-            meta.setId(id);
-            meta.setOwnerId(ownerId);
-            meta.setSecretName(request.getSecretName());
-            meta.setMaxViews(maxViews);
-            meta.setShowTimeBomb(request.getShowTimeBomb() != null && request.getShowTimeBomb());
-            meta.setPasswordProtected(isPasswordProtected);
-            meta.setExpiresAt(expiryInstant);
-            meta.setViewsLeft(maxViews);
-            meta.setViewTimeSeconds(request.getViewTimeSeconds() == null ? 120 : request.getViewTimeSeconds());
-            meta.setCreatedAt(Instant.now());
-            meta.setActive(true);
-            metaRepo.saveAndFlush(meta);
-            log.debug("Create Secret :: Metadata saved successfully");
+            SecretMetadata meta = saveMetadata(request, ownerId, securityUtil.generateRandomId(10));
 
             SecretPayload payload = new SecretPayload();
             payload.setMetadata(meta);
-            payload.setEncryptedContent(request.getContent());
+            payload.setEncodedContent(payloadCodec.encode(request.getContent()));
+            // Content is base64 ciphertext (ASCII), so chars == bytes
+            payload.setContentLength((long) request.getContent().length());
             payload.setType(request.getType());
 
-            if(isPasswordProtected){
+            if(meta.isPasswordProtected()){
                 payload.setPasswordHash(securityUtil.hashPassword(request.getPassword()));
             }
 
             payloadRepo.save(payload);
             log.debug("Create Secret :: Payload saved successfully");
 
-            long ttlSeconds = Duration.between(Instant.now(), expiryInstant).getSeconds();
-            if (ttlSeconds > 0) {
-                String redisKey = RedisKeyUtil.buildKey(RedisKeyUtil.KeyType.VIEWS_LEFT) + id;
-                redisTemplate.opsForValue().set(redisKey, String.valueOf(meta.getMaxViews()), ttlSeconds, TimeUnit.SECONDS);
-                log.debug("Create Secret :: Redis cache set with TTL: {} seconds", ttlSeconds);
+            // Seed the view state once committed, so the very first access is already answered by Redis.
+            SecretAccessView viewState = viewStateOf(meta, payload.getPasswordHash(), payload.getType())
+                    .encryptedContent(request.getContent())
+                    .build();
+            afterCommit("Create Secret", meta.getId(), () -> {
+                viewCounterStore.initialize(viewState);
+                log.debug("Create Secret :: View state registered in Redis, expires at: {}", meta.getExpiresAt());
+                expiryIndex.schedule(meta.getId(), meta.getExpiresAt());
+            });
+            countCreated(payload.getContentLength(), payload.getEncodedContent().length);
+
+            long duration = System.currentTimeMillis() - startTime;
+            MDC.put("duration_ms", String.valueOf(duration));
+
+            log.info("Create Secret :: Secret created successfully. ID: {}, PasswordProtected: {}, MaxViews: {}, Time Taken: {}", meta.getId(), meta.isPasswordProtected(), meta.getMaxViews(), KieruUtil.millisToRelativeTime(duration));
+
+            return createdResponse(meta);
+        }
+        finally {
+            MDC.clear();
+        }
+    }
+
+    /**
+     * The body is written before any transaction is opened: straight to the store for external stores, to a
+     * local spool file when it goes into the payload row. The transaction afterwards only inserts the rows (and
+     * copies the spool file), so a slow uploader never holds a DB connection. The daily quota is charged once
+     * the body is written, and refunded when the rows cannot be committed.
+     */
+    @Override
+    public SecretMetadataResponseDTO createSecretStream(CreateSecretRequest request, InputStream body, long declaredLength, String ownerId, String ipAddress) throws IOException {
+
+        MDC.put("userId", ownerId == null || ownerId.isBlank()  ? "anonymous" : ownerId);
+        MDC.put("clientIp", ipAddress);
+
+        long startTime = System.currentTimeMillis();
+        PayloadStore store = payloadStores.forWrites();
+        String id = securityUtil.generateRandomId(10);
+        PayloadStore.StoredBody stored = null;
+        Path spool = null;
+        boolean created = false;
+
+        try {
+            log.info("Create Secret Stream :: Request to create streamed secret. Name: [{}], Type: [{}], Declared Length: {}", request.getSecretName(), request.getType(), declaredLength);
+
+            String userPlan = resolvePlan(ownerId);
+            long sizeLimit = kieruUtil.getUserFileSizeLimit(KieruUtil.SubscriptionPlan.getEnumByName(userPlan));
+
+            // Content-Length is only known up front when the client sends it, the stream enforces the limit either way.
+            if (declaredLength > sizeLimit) {
+                log.warn("Create Secret Stream :: Declared length over plan limit. Plan: {}, Limit: {}, Declared: {}", userPlan, sizeLimit, declaredLength);
+                throw new PayloadTooLargeException("Payload exceeds the plan limit of " + sizeLimit + " bytes");
             }
-            else {
-                log.warn("Create Secret :: TTL is negative or zero: {} seconds, skipping Redis cache", ttlSeconds);
+
+            // Not charged yet, only spares a caller over quota the upload
+            if (isDailyLimitReached(userPlan, ownerId, ipAddress)) {
+                return dailyLimitReached();
             }
 
+            long written;
+            if (store.holds(null)) {
+                spool = Files.createTempFile("kieru-upload-", ".part");
+                try (InputStream limited = new SizeLimitedInputStream(body, sizeLimit)) {
+                    written = Files.copy(limited, spool, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } else {
+                stored = store.write(id, body, sizeLimit);
+                written = stored.getLength();
+            }
+
+            if (written == 0) {
+                log.warn("Create Secret Stream :: Empty body, secret not created");
+                return SecretMetadataResponseDTO.builder()
+                        .isSuccess(false).httpStatus(HttpStatus.BAD_REQUEST)
+                        .message("Content is required").build();
+            }
+
+            SecretMetadataResponseDTO limitReached = checkDailyLimit(userPlan, ownerId, ipAddress);
+            if (limitReached != null) {
+                return limitReached;
+            }
+
+            boolean passwordProtected = request.getPassword() != null && !request.getPassword().isBlank();
+            String passwordHash = passwordProtected ? securityUtil.hashPassword(request.getPassword()) : null;
+
+            Path spooled = spool;
+            PayloadStore.StoredBody external = stored;
+            SecretMetadata meta;
+            try {
+                meta = transactionTemplate.execute(status -> {
+                    SecretMetadata saved = saveMetadata(request, ownerId, id);
+                    payloadStreamRepo.insertRow(id, request.getType(), passwordHash);
+                    if (spooled != null) {
+                        try (InputStream in = Files.newInputStream(spooled)) {
+                            store.write(id, in, sizeLimit);
+                        }
+                        catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                    payloadStreamRepo.updateStorage(id, external == null ? null : external.getStorageKey(), written);
+                    return saved;
+                });
+            }
+            catch (RuntimeException e) {
+                refundDailyLimit(ownerId, ipAddress);
+                throw e;
+            }
+            created = true;
+            log.debug("Create Secret Stream :: Payload streamed to {} store, {} bytes", store.type(), written);
+
+            // Only the view state goes to Redis, the body is always served from storage.
+            SecretAccessView viewState = viewStateOf(meta, passwordHash, request.getType()).build();
+            afterCommit("Create Secret Stream", id, () -> {
+                viewCounterStore.initialize(viewState);
+                expiryIndex.schedule(id, meta.getExpiresAt());
+            });
+            countCreated(written, written);
+
             long duration = System.currentTimeMillis() - startTime;
             MDC.put("duration_ms", String.valueOf(duration));
 
-            log.info("Create Secret :: Secret created successfully. ID: {}, PasswordProtected: {}, MaxViews: {}, Time Taken: {}", id, isPasswordProtected, maxViews, KieruUtil.millisToRelativeTime(duration));
+            log.info("Create Secret Stream :: Secret created successfully. ID: {}, Bytes: {}, PasswordProtected: {}, MaxViews: {}, Time Taken: {}", meta.getId(), written, meta.isPasswordProtected(), meta.getMaxViews(), KieruUtil.millisToRelativeTime(duration));
 
-            return SecretMetadataResponseDTO.builder()
-                    .secretId(meta.getId())
-                    .secretName(meta.getSecretName())
-                    .expiresAt(meta.getExpiresAt())
-                    .maxViews(meta.getMaxViews())
-                    .isSuccess(true)
-                    .viewTimeInSeconds(meta.getViewTimeSeconds())
-                    .httpStatus(HttpStatus.CREATED)
-                    .build();
+            return createdResponse(meta);
         }
         finally {
+            if (!created && stored != null && stored.getStorageKey() != null) {
+                store.delete(id, stored.getStorageKey());
+            }
+            if (spool != null) {
+                Files.deleteIfExists(spool);
+            }
             MDC.clear();
         }
     }
@@ -210,152 +299,65 @@ public class SecretServiceImpl implements SecretService {
         try {
             log.info("Get Secret :: Attempting to access secret ID: {}", id);
 
-            Optional<SecretMetadata> optionalMeta = metaRepo.findById(id);
-
-            if (optionalMeta.isEmpty()) {
-                log.warn("Get Secret :: Secret not found: {}", id);
-                return SecretResponseDTO.builder().isSuccess(false).message("Secret Not Found.").httpStatus(HttpStatus.NOT_FOUND).build();
+            GrantedView granted = grantView(id, password, accessedAt, ipAddress, userAgent, true);
+            if (granted.getRejection() != null) {
+                return granted.getRejection();
             }
 
-            SecretMetadata meta = optionalMeta.get();
+            ViewConsumptionResult result = granted.getResult();
+            SecretAccessView view = granted.getView();
+
+            // Content comes from the Redis payload tier when cached, otherwise from the DB.
+            String content = result.getContent() != null ? result.getContent() : (view != null ? view.getEncryptedContent() : null);
+            if (content == null) {
+                Optional<StoredContent> optionalContent = view != null
+                        ? Optional.of(new StoredContent(null, view.getEncodedContent()))
+                        : payloadRepo.findStoredContentById(id);
+                content = optionalContent.map(stored -> payloadCodec.decode(stored.getEncryptedContent(), stored.getEncodedContent())).orElse(null);
+                if (content == null) {
+                    content = readExternalContent(id, result.getViewsLeft());
+                }
+                if (content == null) {
+                    return missingPayload(id, accessedAt, ipAddress, userAgent);
+                }
 
-            if (meta.isDeleted()) {
-                String message = "This Secret was deleted";
-                CreateAccessLog accessLog = CreateAccessLog.builder().secretId(id).id(securityUtil.generateRandomId(10)).accessedAt(Instant.now()).wasSuccessful(false)
-                        .failureReason(message).accessedAt(accessedAt).userAgent(userAgent).ipAddress(ipAddress).build();
-                CompletableFuture.runAsync(() -> saveAccessLog(accessLog));
-                log.warn("Get Secret :: {}: {}", message, id);
-                return SecretResponseDTO.builder().isSuccess(false).isDeleted(true).message(message).httpStatus(HttpStatus.GONE).build();
+                if (result.getViewsLeft() > 0) {
+                    viewCounterStore.cachePayload(id, content);
+                }
             }
 
-            if (meta.getExpiresAt().isBefore(accessedAt)) {
-                String message = "Expired by Time.";
-                meta.setExpiresAt(Instant.now());
-                metaRepo.save(meta);
+            completeView(id, result.getViewsLeft(), accessedAt, ipAddress, userAgent);
 
-                CreateAccessLog accessLog = CreateAccessLog.builder().secretId(id).id(securityUtil.generateRandomId(10)).accessedAt(Instant.now()).wasSuccessful(false)
-                        .failureReason(message).accessedAt(accessedAt).userAgent(userAgent).ipAddress(ipAddress).build();
-                CompletableFuture.runAsync(() -> saveAccessLog(accessLog));
-                log.warn("Get Secret :: {}: {}", message, id);
-                return SecretResponseDTO.builder().isSuccess(false).isExpired(true).expiresAt(meta.getExpiresAt()).message(message).httpStatus(HttpStatus.GONE).build();
-            }
+            return grantedResponse(result).content(content).build();
+        }
+        finally {
+            MDC.clear();
+        }
+    }
 
-            if (!meta.isActive()) {
-                String message = "Secret is no longer active.";
-                CreateAccessLog accessLog = CreateAccessLog.builder().secretId(id).id(securityUtil.generateRandomId(10)).accessedAt(Instant.now()).wasSuccessful(false)
-                        .failureReason(message).accessedAt(accessedAt).userAgent(userAgent).ipAddress(ipAddress).build();
-                CompletableFuture.runAsync(() -> saveAccessLog(accessLog));
-                log.warn("{}: {}", message, id);
-                return SecretResponseDTO.builder().isSuccess(false).isActive(meta.isActive()).viewsLeft(meta.getViewsLeft()).message(message).httpStatus(HttpStatus.GONE).build();
-            }
+    @Override
+    public SecretStreamResponse getSecretContentStream(String id, String password, Instant accessedAt, String ipAddress, String userAgent) {
+        MDC.put("secretId", id);
+        MDC.put("ipAddress", ipAddress);
+        MDC.put("userAgent", userAgent);
 
-            Optional<SecretPayload> optionalPayload = payloadRepo.findById(id);
-            if (optionalPayload.isEmpty()) {
-                String message = "Data integrity error. Secret present in Meta table but missing in Payload table.";
-                CreateAccessLog accessLog = CreateAccessLog.builder().secretId(id).id(securityUtil.generateRandomId(10)).accessedAt(Instant.now()).wasSuccessful(false)
-                        .failureReason(message).accessedAt(accessedAt).userAgent(userAgent).ipAddress(ipAddress).build();
-                CompletableFuture.runAsync(() -> saveAccessLog(accessLog));
-                log.error("{}: {}", message, id);
-                return SecretResponseDTO.builder().isSuccess(false).message(message).httpStatus(HttpStatus.INTERNAL_SERVER_ERROR).build();
-            }
-            SecretPayload payload = optionalPayload.get();
-            String storedHashPassword = payload.getPasswordHash();
+        try {
+            log.info("Get Secret Stream :: Attempting to access secret ID: {}", id);
 
-            if (storedHashPassword != null && !storedHashPassword.isBlank() && !securityUtil.verifyPassword(password, storedHashPassword)) {
-                String message = "Invalid Password";
-                CreateAccessLog accessLog = CreateAccessLog.builder().secretId(id).id(securityUtil.generateRandomId(10)).accessedAt(Instant.now()).wasSuccessful(false)
-                        .failureReason(message).accessedAt(accessedAt).userAgent(userAgent).ipAddress(ipAddress).build();
-                CompletableFuture.runAsync(() -> saveAccessLog(accessLog));
-                log.warn("Get Secret :: {}: {}", message, id);
-                return SecretResponseDTO.builder().isSuccess(false).isValidationPassed(false).message(message).httpStatus(HttpStatus.FORBIDDEN).build();
+            GrantedView granted = grantView(id, password, accessedAt, ipAddress, userAgent, false);
+            if (granted.getRejection() != null) {
+                return SecretStreamResponse.builder().response(granted.getRejection()).build();
             }
 
-            String redisKey = RedisKeyUtil.buildKey(RedisKeyUtil.KeyType.VIEWS_LEFT, id);
-            Long viewsLeft = redisTemplate.opsForValue().decrement(redisKey);
-            log.debug("Get Secret :: Redis views left after decrement: {}", viewsLeft);
-
-            if (viewsLeft == null || viewsLeft < 0) {
-                log.debug("Get Secret :: Redis key not found or invalid, falling back to database");
-
-                Optional<SecretMetadata> optionalNewMeta = metaRepo.findById(id);
-                if (optionalNewMeta.isEmpty()) {
-                    String message = "Secret Not Found!!!";
-                    CreateAccessLog accessLog = CreateAccessLog.builder().secretId(id).id(securityUtil.generateRandomId(10)).accessedAt(Instant.now()).wasSuccessful(false)
-                            .failureReason(message).accessedAt(accessedAt).userAgent(userAgent).ipAddress(ipAddress).build();
-                    CompletableFuture.runAsync(() -> saveAccessLog(accessLog));
-                    log.error("Get Secret :: {}: {}", message, id);
-                    return SecretResponseDTO.builder().isSuccess(false).message(message).httpStatus(HttpStatus.NOT_FOUND).build();
-                }
-                meta = optionalNewMeta.get();
-
-
-                int dbViews = meta.getViewsLeft();
-                if(dbViews <= 0) {
-                    String message = "Max views reached";
-                    CreateAccessLog accessLog = CreateAccessLog.builder().secretId(id).id(securityUtil.generateRandomId(10)).accessedAt(Instant.now()).wasSuccessful(false)
-                            .failureReason(message).accessedAt(accessedAt).userAgent(userAgent).ipAddress(ipAddress).build();
-                    SecretMetadata finalMeta1 = meta;
-                    CompletableFuture.runAsync(() -> {
-                        finalMeta1.setActive(false);
-                        metaRepo.save(finalMeta1);
-                        saveAccessLog(accessLog);
-                    });
-                    log.warn("Get Secret :: {}: {}", message, id);
-                    return SecretResponseDTO.builder().isSuccess(false).message(message).httpStatus(HttpStatus.GONE).build();
-                }
-
-                viewsLeft = (long) (dbViews - 1);
-                long ttl = meta.getExpiresAt().getEpochSecond() - (System.currentTimeMillis() / 1000);
-
-                if (ttl > 0) {
-                    redisTemplate.opsForValue().set(redisKey, String.valueOf(viewsLeft), ttl, TimeUnit.SECONDS);
-                    log.debug("Get Secret :: Repopulated Redis cache with views: {}, TTL: {}", viewsLeft, ttl);
-                }
-                else {
-                    log.warn("Get Secret :: TTL is negative or zero ({}), secret likely expired. Not caching.", ttl);
-                    meta.setActive(false);
-                    metaRepo.save(meta);
-                    return SecretResponseDTO.builder()
-                            .isSuccess(false)
-                            .isExpired(true)
-                            .expiresAt(meta.getExpiresAt())
-                            .httpStatus(HttpStatus.GONE)
-                            .message("Secret expired")
-                            .build();
-                }
+            // The Redis payload tier is skipped: it holds the JSON (base64) form, this endpoint serves the stored bytes.
+            SecretStreamResponse.SecretStreamResponseBuilder stream = openPayloadStream(id, granted.getResult().getViewsLeft());
+            if (stream == null) {
+                return SecretStreamResponse.builder().response(missingPayload(id, accessedAt, ipAddress, userAgent)).build();
             }
 
-            int finalViews = viewsLeft.intValue();
-            SecretMetadata finalMeta = meta;
-            CompletableFuture.runAsync(() -> {
-                finalMeta.setViewsLeft(finalViews);
-                metaRepo.save(finalMeta);
-                log.debug("Get Secret :: Updated views left in DB: {}", finalViews);
-                if (finalViews == 0) {
-                    finalMeta.setActive(false);
-                    metaRepo.save(finalMeta);
-                    log.info("Get Secret :: Secret marked as inactive. ID: {}", id);
-                }
-            });
+            completeView(id, granted.getResult().getViewsLeft(), accessedAt, ipAddress, userAgent);
 
-            CreateAccessLog accessLog = CreateAccessLog.builder().secretId(id).id(securityUtil.generateRandomId(10)).secretId(meta.getId()).accessedAt(Instant.now()).wasSuccessful(true)
-                    .accessedAt(accessedAt).userAgent(userAgent).ipAddress(ipAddress).build();
-            CompletableFuture.runAsync(() -> saveAccessLog(accessLog));
-
-            long duration = System.currentTimeMillis() - accessedAt.toEpochMilli();
-            MDC.put("duration_ms", String.valueOf(duration));
-            log.info("Get Secret :: Successfully accessed secret. Secret Id: {}, Views Left: {}, Time Taken: {}", id, finalViews, KieruUtil.millisToRelativeTime(duration));
-
-            return SecretResponseDTO.builder()
-                    .isSuccess(true)
-                    .type(String.valueOf(payload.getType()))
-                    .content(payload.getEncryptedContent())
-                    .viewsLeft(finalViews)
-                    .viewTimeSeconds(meta.getViewTimeSeconds())
-                    .showTimeBomb(meta.isShowTimeBomb())
-                    .expiresAt(meta.getExpiresAt())
-                    .httpStatus(HttpStatus.OK)
-                    .build();
+            return stream.response(grantedResponse(granted.getResult()).build()).build();
         }
         finally {
             MDC.clear();
@@ -401,7 +403,10 @@ public class SecretServiceImpl implements SecretService {
         long startTime = System.currentTimeMillis();
         log.info("Get Logs :: Fetching logs for secret: {}, page: {}, size: {}", secretId, pageable.getPageNumber(), pageable.getPageSize());
 
-        List<SecretAccessLog> accessLogs = logRepo.findBySecret_IdOrderByAccessedAtDesc(secretId, pageable);
+        // Nothing is logged before the secret exists: the lower bound lets Postgres prune older partitions
+        List<SecretAccessLog> accessLogs = metaRepo.findCreatedAtById(secretId)
+                .map(createdAt -> logRepo.findBySecret_IdAndAccessedAtGreaterThanEqualOrderByAccessedAtDesc(secretId, createdAt, pageable))
+                .orElse(List.of());
 
         long duration = System.currentTimeMillis() - startTime;
         MDC.put("duration_ms", String.valueOf(duration));
@@ -431,8 +436,13 @@ public class SecretServiceImpl implements SecretService {
         meta.setActive(false);
         metaRepo.save(meta);
 
-        String redisKey = RedisKeyUtil.buildKey(RedisKeyUtil.KeyType.VIEWS_LEFT, secretId);
-        redisTemplate.delete(redisKey);
+        // Tombstone rather than DEL: an access that read the row before this commit cannot re-seed it as active
+        // The body goes only once the row is committed: a failed commit must not leave an active secret without one
+        afterCommit("Delete Secret", secretId, () -> {
+            viewCounterStore.markDeleted(secretId, meta.getExpiresAt());
+            expiryIndex.remove(secretId);
+        });
+        afterCommit("Delete Secret", secretId, () -> payloadStores.release(List.of(secretId)));
 
         long duration = System.currentTimeMillis() - startTime;
         MDC.put("duration_ms", String.valueOf(duration));
@@ -472,6 +482,9 @@ public class SecretServiceImpl implements SecretService {
             payload.setPasswordHash(hashedPassword);
             payloadRepo.save(payload);
 
+            // Pin the new hash once committed, a re-seed from the old row cannot bring the old one back
+            afterCommit("Update Password", secretId, () -> viewCounterStore.updatePassword(secretId, hashedPassword, metadata.getExpiresAt()));
+
             long duration = System.currentTimeMillis() - startTime;
             MDC.put("duration_ms", String.valueOf(duration));
             log.info("Update Password :: Password updated successfully for secret ID: {}, Time taken: {}", secretId, KieruUtil.millisToRelativeTime(duration));
@@ -492,34 +505,374 @@ public class SecretServiceImpl implements SecretService {
         }
     }
 
-    private void saveAccessLog(CreateAccessLog accessLog) {
-        long startTime = System.currentTimeMillis();
+    private String resolvePlan(String ownerId) {
+        if (ownerId == null || ownerId.isBlank()) {
+            log.debug("Create Secret :: User is anonymous. Using default plan.");
+            return KieruUtil.SubscriptionPlan.ANONYMOUS.getName();
+        }
+
+        String redisOwnerSubscriptionKey = RedisKeyUtil.buildKey(RedisKeyUtil.KeyType.SUBSCRIPTION_PLAN, ownerId);
+        String cachedPlan = redisTemplate.opsForValue().get(redisOwnerSubscriptionKey);
+        if (cachedPlan != null) {
+            log.debug("Create Secret :: Using cached plan: {}", cachedPlan);
+            return cachedPlan;
+        }
+
+        KieruUtil.SubscriptionPlan planEnum = userRepo.findSubscriptionPlanById(ownerId);
+        String userPlan = planEnum == null ? KieruUtil.SubscriptionPlan.EXPLORER.getName() : planEnum.getName();
+        redisTemplate.opsForValue().set(redisOwnerSubscriptionKey, userPlan, 5, TimeUnit.MINUTES);
+        log.debug("Create Secret :: Fetched plan from DB: {}", userPlan);
+        return userPlan;
+    }
+
+    /**
+     * Counts this create against the daily quota. Returns the rejection when the quota is used up, null otherwise.
+     */
+    private SecretMetadataResponseDTO checkDailyLimit(String userPlan, String ownerId, String ipAddress) {
+        int dailyLimit = kieruUtil.getUserDailyCreateLimit(KieruUtil.SubscriptionPlan.getEnumByName(userPlan));
+        String limitKey = dailyLimitKey(ownerId, ipAddress);
+
+        Long limitUsed = redisTemplate.opsForValue().increment(limitKey);
+        if (limitUsed != null && limitUsed == 1) {
+            redisTemplate.expire(limitKey, 24, TimeUnit.HOURS);
+        }
+
+        if(limitUsed != null && limitUsed > dailyLimit){
+            log.warn("Create Secret :: Daily limit reached. Plan: {}, Limit: {}, Used: {}", userPlan, dailyLimit, limitUsed);
+            return dailyLimitReached();
+        }
+        return null;
+    }
+
+    /**
+     * Whether the quota is already used up, without counting this create.
+     */
+    private boolean isDailyLimitReached(String userPlan, String ownerId, String ipAddress) {
+        int dailyLimit = kieruUtil.getUserDailyCreateLimit(KieruUtil.SubscriptionPlan.getEnumByName(userPlan));
+        String used = redisTemplate.opsForValue().get(dailyLimitKey(ownerId, ipAddress));
+        return used != null && Long.parseLong(used) >= dailyLimit;
+    }
+
+    /**
+     * Gives back a create charged by checkDailyLimit() that did not go through.
+     */
+    private void refundDailyLimit(String ownerId, String ipAddress) {
         try {
-            log.debug("Save Access Log :: Saving access log for secret: {}", accessLog.getSecretId());
+            redisTemplate.opsForValue().decrement(dailyLimitKey(ownerId, ipAddress));
+        }
+        catch (Exception e) {
+            log.warn("Create Secret :: Failed to refund daily limit", e);
+        }
+    }
 
-            SecretAccessLog log = new SecretAccessLog();
+    private static String dailyLimitKey(String ownerId, String ipAddress) {
+        String todayString = LocalDate.now().toString();
+        if (ownerId != null && !ownerId.isBlank()) {
+            return RedisKeyUtil.buildKey(RedisKeyUtil.KeyType.RATE_LIMIT_DAILY_USER, ownerId, todayString);
+        }
+        return RedisKeyUtil.buildKey(RedisKeyUtil.KeyType.RATE_LIMIT_DAILY_IP, ipAddress, todayString);
+    }
 
-            SecretMetadata ref = metaRepo.findById(accessLog.getSecretId()).orElse(null);
+    private static SecretMetadataResponseDTO dailyLimitReached() {
+        return SecretMetadataResponseDTO.builder()
+                .isSuccess(false).httpStatus(HttpStatus.TOO_MANY_REQUESTS)
+                .message("Daily Limit Reached").build();
+    }
 
-            if (ref == null) {
-                SecretServiceImpl.log.warn("Save Access Log :: Secret not found, skipping log save: {}", accessLog.getSecretId());
-                return;
+    private SecretMetadata saveMetadata(CreateSecretRequest request, String ownerId, String id) {
+        boolean isPasswordProtected = request.getPassword() != null && !request.getPassword().isBlank();
+        Instant expiryInstant = Instant.ofEpochMilli(request.getExpiresAt() != null ? request.getExpiresAt() : (System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1)));
+        int maxViews = request.getMaxViews() == null ? 1 : request.getMaxViews();
+
+        log.debug("Create Secret :: Generated secret ID: {}", id);
+
+        SecretMetadata meta = new SecretMetadata();
+        meta.setId(id);
+        meta.setOwnerId(ownerId);
+        meta.setSecretName(request.getSecretName());
+        meta.setMaxViews(maxViews);
+        meta.setShowTimeBomb(request.getShowTimeBomb() != null && request.getShowTimeBomb());
+        meta.setPasswordProtected(isPasswordProtected);
+        meta.setExpiresAt(expiryInstant);
+        meta.setViewsLeft(maxViews);
+        meta.setViewTimeSeconds(request.getViewTimeSeconds() == null ? 120 : request.getViewTimeSeconds());
+        meta.setCreatedAt(Instant.now());
+        meta.setActive(true);
+        metaRepo.saveAndFlush(meta);
+        log.debug("Create Secret :: Metadata saved successfully");
+        return meta;
+    }
+
+    private static SecretAccessView.SecretAccessViewBuilder viewStateOf(SecretMetadata meta, String passwordHash, KieruUtil.SecretType type) {
+        return SecretAccessView.builder()
+                .id(meta.getId())
+                .viewsLeft(meta.getViewsLeft())
+                .expiresAt(meta.getExpiresAt())
+                .active(meta.isActive())
+                .deleted(meta.isDeleted())
+                .viewTimeSeconds(meta.getViewTimeSeconds())
+                .showTimeBomb(meta.isShowTimeBomb())
+                .passwordHash(passwordHash)
+                .type(type);
+    }
+
+    /**
+     * Runs the Redis (or body storage) side of a write once the row change is committed, so a rollback leaves
+     * them untouched and an access that read the row before the commit cannot overwrite the result. A failure
+     * here is not fatal: Redis falls back to the DB state on the next miss, and the expiry sweep and purge job
+     * still cover the secret and its body.
+     */
+    private static void afterCommit(String step, String secretId, Runnable action) {
+        Runnable guarded = () -> {
+            try {
+                action.run();
+            }
+            catch (RuntimeException e) {
+                log.warn("{} :: Post-commit step failed for secret {}", step, secretId, e);
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            guarded.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                guarded.run();
             }
+        });
+    }
 
-            log.setSecret(ref);
-            log.setAccessedAt(Instant.now());
-            log.setIpAddress(accessLog.getIpAddress());
-            log.setUserAgent(accessLog.getUserAgent());
-            log.setWasSuccessful(accessLog.getWasSuccessful());
-            log.setFailureReason(accessLog.getFailureReason());
+    private void countCreated(long logicalBytes, long physicalBytes) {
+        dailyCounters.increment(DailyCounterStore.Counter.CREATED, 1);
+        dailyCounters.increment(DailyCounterStore.Counter.LOGICAL_BYTES, logicalBytes);
+        dailyCounters.increment(DailyCounterStore.Counter.PHYSICAL_BYTES, physicalBytes);
+    }
 
-            logRepo.save(log);
-            long duration = System.currentTimeMillis() - startTime;
-            MDC.put("duration_ms", String.valueOf(duration));
-            SecretServiceImpl.log.debug("Save Access Log :: Access log saved successfully for secret: {}", accessLog.getSecretId());
+    private static SecretMetadataResponseDTO createdResponse(SecretMetadata meta) {
+        return SecretMetadataResponseDTO.builder()
+                .secretId(meta.getId())
+                .secretName(meta.getSecretName())
+                .expiresAt(meta.getExpiresAt())
+                .maxViews(meta.getMaxViews())
+                .isSuccess(true)
+                .viewTimeInSeconds(meta.getViewTimeSeconds())
+                .httpStatus(HttpStatus.CREATED)
+                .build();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class GrantedView {
+        private final ViewConsumptionResult result;   // CONSUMED, when rejection is null
+        private final SecretAccessView view;          // Only set when the state was loaded from the DB
+        private final SecretResponseDTO rejection;
+    }
+
+    /**
+     * Shared by the JSON and streamed access paths: consumes one view (Redis first, DB + seed on a miss)
+     * or returns the rejection. withContent loads the payload columns on a miss, the streamed path reads them later in slices.
+     */
+    private GrantedView grantView(String id, String password, Instant accessedAt, String ipAddress, String userAgent, boolean withContent) {
+        // Hot path: one Redis call checks deleted/expiry/active/password/views and decrements atomically.
+        ViewConsumptionResult result = viewCounterStore.consume(id, accessedAt, null);
+
+        if (result.getStatus() == ViewConsumptionResult.Status.PASSWORD_REQUIRED
+                && securityUtil.verifyPassword(password, result.getPasswordHash())) {
+            result = viewCounterStore.consume(id, accessedAt, result.getPasswordHash());
         }
-        catch (Exception e) {
-            SecretServiceImpl.log.error("Save Access Log :: Failed to save access log for secret: {}", accessLog.getSecretId(), e);
+
+        SecretAccessView view = null;
+
+        // Cold path: Redis has no state (evicted / never registered). Load metadata + payload in one query and seed.
+        if (result.getStatus() == ViewConsumptionResult.Status.MISS) {
+            log.debug("Get Secret :: No view state in Redis, falling back to database");
+
+            Optional<SecretAccessView> optionalView = withContent ? payloadRepo.findAccessViewById(id) : payloadRepo.findAccessStateById(id);
+            if (optionalView.isEmpty()) {
+                log.warn("Get Secret :: Secret not found: {}", id);
+                return rejected(SecretResponseDTO.builder().isSuccess(false).message("Secret Not Found.").httpStatus(HttpStatus.NOT_FOUND).build());
+            }
+
+            view = optionalView.get();
+            // A dead secret may have had its payload purged already (SecretPurgeJob), the seed below still answers with why
+            if (!view.hasPayload() && isViewable(view, accessedAt)) {
+                return rejected(missingPayload(id, accessedAt, ipAddress, userAgent));
+            }
+
+            // Uncompressed payloads are cheap to read and go to the payload tier with the seed,
+            // compressed ones are decoded only once a view is actually granted.
+            if (withContent && view.getEncryptedContent() == null && !payloadCodec.isCompressed(view.getEncodedContent())) {
+                view.setEncryptedContent(payloadCodec.decode(view.getEncodedContent()));
+            }
+
+            String storedHashPassword = view.getPasswordHash();
+            String verifiedHash = securityUtil.verifyPassword(password, storedHashPassword) ? storedHashPassword : null;
+
+            result = viewCounterStore.seedAndConsume(view, accessedAt, verifiedHash);
+        }
+
+        log.debug("Get Secret :: View consumption result: {}, views left: {}", result.getStatus(), result.getViewsLeft());
+
+        switch (result.getStatus()) {
+            case DELETED -> {
+                String message = "This Secret was deleted";
+                recordAccess(id, accessedAt, ipAddress, userAgent, message);
+                log.warn("Get Secret :: {}: {}", message, id);
+                return rejected(SecretResponseDTO.builder().isSuccess(false).isDeleted(true).message(message).httpStatus(HttpStatus.GONE).build());
+            }
+            case EXPIRED -> {
+                String message = "Expired by Time.";
+                CompletableFuture.runAsync(() -> metaRepo.disableSecret(id), viewStateExecutor);
+                recordAccess(id, accessedAt, ipAddress, userAgent, message);
+                log.warn("Get Secret :: {}: {}", message, id);
+                return rejected(SecretResponseDTO.builder().isSuccess(false).isExpired(true).expiresAt(result.getExpiresAt()).message(message).httpStatus(HttpStatus.GONE).build());
+            }
+            case INACTIVE -> {
+                String message = "Secret is no longer active.";
+                recordAccess(id, accessedAt, ipAddress, userAgent, message);
+                log.warn("{}: {}", message, id);
+                return rejected(SecretResponseDTO.builder().isSuccess(false).isActive(false).viewsLeft(result.getViewsLeft()).message(message).httpStatus(HttpStatus.GONE).build());
+            }
+            case PASSWORD_REQUIRED -> {
+                String message = "Invalid Password";
+                recordAccess(id, accessedAt, ipAddress, userAgent, message);
+                log.warn("Get Secret :: {}: {}", message, id);
+                return rejected(SecretResponseDTO.builder().isSuccess(false).isValidationPassed(false).message(message).httpStatus(HttpStatus.FORBIDDEN).build());
+            }
+            case EXHAUSTED -> {
+                String message = "Max views reached";
+                CompletableFuture.runAsync(() -> metaRepo.disableSecret(id), viewStateExecutor);
+                recordAccess(id, accessedAt, ipAddress, userAgent, message);
+                log.warn("Get Secret :: {}: {}", message, id);
+                return rejected(SecretResponseDTO.builder().isSuccess(false).message(message).httpStatus(HttpStatus.GONE).build());
+            }
+            default -> {
+                // CONSUMED
+            }
         }
+
+        return new GrantedView(result, view, null);
+    }
+
+    private static boolean isViewable(SecretAccessView view, Instant accessedAt) {
+        return view.isActive() && !view.isDeleted() && view.getViewsLeft() > 0 && view.getExpiresAt().isAfter(accessedAt);
+    }
+
+    private static GrantedView rejected(SecretResponseDTO rejection) {
+        return new GrantedView(null, null, rejection);
+    }
+
+    private SecretResponseDTO missingPayload(String id, Instant accessedAt, String ipAddress, String userAgent) {
+        String message = "Data integrity error. Secret present in Meta table but missing in Payload table.";
+        recordAccess(id, accessedAt, ipAddress, userAgent, message);
+        log.error("{}: {}", message, id);
+        return SecretResponseDTO.builder().isSuccess(false).message(message).httpStatus(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    }
+
+    /**
+     * Raw ciphertext (uploaded through the stream endpoint) is copied from its PayloadStore, so memory stays constant,
+     * and an external body is unlinked once the last view has been served.
+     * Compressed or text payloads came through the JSON endpoint, are bounded by its request size and are decoded in memory.
+     * Null when there is no payload to serve.
+     */
+    private SecretStreamResponse.SecretStreamResponseBuilder openPayloadStream(String id, int viewsLeft) {
+        Optional<PayloadStreamRepository.StreamInfo> info = payloadStreamRepo.findStreamInfo(id);
+        if (info.isPresent() && (info.get().isRawBinary() || info.get().isExternal())) {
+            String storageKey = info.get().getStorageKey();
+            long bodyLength = info.get().getBodyLength();
+            PayloadStore store = payloadStores.forKey(storageKey);
+            return SecretStreamResponse.builder()
+                    .contentType(MediaType.APPLICATION_OCTET_STREAM_VALUE)
+                    .contentLength(bodyLength)
+                    .body(out -> {
+                        try {
+                            store.copyTo(id, storageKey, bodyLength, out);
+                        }
+                        finally {
+                            if (viewsLeft == 0) {
+                                store.delete(id, storageKey);
+                            }
+                        }
+                    });
+        }
+
+        StoredContent stored = payloadRepo.findStoredContentById(id).orElse(null);
+        if (stored == null || (stored.getEncryptedContent() == null && stored.getEncodedContent() == null)) {
+            return null;
+        }
+
+        boolean binary = info.isPresent() && info.get().isBinary() && stored.getEncryptedContent() == null;
+        byte[] bytes = stored.getEncryptedContent() != null
+                ? stored.getEncryptedContent().getBytes(StandardCharsets.UTF_8)
+                : payloadCodec.decodeBody(stored.getEncodedContent());
+
+        return SecretStreamResponse.builder()
+                .contentType(binary ? MediaType.APPLICATION_OCTET_STREAM_VALUE : MediaType.TEXT_PLAIN_VALUE + ";charset=UTF-8")
+                .contentLength(bytes.length)
+                .body(out -> out.write(bytes));
+    }
+
+    /**
+     * JSON access to a body held by an external PayloadStore: read whole and base64 encoded like any other binary payload.
+     * Null when the secret has no external body.
+     */
+    private String readExternalContent(String id, int viewsLeft) {
+        PayloadStreamRepository.StreamInfo info = payloadStreamRepo.findStreamInfo(id).filter(PayloadStreamRepository.StreamInfo::isExternal).orElse(null);
+        if (info == null) {
+            return null;
+        }
+
+        PayloadStore store = payloadStores.forKey(info.getStorageKey());
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream((int) info.getBodyLength());
+        try {
+            store.copyTo(id, info.getStorageKey(), info.getBodyLength(), buffer);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Failed to read payload of secret " + id, e);
+        }
+
+        if (viewsLeft == 0) {
+            store.delete(id, info.getStorageKey());
+        }
+        return Base64.getEncoder().encodeToString(buffer.toByteArray());
+    }
+
+    /**
+     * Redis is the source of truth for the counter, the DB copy and the access log are persisted in the background.
+     */
+    private void completeView(String id, int viewsLeft, Instant accessedAt, String ipAddress, String userAgent) {
+        CompletableFuture.runAsync(() -> {
+            metaRepo.updateViewsLeft(id, viewsLeft, viewsLeft > 0);
+            log.debug("Get Secret :: Updated views left in DB: {}", viewsLeft);
+            if (viewsLeft == 0) {
+                log.info("Get Secret :: Secret marked as inactive. ID: {}", id);
+            }
+        }, viewStateExecutor);
+
+        recordAccess(id, accessedAt, ipAddress, userAgent, null);
+
+        long duration = System.currentTimeMillis() - accessedAt.toEpochMilli();
+        MDC.put("duration_ms", String.valueOf(duration));
+        log.info("Get Secret :: Successfully accessed secret. Secret Id: {}, Views Left: {}, Time Taken: {}", id, viewsLeft, KieruUtil.millisToRelativeTime(duration));
+    }
+
+    private static SecretResponseDTO.SecretResponseDTOBuilder grantedResponse(ViewConsumptionResult result) {
+        return SecretResponseDTO.builder()
+                .isSuccess(true)
+                .type(result.getType())
+                .viewsLeft(result.getViewsLeft())
+                .viewTimeSeconds(result.getViewTimeSeconds())
+                .showTimeBomb(result.getShowTimeBomb())
+                .expiresAt(result.getExpiresAt())
+                .httpStatus(HttpStatus.OK);
+    }
+
+    private void recordAccess(String secretId, Instant accessedAt, String ipAddress, String userAgent, String failureReason) {
+        CreateAccessLog accessLog = CreateAccessLog.builder().id(securityUtil.generateRandomId(10)).secretId(secretId)
+                .accessedAt(accessedAt).wasSuccessful(failureReason == null).failureReason(failureReason)
+                .userAgent(userAgent).ipAddress(ipAddress).build();
+        accessLogWriter.submit(accessLog);
+        dailyCounters.recordView(failureReason == null, ipAddress);
     }
 }
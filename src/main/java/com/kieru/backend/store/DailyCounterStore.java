@@ -0,0 +1,268 @@
+package com.kieru.backend.store;
+
+import com.kieru.backend.dto.DayCounters;
+import com.kieru.backend.util.DailyCounterConfig;
+import com.kieru.backend.util.RedisKeyUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Today's analytics, counted as they happen instead of recomputed from the tables at night.
+ *
+ * Key layout (one set per UTC day):
+ *   stats:day:{date}         -> hash of counters (HINCRBY) plus "since" = when counting started
+ *                               and "gaps" = a flush of that day failed (counts may be off)
+ *   stats:day:{date}:users   -> HyperLogLog of active user ids
+ *   stats:day:{date}:viewers -> HyperLogLog of viewer IPs
+ *
+ * Callers only touch in-memory adders and sets, flush() pushes them to Redis in one pipeline per interval,
+ * so a node loses at most one interval of counts when it dies.
+ */
+@Component
+@Slf4j
+public class DailyCounterStore implements DisposableBean {
+
+    public enum Counter {
+        CREATED("created"),
+        VIEWED("viewed"),
+        FAILED_VIEWS("failed_views"),
+        NEW_USERS("new_users"),
+        LOGICAL_BYTES("logical_bytes"),
+        PHYSICAL_BYTES("physical_bytes");
+
+        private final String field;
+
+        Counter(String field) {
+            this.field = field;
+        }
+    }
+
+    private static final String SINCE_FIELD = "since";
+    private static final String GAPS_FIELD = "gaps";
+    private static final String USERS_SUFFIX = "users";
+    private static final String VIEWERS_SUFFIX = "viewers";
+
+    private static class Bucket {
+        final Map<Counter, LongAdder> counters = new EnumMap<>(Counter.class);
+        final Set<String> users = ConcurrentHashMap.newKeySet();
+        final Set<String> viewers = ConcurrentHashMap.newKeySet();
+
+        Bucket() {
+            for (Counter counter : Counter.values()) {
+                counters.put(counter, new LongAdder());
+            }
+        }
+    }
+
+    private final StringRedisTemplate redisTemplate;
+    private final DailyCounterConfig config;
+    private final Map<LocalDate, Bucket> buckets = new ConcurrentHashMap<>();
+    // Days whose flush failed, marked in Redis by the next flush that gets through
+    private final Set<LocalDate> gaps = ConcurrentHashMap.newKeySet();
+
+    public DailyCounterStore(StringRedisTemplate redisTemplate, DailyCounterConfig config) {
+        this.redisTemplate = redisTemplate;
+        this.config = config;
+    }
+
+    public void increment(Counter counter, long delta) {
+        if (config.isEnabled() && delta != 0) {
+            bucket().counters.get(counter).add(delta);
+        }
+    }
+
+    public void recordActiveUser(String userId) {
+        if (config.isEnabled() && userId != null) {
+            bucket().users.add(userId);
+        }
+    }
+
+    public void recordView(boolean successful, String ipAddress) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        Bucket bucket = bucket();
+        bucket.counters.get(successful ? Counter.VIEWED : Counter.FAILED_VIEWS).increment();
+        if (ipAddress != null && !ipAddress.isBlank()) {
+            bucket.viewers.add(ipAddress);
+        }
+    }
+
+    /**
+     * Counters of a day as stored in Redis (this node's unflushed counts excluded).
+     * Empty when Redis holds nothing for that day.
+     */
+    public Optional<DayCounters> read(LocalDate date) {
+        String key = dayKey(date);
+        Map<Object, Object> fields = redisTemplate.opsForHash().entries(key);
+        if (fields.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Long activeUsers = redisTemplate.opsForHyperLogLog().size(RedisKeyUtil.buildKey(RedisKeyUtil.KeyType.STATS_DAY, date.toString(), USERS_SUFFIX));
+        Long uniqueViewers = redisTemplate.opsForHyperLogLog().size(RedisKeyUtil.buildKey(RedisKeyUtil.KeyType.STATS_DAY, date.toString(), VIEWERS_SUFFIX));
+        long since = field(fields, SINCE_FIELD);
+        long startOfDay = date.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+
+        return Optional.of(DayCounters.builder()
+                .date(date)
+                .secretsCreated(field(fields, Counter.CREATED.field))
+                .secretsViewed(field(fields, Counter.VIEWED.field))
+                .failedViews(field(fields, Counter.FAILED_VIEWS.field))
+                .newUsers(field(fields, Counter.NEW_USERS.field))
+                .logicalBytes(field(fields, Counter.LOGICAL_BYTES.field))
+                .physicalBytes(field(fields, Counter.PHYSICAL_BYTES.field))
+                .activeUsers(activeUsers == null ? 0 : activeUsers)
+                .uniqueViewers(uniqueViewers == null ? 0 : uniqueViewers)
+                .complete(since > 0 && since <= startOfDay && !fields.containsKey(GAPS_FIELD))
+                .build());
+    }
+
+    /**
+     * Pushes buffered counts to Redis. Also stamps "since" on today's and tomorrow's hash (HSETNX),
+     * so a day counted from its first millisecond can be told apart from one where counting started late.
+     *
+     * A failed pipeline may or may not have been applied: its counts go back into the buckets for the next try
+     * and the days are marked with "gaps", so the nightly job recomputes them from the tables.
+     */
+    @Scheduled(fixedDelayString = "${app.daily-counters.flush-interval-ms:1000}")
+    public void flush() {
+        if (!config.isEnabled()) {
+            return;
+        }
+
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        List<Drained> drained = new ArrayList<>();
+        for (Iterator<Map.Entry<LocalDate, Bucket>> it = buckets.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<LocalDate, Bucket> entry = it.next();
+            drained.add(drain(entry.getKey(), entry.getValue()));
+            // Past days get no new counts (bar a race at midnight, which the next flush would drop)
+            if (entry.getKey().isBefore(today)) {
+                it.remove();
+            }
+        }
+
+        String now = String.valueOf(Instant.now().toEpochMilli());
+        Duration ttl = Duration.ofDays(config.getRetentionDays());
+        List<LocalDate> unmarked = List.copyOf(gaps);
+
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                    for (LocalDate day : List.of(today, today.plusDays(1))) {
+                        ops.opsForHash().putIfAbsent(dayKey(day), SINCE_FIELD, now);
+                        ops.expire(dayKey(day), ttl);
+                    }
+                    for (LocalDate day : unmarked) {
+                        ops.opsForHash().put(dayKey(day), GAPS_FIELD, "1");
+                        ops.expire(dayKey(day), ttl);
+                    }
+                    for (Drained day : drained) {
+                        write(ops, day, ttl);
+                    }
+                    return null;
+                }
+            });
+            unmarked.forEach(gaps::remove);
+        }
+        catch (Exception e) {
+            // Analytics only: the nightly job falls back to SQL for a day it cannot trust
+            log.warn("Daily Counters :: Failed to flush counters of {} days, retrying with the next flush", drained.size(), e);
+            for (Drained day : drained) {
+                if (!day.isEmpty()) {
+                    restore(day);
+                    gaps.add(day.date());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        flush();
+    }
+
+    private record Drained(LocalDate date, Map<Counter, Long> counters, List<String> users, List<String> viewers) {
+
+        boolean isEmpty() {
+            return counters.isEmpty() && users.isEmpty() && viewers.isEmpty();
+        }
+    }
+
+    private static Drained drain(LocalDate date, Bucket bucket) {
+        Map<Counter, Long> counters = new EnumMap<>(Counter.class);
+        bucket.counters.forEach((counter, adder) -> {
+            long value = adder.sumThenReset();
+            if (value != 0) {
+                counters.put(counter, value);
+            }
+        });
+        return new Drained(date, counters, drainSet(bucket.users), drainSet(bucket.viewers));
+    }
+
+    private void restore(Drained day) {
+        Bucket bucket = buckets.computeIfAbsent(day.date(), date -> new Bucket());
+        day.counters().forEach((counter, value) -> bucket.counters.get(counter).add(value));
+        bucket.users.addAll(day.users());
+        bucket.viewers.addAll(day.viewers());
+    }
+
+    private static List<String> drainSet(Set<String> set) {
+        List<String> drained = new ArrayList<>();
+        for (Iterator<String> it = set.iterator(); it.hasNext(); ) {
+            drained.add(it.next());
+            it.remove();
+        }
+        return drained;
+    }
+
+    private static void write(RedisOperations<String, String> ops, Drained day, Duration ttl) {
+        String key = dayKey(day.date());
+        day.counters().forEach((counter, value) -> ops.opsForHash().increment(key, counter.field, value));
+        if (!day.users().isEmpty()) {
+            String usersKey = RedisKeyUtil.buildKey(RedisKeyUtil.KeyType.STATS_DAY, day.date().toString(), USERS_SUFFIX);
+            ops.opsForHyperLogLog().add(usersKey, day.users().toArray(new String[0]));
+            ops.expire(usersKey, ttl);
+        }
+        if (!day.viewers().isEmpty()) {
+            String viewersKey = RedisKeyUtil.buildKey(RedisKeyUtil.KeyType.STATS_DAY, day.date().toString(), VIEWERS_SUFFIX);
+            ops.opsForHyperLogLog().add(viewersKey, day.viewers().toArray(new String[0]));
+            ops.expire(viewersKey, ttl);
+        }
+    }
+
+    private Bucket bucket() {
+        return buckets.computeIfAbsent(LocalDate.now(ZoneOffset.UTC), date -> new Bucket());
+    }
+
+    private static String dayKey(LocalDate date) {
+        return RedisKeyUtil.buildKey(RedisKeyUtil.KeyType.STATS_DAY, date.toString());
+    }
+
+    private static long field(Map<Object, Object> fields, String name) {
+        Object value = fields.get(name);
+        return value == null ? 0 : Long.parseLong(String.valueOf(value));
+    }
+}
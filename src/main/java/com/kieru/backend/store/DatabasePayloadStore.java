@@ -0,0 +1,46 @@
+package com.kieru.backend.store;
+
+import com.kieru.backend.repository.PayloadStreamRepository;
+import com.kieru.backend.util.PayloadStoreConfig;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Body in secret_payload.encoded_content (raw-binary PayloadCodec layout), read back in slices.
+ * The body goes away with its row, so delete has nothing to do.
+ */
+@Component
+@RequiredArgsConstructor
+public class DatabasePayloadStore implements PayloadStore {
+
+    private final PayloadStreamRepository payloadStreamRepo;
+
+    @Override
+    public PayloadStoreConfig.Type type() {
+        return PayloadStoreConfig.Type.DATABASE;
+    }
+
+    @Override
+    public boolean holds(String storageKey) {
+        return storageKey == null;
+    }
+
+    @Override
+    public StoredBody write(String id, InputStream body, long maxBytes) {
+        return new StoredBody(null, payloadStreamRepo.writeRawBody(id, body, maxBytes));
+    }
+
+    @Override
+    public void copyTo(String id, String storageKey, long length, OutputStream out) throws IOException {
+        payloadStreamRepo.copyBodyTo(id, length, out);
+    }
+
+    @Override
+    public void delete(String id, String storageKey) {
+        // Removed with the row
+    }
+}
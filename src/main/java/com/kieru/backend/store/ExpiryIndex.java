@@ -0,0 +1,85 @@
+package com.kieru.backend.store;
+
+import com.kieru.backend.util.RedisKeyUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Secrets ordered by expiry time, in one Redis sorted set:
+ *   secret:expiry -> member = secret id, score = expiresAt (epoch ms)
+ *
+ * Written at create time and drained by SecretCleanupJobs.expireFromIndex, so the work per poll is proportional
+ * to what actually expired. Postgres stays the source of truth: a lost entry is only late, never missed,
+ * because the DB sweep still runs as a safety net.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ExpiryIndex {
+
+    private static final RedisScript<List> CLAIM_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/expiry_claim.lua"), List.class);
+
+    private static final String KEY = RedisKeyUtil.buildKey(RedisKeyUtil.KeyType.EXPIRY_INDEX);
+
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * Best effort: a failure must not fail the create, the DB sweep expires the secret instead.
+     */
+    public void schedule(String secretId, Instant expiresAt) {
+        try {
+            redisTemplate.opsForZSet().add(KEY, secretId, expiresAt.toEpochMilli());
+        }
+        catch (Exception e) {
+            log.warn("Expiry Index :: Failed to schedule secret: {}, left to the DB sweep", secretId, e);
+        }
+    }
+
+    public void remove(String secretId) {
+        try {
+            redisTemplate.opsForZSet().remove(KEY, secretId);
+        }
+        catch (Exception e) {
+            log.warn("Expiry Index :: Failed to remove secret: {}", secretId, e);
+        }
+    }
+
+    public void removeAll(Collection<String> secretIds) {
+        if (secretIds.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.opsForZSet().remove(KEY, secretIds.toArray());
+        }
+        catch (Exception e) {
+            log.warn("Expiry Index :: Failed to remove {} secrets", secretIds.size(), e);
+        }
+    }
+
+    /**
+     * Atomically takes up to limit secrets that expired at or before now out of the index.
+     */
+    @SuppressWarnings("unchecked")
+    public List<String> claimDue(Instant now, int limit) {
+        List<String> due = redisTemplate.execute(CLAIM_SCRIPT, List.of(KEY), String.valueOf(now.toEpochMilli()), String.valueOf(limit));
+        return due == null ? List.of() : due;
+    }
+
+    /**
+     * Puts claimed ids back (due immediately) after their deactivation failed.
+     */
+    public void reschedule(Collection<String> secretIds, Instant dueAt) {
+        for (String secretId : secretIds) {
+            schedule(secretId, dueAt);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.kieru.backend.store;
+
+import com.kieru.backend.util.PayloadStoreConfig;
+import com.kieru.backend.util.SizeLimitedInputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Bodies as plain files under app.payload-store.file.root, sharded by secret id prefix (ab/cd/abcd123456)
+ * so no directory grows past a few thousand entries. Postgres only keeps the storage_key and the length.
+ *
+ * Reads are not zero-copy: the target is the servlet OutputStream, which the Servlet API only exposes as a
+ * stream, so FileChannel.transferTo falls back to reading through a small (8 KB) buffer and handing each chunk
+ * to out.write(). What the file store saves is JDBC and TOAST: the body never passes through the DB or a
+ * heap-sized array, and memory per download stays bounded.
+ */
+@Component
+@Slf4j
+public class FilePayloadStore implements PayloadStore {
+
+    private static final String KEY_PREFIX = "file:";
+
+    private final Path root;
+    private final boolean sync;
+
+    public FilePayloadStore(PayloadStoreConfig config) {
+        this.root = Path.of(config.getFile().getRoot()).toAbsolutePath().normalize();
+        this.sync = config.getFile().isSync();
+    }
+
+    @Override
+    public PayloadStoreConfig.Type type() {
+        return PayloadStoreConfig.Type.FILE;
+    }
+
+    @Override
+    public boolean holds(String storageKey) {
+        return storageKey != null && storageKey.startsWith(KEY_PREFIX);
+    }
+
+    @Override
+    public StoredBody write(String id, InputStream body, long maxBytes) throws IOException {
+        String relativePath = shardPath(id);
+        Path target = resolve(relativePath);
+        Files.createDirectories(target.getParent());
+
+        // Written under a temporary name and renamed, so a reader never sees a partial body
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        SizeLimitedInputStream limited = new SizeLimitedInputStream(body, maxBytes);
+        try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            limited.transferTo(Channels.newOutputStream(channel));
+            if (sync) {
+                channel.force(true);
+            }
+        }
+        catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+
+        Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+        log.debug("File Payload Store :: Stored {} bytes for secret {} at {}", limited.getCount(), id, relativePath);
+        return new StoredBody(KEY_PREFIX + relativePath, limited.getCount());
+    }
+
+    @Override
+    public void copyTo(String id, String storageKey, long length, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(resolveKey(storageKey), StandardOpenOption.READ)) {
+            // A wrapped stream, not a socket channel: buffered copy, no sendfile
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = 0;
+            while (position < length) {
+                long transferred = channel.transferTo(position, length - position, target);
+                if (transferred <= 0) {
+                    throw new IllegalStateException("Payload file for secret " + id + " ended early at " + position + " of " + length + " bytes");
+                }
+                position += transferred;
+            }
+        }
+        out.flush();
+    }
+
+    @Override
+    public void delete(String id, String storageKey) {
+        try {
+            if (Files.deleteIfExists(resolveKey(storageKey))) {
+                log.debug("File Payload Store :: Unlinked payload of secret {}", id);
+            }
+        }
+        catch (IOException | RuntimeException e) {
+            log.warn("File Payload Store :: Failed to unlink payload of secret {} ({}): {}", id, storageKey, e.getMessage());
+        }
+    }
+
+    private static String shardPath(String id) {
+        if (id.length() < 4) {
+            return "_/" + id;
+        }
+        return id.substring(0, 2) + "/" + id.substring(2, 4) + "/" + id;
+    }
+
+    private Path resolveKey(String storageKey) {
+        if (!holds(storageKey)) {
+            throw new IllegalArgumentException("Not a file payload key: " + storageKey);
+        }
+        return resolve(storageKey.substring(KEY_PREFIX.length()));
+    }
+
+    private Path resolve(String relativePath) {
+        Path path = root.resolve(relativePath).normalize();
+        if (!path.startsWith(root)) {
+            throw new IllegalArgumentException("Payload path escapes the store root: " + relativePath);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,57 @@
+package com.kieru.backend.store;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process locks, for a single node and for tests (app.job-lock.provider=MEMORY).
+ */
+@Component
+@ConditionalOnProperty(name = "app.job-lock.provider", havingValue = "MEMORY")
+public class InMemoryJobLockProvider implements JobLockProvider {
+
+    private record Lease(String owner, long expiresAt) {
+    }
+
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+
+    public InMemoryJobLockProvider() {
+        this(System::currentTimeMillis);
+    }
+
+    public InMemoryJobLockProvider(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public boolean tryLock(String name, String owner, long leaseMs) {
+        long now = clock.getAsLong();
+        Lease candidate = new Lease(owner, now + leaseMs);
+        return leases.compute(name, (key, current) ->
+                current == null || current.expiresAt() <= now ? candidate : current) == candidate;
+    }
+
+    @Override
+    public boolean extend(String name, String owner, long leaseMs) {
+        long now = clock.getAsLong();
+        Lease candidate = new Lease(owner, now + leaseMs);
+        return leases.computeIfPresent(name, (key, current) ->
+                current.owner().equals(owner) && current.expiresAt() > now ? candidate : current) == candidate;
+    }
+
+    @Override
+    public void unlock(String name, String owner, long keepMs) {
+        long now = clock.getAsLong();
+        leases.computeIfPresent(name, (key, current) -> {
+            if (!current.owner().equals(owner)) {
+                return current;
+            }
+            return keepMs > 0 ? new Lease(owner, Math.min(current.expiresAt(), now + keepMs)) : null;
+        });
+    }
+}
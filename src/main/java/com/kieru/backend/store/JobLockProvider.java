@@ -0,0 +1,23 @@
+package com.kieru.backend.store;
+
+/**
+ * Lease-based lock for scheduled jobs. A lease expires on its own when its holder dies,
+ * so a crashed node never blocks a job for longer than leaseMs.
+ */
+public interface JobLockProvider {
+
+    /**
+     * True when owner now holds the lock for leaseMs, false when another owner holds it.
+     */
+    boolean tryLock(String name, String owner, long leaseMs);
+
+    /**
+     * Pushes the lease out to leaseMs from now. False when owner no longer holds the lock.
+     */
+    boolean extend(String name, String owner, long leaseMs);
+
+    /**
+     * Releases the lock after keepMs (0 = right away), only when owner still holds it.
+     */
+    void unlock(String name, String owner, long keepMs);
+}
@@ -0,0 +1,42 @@
+package com.kieru.backend.store;
+
+import com.kieru.backend.util.PayloadStoreConfig;
+import lombok.Value;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Storage for the body of streamed secrets. The secret_payload row always exists,
+ * its storage_key says which store holds the body (null: the row itself).
+ */
+public interface PayloadStore {
+
+    @Value
+    class StoredBody {
+        String storageKey;   // Recorded on the payload row
+        long length;         // Body bytes
+    }
+
+    PayloadStoreConfig.Type type();
+
+    /**
+     * True when this store holds bodies recorded with this storage_key.
+     */
+    boolean holds(String storageKey);
+
+    /**
+     * Writes the body of secret id, failing with PayloadTooLargeException as soon as maxBytes is crossed.
+     * Nothing is left behind when it fails. Stores that keep the body in the row (holds(null)) are called inside
+     * the transaction that inserted the row, all others before the rows exist.
+     */
+    StoredBody write(String id, InputStream body, long maxBytes) throws IOException;
+
+    void copyTo(String id, String storageKey, long length, OutputStream out) throws IOException;
+
+    /**
+     * Frees the body once the secret can no longer be viewed. Best effort, never throws.
+     */
+    void delete(String id, String storageKey);
+}
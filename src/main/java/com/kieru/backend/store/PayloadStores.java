@@ -0,0 +1,52 @@
+package com.kieru.backend.store;
+
+import com.kieru.backend.repository.SecretPayloadRepository;
+import com.kieru.backend.util.PayloadStoreConfig;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Picks the store for new bodies (app.payload-store.type) and the one holding an existing body (its storage_key).
+ */
+@Component
+@RequiredArgsConstructor
+public class PayloadStores {
+
+    private final List<PayloadStore> stores;
+    private final PayloadStoreConfig config;
+    private final SecretPayloadRepository payloadRepo;
+
+    public PayloadStore forWrites() {
+        return stores.stream()
+                .filter(store -> store.type() == config.getType())
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No payload store of type " + config.getType()));
+    }
+
+    public PayloadStore forKey(String storageKey) {
+        return stores.stream()
+                .filter(store -> store.holds(storageKey))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No payload store holds " + storageKey));
+    }
+
+    /**
+     * Unlinks the external bodies of secrets that can no longer be viewed (expired or deleted).
+     * Rows are kept, bodies in the row go away with it. Returns the number of bodies released.
+     */
+    public int release(Collection<String> secretIds) {
+        if (secretIds.isEmpty()) {
+            return 0;
+        }
+
+        List<Object[]> keys = payloadRepo.findStorageKeys(secretIds);
+        for (Object[] key : keys) {
+            String storageKey = (String) key[1];
+            forKey(storageKey).delete((String) key[0], storageKey);
+        }
+        return keys.size();
+    }
+}
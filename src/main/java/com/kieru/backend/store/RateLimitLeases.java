@@ -0,0 +1,172 @@
+package com.kieru.backend.store;
+
+import com.kieru.backend.dto.RateLimitDecision;
+import com.kieru.backend.service.RateLimitService;
+import com.kieru.backend.util.RateLimitLeaseConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Rate limiting without a Redis call per request: a node takes a block of requests from the GCRA limiter
+ * (RateLimitService, one call) and hands them out locally, going back to Redis when the block is spent or expired.
+ *
+ * Blocks are adaptive: a key starts at 1 (every request goes to Redis, exactly as without leasing), the block
+ * doubles each time a lease is spent before it expires and halves each time one expires first, capped at
+ * min(maxBlockSize, limit * blockFraction). Only hot keys ever hold more than one request.
+ *
+ * Where it saves: leasing changes the cost of a limit, never the limit itself, so keys stay what RateLimitAspect
+ * builds (per caller per URI). A caller well below its limit never spends a block within leaseTtlMs and stays at
+ * one Redis call per request, and so does one spreading requests over many URIs (every key is cold). The calls
+ * saved are those of a caller hammering one key (e.g. guessing the password of one secret): it reaches the cap
+ * within a few calls and is then locked out locally. RateLimitLeasesTest.redisCallsPerTrafficPattern replays
+ * all three cases.
+ *
+ * Accuracy: leased requests are taken from Redis up front, so the limit is never exceeded. The cost is the
+ * other way round: with N nodes, up to N x (block - 1) requests of a key can sit unspent in other nodes' leases,
+ * so a caller may be rejected (and locked out) that much early. Lockouts are cached until they end (Redis never
+ * lifts one early); a lockout set by another node is only seen here once the local lease runs out (<= leaseTtlMs).
+ */
+@Component
+@Slf4j
+public class RateLimitLeases {
+
+    private static final class Lease {
+        private final AtomicInteger tokens;
+        private final int size;
+        private final long expiresAt;
+
+        private Lease(int tokens, int size, long expiresAt) {
+            this.tokens = new AtomicInteger(tokens);
+            this.size = size;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean tryTake(long now) {
+            if (now >= expiresAt) {
+                return false;
+            }
+            int left;
+            do {
+                left = tokens.get();
+                if (left <= 0) {
+                    return false;
+                }
+            } while (!tokens.compareAndSet(left, left - 1));
+            return true;
+        }
+    }
+
+    private record Lockout(long until) {
+    }
+
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+    private final Map<String, Lockout> lockouts = new ConcurrentHashMap<>();
+    private final RateLimitService rateLimitService;
+    private final RateLimitLeaseConfig config;
+    private final LongSupplier clock;
+
+    private final Counter localHits;
+    private final Counter redisCalls;
+    private final Counter localLockouts;
+
+    @Autowired
+    public RateLimitLeases(RateLimitService rateLimitService, RateLimitLeaseConfig config, MeterRegistry meterRegistry) {
+        this(rateLimitService, config, meterRegistry, System::currentTimeMillis);
+    }
+
+    public RateLimitLeases(RateLimitService rateLimitService, RateLimitLeaseConfig config, MeterRegistry meterRegistry,
+                           LongSupplier clock) {
+        this.rateLimitService = rateLimitService;
+        this.config = config;
+        this.clock = clock;
+
+        this.localHits = Counter.builder("kieru.ratelimit.lease").tag("result", "local")
+                .description("Requests admitted from a node-local lease").register(meterRegistry);
+        this.redisCalls = Counter.builder("kieru.ratelimit.lease").tag("result", "redis")
+                .description("Requests that went to the Redis limiter").register(meterRegistry);
+        this.localLockouts = Counter.builder("kieru.ratelimit.lease").tag("result", "locked")
+                .description("Requests rejected by a cached lockout").register(meterRegistry);
+        Gauge.builder("kieru.ratelimit.lease.size", leases, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Same contract as RateLimitService.consume(), served from the local lease when possible.
+     */
+    public RateLimitDecision consume(String key, String lockIdentifier, int limit, int windowSeconds, int lockDurationMinutes) {
+        if (!config.isEnabled()) {
+            return rateLimitService.consume(key, lockIdentifier, limit, windowSeconds, lockDurationMinutes);
+        }
+
+        long now = clock.getAsLong();
+        Lockout lockout = lockouts.get(lockIdentifier);
+        if (lockout != null) {
+            if (lockout.until() > now) {
+                localLockouts.increment();
+                return RateLimitDecision.builder().status(RateLimitDecision.Status.LOCKED).retryAfterMs(lockout.until() - now).build();
+            }
+            lockouts.remove(lockIdentifier, lockout);
+        }
+
+        Lease lease = leases.get(key);
+        if (lease != null && lease.tryTake(now)) {
+            localHits.increment();
+            return RateLimitDecision.allowed(lease.tokens.get());
+        }
+
+        int block = nextBlockSize(lease, limit, now);
+        redisCalls.increment();
+        RateLimitDecision decision = rateLimitService.consume(key, lockIdentifier, limit, windowSeconds, lockDurationMinutes, block);
+
+        if (decision.isAllowed()) {
+            // Concurrent refills of one key each get their own block, the last one wins (unspent requests are only lost)
+            if (leases.containsKey(key) || leases.size() < config.getMaxEntries() || makeRoom(leases)) {
+                leases.put(key, new Lease((int) decision.getGranted() - 1, block, now + config.getLeaseTtlMs()));
+            }
+        }
+        else if (decision.getRetryAfterMs() > 0
+                && (decision.getStatus() == RateLimitDecision.Status.LOCKED || lockDurationMinutes > 0)) {
+            leases.remove(key);
+            if (lockouts.size() < config.getMaxEntries() || makeRoom(lockouts)) {
+                lockouts.put(lockIdentifier, new Lockout(now + decision.getRetryAfterMs()));
+            }
+        }
+        return decision;
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void evictExpired() {
+        long now = clock.getAsLong();
+        leases.values().removeIf(lease -> lease.expiresAt <= now);
+        lockouts.values().removeIf(lockout -> lockout.until() <= now);
+    }
+
+    private int nextBlockSize(Lease previous, int limit, long now) {
+        int cap = (int) Math.max(1, Math.min(config.getMaxBlockSize(), Math.floor(limit * config.getBlockFraction())));
+        if (previous == null) {
+            return 1;
+        }
+        // Spent while still live: the key is hot, lease more. Expired first: lease less
+        int size = previous.expiresAt > now ? previous.size * 2 : Math.max(1, previous.size / 2);
+        return Math.min(size, cap);
+    }
+
+    private boolean makeRoom(Map<String, ?> entries) {
+        evictExpired();
+        if (entries.size() >= config.getMaxEntries()) {
+            // Still full: the caller simply goes to Redis for every request
+            log.debug("RateLimit Leases :: {} entries cached, not caching more", entries.size());
+            return false;
+        }
+        return true;
+    }
+}
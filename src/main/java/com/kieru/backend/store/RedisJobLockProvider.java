@@ -0,0 +1,50 @@
+package com.kieru.backend.store;
+
+import com.kieru.backend.util.RedisKeyUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * job:lock:{name} -> owner, with PX = lease. Extend and unlock go through scripts/job_lock.lua
+ * so a node can only touch a lock it still owns.
+ */
+@Component
+@ConditionalOnProperty(name = "app.job-lock.provider", havingValue = "REDIS", matchIfMissing = true)
+@RequiredArgsConstructor
+public class RedisJobLockProvider implements JobLockProvider {
+
+    private static final RedisScript<Long> LOCK_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/job_lock.lua"), Long.class);
+
+    private static final String MODE_EXTEND = "extend";
+    private static final String MODE_UNLOCK = "unlock";
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Override
+    public boolean tryLock(String name, String owner, long leaseMs) {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key(name), owner, Duration.ofMillis(leaseMs)));
+    }
+
+    @Override
+    public boolean extend(String name, String owner, long leaseMs) {
+        Long result = redisTemplate.execute(LOCK_SCRIPT, List.of(key(name)), owner, MODE_EXTEND, String.valueOf(leaseMs));
+        return result != null && result == 1;
+    }
+
+    @Override
+    public void unlock(String name, String owner, long keepMs) {
+        redisTemplate.execute(LOCK_SCRIPT, List.of(key(name)), owner, MODE_UNLOCK, String.valueOf(keepMs));
+    }
+
+    private static String key(String name) {
+        return RedisKeyUtil.buildKey(RedisKeyUtil.KeyType.JOB_LOCK, name);
+    }
+}
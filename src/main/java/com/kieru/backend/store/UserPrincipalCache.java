@@ -0,0 +1,294 @@
+package com.kieru.backend.store;
+
+import com.kieru.backend.entity.User;
+import com.kieru.backend.util.KieruUtil;
+import com.kieru.backend.util.RedisKeyUtil;
+import com.kieru.backend.util.UserCacheConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * The authenticated User, so FirebaseAuthFilter does not load kieru_users on every request.
+ *
+ * Two tiers:
+ *   local (LRU, localTtlSeconds)  -> per node, no I/O
+ *   user:principal:{id} (hash)    -> shared, redisTtlSeconds
+ *
+ * invalidate() drops both tiers and publishes the id on user:principal:invalidate, every node
+ * (this one included) then drops its local entry. Call it after any change to ban, plan, role or session.
+ * Cached users are detached and shared between requests: read them, never modify them.
+ *
+ * Loading is cache-aside, so a row read just before an invalidation must not be cached after it: callers take
+ * generation() before the DB read and hand it to put(), which only caches while no invalidate() ran since.
+ */
+@Component
+@Slf4j
+public class UserPrincipalCache implements MessageListener {
+
+    private static final String EMAIL = "email";
+    private static final String NAME = "name";
+    private static final String PHOTO = "photo";
+    private static final String ROLE = "role";
+    private static final String PLAN = "plan";
+    private static final String PROVIDER = "provider";
+    private static final String BANNED = "banned";
+    private static final String SESSION_VERSION = "sv";
+    private static final String SESSIONS_REVOKED = "revoked";
+    private static final String JOINED = "joined";
+    private static final String CREATED = "created";
+
+    private static final RedisScript<Long> PUT_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/principal_put.lua"), Long.class);
+
+    // Unknown generation (Redis unreachable): put() then never fills the shared tier
+    private static final long UNKNOWN_GENERATION = -1;
+
+    private record Entry(User user, long loadedAt, long expiresAt) {
+    }
+
+    private final StringRedisTemplate redisTemplate;
+    private final UserCacheConfig config;
+    private final LongSupplier clock;
+    private final Map<String, Entry> local;
+
+    private final Counter localHits;
+    private final Counter redisHits;
+    private final Counter misses;
+
+    @Autowired
+    public UserPrincipalCache(StringRedisTemplate redisTemplate, UserCacheConfig config, MeterRegistry meterRegistry,
+                              RedisMessageListenerContainer listenerContainer) {
+        this(redisTemplate, config, meterRegistry, System::currentTimeMillis);
+        listenerContainer.addMessageListener(this,
+                new ChannelTopic(RedisKeyUtil.buildKey(RedisKeyUtil.KeyType.USER_PRINCIPAL_CHANNEL)));
+    }
+
+    public UserPrincipalCache(StringRedisTemplate redisTemplate, UserCacheConfig config, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.redisTemplate = redisTemplate;
+        this.config = config;
+        this.clock = clock;
+        this.local = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > config.getLocalMaxEntries();
+            }
+        });
+
+        this.localHits = Counter.builder("kieru.auth.principal_cache").tag("result", "local")
+                .description("Principals served from the node-local tier").register(meterRegistry);
+        this.redisHits = Counter.builder("kieru.auth.principal_cache").tag("result", "redis")
+                .description("Principals served from the Redis tier").register(meterRegistry);
+        this.misses = Counter.builder("kieru.auth.principal_cache").tag("result", "miss")
+                .description("Principals loaded from the DB").register(meterRegistry);
+    }
+
+    /**
+     * Cached user, or null when it has to be loaded from the DB (and then put()).
+     */
+    public User get(String userId) {
+        if (!config.isEnabled()) {
+            return null;
+        }
+
+        long now = clock.getAsLong();
+        Entry entry = local.get(userId);
+        if (entry != null && entry.expiresAt() > now) {
+            localHits.increment();
+            return entry.user();
+        }
+
+        User user = getShared(userId);
+        if (user == null) {
+            misses.increment();
+        }
+        return user;
+    }
+
+    /**
+     * The user from the shared Redis tier only (refreshing the local entry), or null on a miss.
+     * For callers that suspect the local copy is stale.
+     */
+    public User getShared(String userId) {
+        if (!config.isEnabled()) {
+            return null;
+        }
+        try {
+            Map<Object, Object> fields = redisTemplate.opsForHash().entries(principalKey(userId));
+            if (!fields.isEmpty()) {
+                User user = fromFields(userId, fields);
+                putLocal(user);
+                redisHits.increment();
+                return user;
+            }
+        }
+        catch (Exception e) {
+            log.warn("Principal Cache :: Redis read failed for user: {}, loading from DB", userId, e);
+        }
+        return null;
+    }
+
+    /**
+     * True when this node loaded the user (from Redis or the DB) within the last millis.
+     */
+    public boolean loadedWithin(String userId, long millis) {
+        Entry entry = local.get(userId);
+        return entry != null && entry.loadedAt() > clock.getAsLong() - millis;
+    }
+
+    /**
+     * Invalidation generation of the user, to be read before loading it from the DB and passed to put().
+     */
+    public long generation(String userId) {
+        if (!config.isEnabled()) {
+            return UNKNOWN_GENERATION;
+        }
+        try {
+            String generation = redisTemplate.opsForValue().get(generationKey(userId));
+            return generation == null ? 0 : Long.parseLong(generation);
+        }
+        catch (Exception e) {
+            log.warn("Principal Cache :: Failed to read generation of user: {}", userId, e);
+            return UNKNOWN_GENERATION;
+        }
+    }
+
+    /**
+     * Caches a user loaded from the DB, unless it was invalidated after generation was read (then the row
+     * may predate the change and is dropped; the next request loads it again).
+     */
+    public void put(User user, long generation) {
+        if (!config.isEnabled()) {
+            return;
+        }
+
+        if (generation != UNKNOWN_GENERATION) {
+            List<String> fields = new ArrayList<>();
+            toFields(user).forEach((field, value) -> {
+                fields.add(field);
+                fields.add(value);
+            });
+            Object[] args = new Object[2 + fields.size()];
+            args[0] = String.valueOf(generation);
+            args[1] = String.valueOf(config.getRedisTtlSeconds());
+            for (int i = 0; i < fields.size(); i++) {
+                args[2 + i] = fields.get(i);
+            }
+            try {
+                Long cached = redisTemplate.execute(PUT_SCRIPT, List.of(principalKey(user.getId()), generationKey(user.getId())), args);
+                if (cached != null && cached == 0) {
+                    log.debug("Principal Cache :: User {} invalidated since it was read, not caching", user.getId());
+                    return;
+                }
+            }
+            catch (Exception e) {
+                log.warn("Principal Cache :: Failed to cache user: {}", user.getId(), e);
+            }
+        }
+
+        // Local only, at worst as stale as localTtlSeconds
+        putLocal(user);
+    }
+
+    private void putLocal(User user) {
+        long now = clock.getAsLong();
+        local.put(user.getId(), new Entry(user, now, now + config.getLocalTtlSeconds() * 1000));
+    }
+
+    /**
+     * Drops the user from both tiers on every node, together with the cached subscription plan.
+     * Bumps the generation first, so a put() of a row read before this call is refused.
+     */
+    public void invalidate(String userId) {
+        local.remove(userId);
+        try {
+            String generationKey = generationKey(userId);
+            redisTemplate.opsForValue().increment(generationKey);
+            redisTemplate.expire(generationKey, Duration.ofSeconds(config.getRedisTtlSeconds()));
+            redisTemplate.delete(List.of(principalKey(userId),
+                    RedisKeyUtil.buildKey(RedisKeyUtil.KeyType.SUBSCRIPTION_PLAN, userId)));
+            redisTemplate.convertAndSend(RedisKeyUtil.buildKey(RedisKeyUtil.KeyType.USER_PRINCIPAL_CHANNEL), userId);
+        }
+        catch (Exception e) {
+            // Other nodes keep their local copy for at most localTtlSeconds
+            log.warn("Principal Cache :: Failed to publish invalidation of user: {}", userId, e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String userId = new String(message.getBody(), StandardCharsets.UTF_8);
+        local.remove(userId);
+        log.debug("Principal Cache :: Dropped local entry of user: {}", userId);
+    }
+
+    private static String principalKey(String userId) {
+        return RedisKeyUtil.buildKey(RedisKeyUtil.KeyType.USER_PRINCIPAL, userId);
+    }
+
+    private static String generationKey(String userId) {
+        return RedisKeyUtil.buildKey(RedisKeyUtil.KeyType.USER_PRINCIPAL_GENERATION, userId);
+    }
+
+    private static Map<String, String> toFields(User user) {
+        Map<String, String> fields = new HashMap<>();
+        putIfNotNull(fields, EMAIL, user.getEmail());
+        putIfNotNull(fields, NAME, user.getDisplayName());
+        putIfNotNull(fields, PHOTO, user.getPhotoUrl());
+        putIfNotNull(fields, ROLE, user.getRole() == null ? null : user.getRole().name());
+        putIfNotNull(fields, PLAN, user.getSubscription() == null ? null : user.getSubscription().name());
+        putIfNotNull(fields, PROVIDER, user.getLoginProvider() == null ? null : user.getLoginProvider().name());
+        putIfNotNull(fields, SESSION_VERSION, user.getSessionVersion());
+        putIfNotNull(fields, SESSIONS_REVOKED, user.getSessionsRevokedAt() == null ? null : String.valueOf(user.getSessionsRevokedAt().toEpochMilli()));
+        putIfNotNull(fields, JOINED, user.getJoinedAt() == null ? null : String.valueOf(user.getJoinedAt().toEpochMilli()));
+        fields.put(BANNED, user.isBanned() ? "1" : "0");
+        fields.put(CREATED, String.valueOf(user.getSecretsCreatedCount()));
+        return fields;
+    }
+
+    private static User fromFields(String userId, Map<Object, Object> fields) {
+        String joined = (String) fields.get(JOINED);
+        String revoked = (String) fields.get(SESSIONS_REVOKED);
+        String created = (String) fields.get(CREATED);
+        return User.builder()
+                .id(userId)
+                .email((String) fields.get(EMAIL))
+                .displayName((String) fields.get(NAME))
+                .photoUrl((String) fields.get(PHOTO))
+                .role(KieruUtil.UserRole.valueOf((String) fields.getOrDefault(ROLE, KieruUtil.UserRole.USER.name())))
+                .subscription(KieruUtil.SubscriptionPlan.valueOf((String) fields.getOrDefault(PLAN, KieruUtil.SubscriptionPlan.EXPLORER.name())))
+                .loginProvider(KieruUtil.LoginProvider.valueOf((String) fields.getOrDefault(PROVIDER, KieruUtil.LoginProvider.UNKNOWN.name())))
+                .sessionVersion((String) fields.get(SESSION_VERSION))
+                .sessionsRevokedAt(revoked == null ? null : Instant.ofEpochMilli(Long.parseLong(revoked)))
+                .joinedAt(joined == null ? null : Instant.ofEpochMilli(Long.parseLong(joined)))
+                .isBanned("1".equals(fields.get(BANNED)))
+                .secretsCreatedCount(created == null ? 0 : Integer.parseInt(created))
+                .build();
+    }
+
+    private static void putIfNotNull(Map<String, String> fields, String field, String value) {
+        if (value != null) {
+            fields.put(field, value);
+        }
+    }
+}
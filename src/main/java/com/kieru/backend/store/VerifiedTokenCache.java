@@ -0,0 +1,139 @@
+package com.kieru.backend.store;
+
+import com.kieru.backend.dto.VerifiedToken;
+import com.kieru.backend.util.TokenCacheConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Verified Firebase ID tokens, so a token reused for the rest of its hour skips RSA verification and claim parsing.
+ *
+ * Keyed by the SHA-256 of the token (the token itself is never kept). Bounded by app.token-cache.max-entries,
+ * an entry lives until the token's exp (minus a skew margin) or max-ttl-seconds, whichever comes first.
+ * evictUser() drops every token of a user when their session version changes (login/logout).
+ */
+@Component
+@Slf4j
+public class VerifiedTokenCache {
+
+    private record Entry(VerifiedToken token, long expiresAt) {
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final TokenCacheConfig config;
+    private final LongSupplier clock;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    @Autowired
+    public VerifiedTokenCache(TokenCacheConfig config, MeterRegistry meterRegistry) {
+        this(config, meterRegistry, System::currentTimeMillis);
+    }
+
+    public VerifiedTokenCache(TokenCacheConfig config, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.config = config;
+        this.clock = clock;
+
+        this.hits = Counter.builder("kieru.auth.token_cache").tag("result", "hit")
+                .description("Requests authenticated from the verified token cache").register(meterRegistry);
+        this.misses = Counter.builder("kieru.auth.token_cache").tag("result", "miss")
+                .description("Requests that verified the token with Firebase").register(meterRegistry);
+        this.evictions = Counter.builder("kieru.auth.token_cache.evictions")
+                .description("Entries dropped before expiry to stay within max-entries").register(meterRegistry);
+        Gauge.builder("kieru.auth.token_cache.size", entries, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Cached claims of the token, or null when it has to be verified.
+     */
+    public VerifiedToken get(String idToken) {
+        if (!config.isEnabled()) {
+            return null;
+        }
+
+        String key = hash(idToken);
+        Entry entry = entries.get(key);
+        if (entry == null || entry.expiresAt() <= clock.getAsLong()) {
+            if (entry != null) {
+                entries.remove(key, entry);
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.token();
+    }
+
+    public void put(String idToken, VerifiedToken token) {
+        if (!config.isEnabled() || token.getExpiresAt() == null) {
+            return;
+        }
+
+        long now = clock.getAsLong();
+        long expiresAt = Math.min(token.getExpiresAt().toEpochMilli() - config.getExpirySkewSeconds() * 1000,
+                now + config.getMaxTtlSeconds() * 1000);
+        if (expiresAt <= now) {
+            return;
+        }
+
+        if (entries.size() >= config.getMaxEntries()) {
+            makeRoom();
+        }
+        entries.put(hash(idToken), new Entry(token, expiresAt));
+    }
+
+    public void evict(String idToken) {
+        entries.remove(hash(idToken));
+    }
+
+    /**
+     * Drops every cached token of the user. Only called on login/logout, so a full scan is fine.
+     */
+    public void evictUser(String uid) {
+        entries.values().removeIf(entry -> entry.token().getUid().equals(uid));
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void evictExpired() {
+        long now = clock.getAsLong();
+        entries.values().removeIf(entry -> entry.expiresAt() <= now);
+    }
+
+    private void makeRoom() {
+        evictExpired();
+
+        // Still full: drop arbitrary entries, they only cost one more verification
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() >= config.getMaxEntries() && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    private static String hash(String idToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(idToken.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
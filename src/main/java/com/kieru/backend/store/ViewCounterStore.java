@@ -0,0 +1,243 @@
+package com.kieru.backend.store;
+
+import com.kieru.backend.dto.SecretAccessView;
+import com.kieru.backend.dto.ViewConsumptionResult;
+import com.kieru.backend.util.KieruUtil;
+import com.kieru.backend.util.PayloadCacheConfig;
+import com.kieru.backend.util.RedisKeyUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single owner of the per-secret view counter in Redis.
+ *
+ * Key layout (nothing else builds these keys):
+ *   secret:state:{id}   -> hash with views, exp, active, deleted, pwd, vts, bomb, type
+ *   secret:payload:{id} -> cached encrypted payload (optional tier)
+ *
+ * Both keys expire together with the secret (PEXPIRE = expiresAt - now), all reads and
+ * writes go through scripts/view_consume.lua so every decision is a single atomic call.
+ */
+@Component
+@Slf4j
+public class ViewCounterStore {
+
+    private static final RedisScript<List> VIEW_CONSUME_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/view_consume.lua"), List.class);
+
+    private static final RedisScript<Long> PAYLOAD_CACHE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/payload_cache.lua"), Long.class);
+
+    private static final String MODE_CONSUME = "consume";
+    private static final String MODE_SEED_CONSUME = "seed-consume";
+    private static final String MODE_SEED = "seed";
+    private static final String MODE_PIN = "pin";
+
+    // Floor for the lifetime of a pinned hash, so a late re-seed of an already expired secret still finds it
+    private static final long PIN_MIN_TTL_MS = 60_000;
+
+    private final StringRedisTemplate redisTemplate;
+    private final PayloadCacheConfig payloadCacheConfig;
+
+    private final Counter stateHits;
+    private final Counter stateMisses;
+    private final Counter payloadHits;
+    private final Counter payloadMisses;
+    private final Map<ViewConsumptionResult.Status, Counter> outcomes = new EnumMap<>(ViewConsumptionResult.Status.class);
+
+    public ViewCounterStore(StringRedisTemplate redisTemplate, PayloadCacheConfig payloadCacheConfig, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.payloadCacheConfig = payloadCacheConfig;
+
+        this.stateHits = Counter.builder("kieru.views.state").tag("result", "hit")
+                .description("View consumptions answered from Redis state").register(meterRegistry);
+        this.stateMisses = Counter.builder("kieru.views.state").tag("result", "miss")
+                .description("View consumptions that had to fall back to the DB").register(meterRegistry);
+        this.payloadHits = Counter.builder("kieru.views.payload").tag("result", "hit")
+                .description("Successful views served from the Redis payload tier").register(meterRegistry);
+        this.payloadMisses = Counter.builder("kieru.views.payload").tag("result", "miss")
+                .description("Successful views that read the payload from the DB").register(meterRegistry);
+
+        for (ViewConsumptionResult.Status status : ViewConsumptionResult.Status.values()) {
+            outcomes.put(status, Counter.builder("kieru.views.outcome").tag("status", status.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Hot path: checks deleted/expiry/active/password/views and decrements in ONE Redis call.
+     * Returns MISS when Redis holds no state for the secret.
+     * When the payload tier holds the content it is returned too (GETDEL on the last view).
+     */
+    public ViewConsumptionResult consume(String secretId, Instant now, String verifiedPasswordHash) {
+        List<?> reply = redisTemplate.execute(VIEW_CONSUME_SCRIPT, keys(secretId),
+                String.valueOf(now.toEpochMilli()), MODE_CONSUME, nullToEmpty(verifiedPasswordHash));
+
+        ViewConsumptionResult result = toResult(reply);
+        if (result.getStatus() == ViewConsumptionResult.Status.MISS) {
+            stateMisses.increment();
+        }
+        else {
+            stateHits.increment();
+        }
+        record(result);
+        return result;
+    }
+
+    /**
+     * Cold path: seeds the state from DB values (only if no other node did it first) and consumes in the same call.
+     */
+    public ViewConsumptionResult seedAndConsume(SecretAccessView view, Instant now, String verifiedPasswordHash) {
+        List<?> reply = redisTemplate.execute(VIEW_CONSUME_SCRIPT, keys(view.getId()),
+                seedArgs(view, now, MODE_SEED_CONSUME, verifiedPasswordHash));
+
+        ViewConsumptionResult result = toResult(reply);
+        record(result);
+        return result;
+    }
+
+    /**
+     * Writes the initial state (and the payload, if small enough) at create time,
+     * so the first view is already served from Redis.
+     */
+    public void initialize(SecretAccessView view) {
+        redisTemplate.execute(VIEW_CONSUME_SCRIPT, keys(view.getId()),
+                seedArgs(view, Instant.now(), MODE_SEED, null));
+        log.debug("View Counter :: Initialized state for secret: {}, views: {}, expires at: {}", view.getId(), view.getViewsLeft(), view.getExpiresAt());
+    }
+
+    /**
+     * Fills the payload tier after a DB read, as long as the secret still has views left.
+     */
+    public void cachePayload(String secretId, String content) {
+        if (!payloadCacheConfig.isCacheable(content)) {
+            return;
+        }
+        Long cached = redisTemplate.execute(PAYLOAD_CACHE_SCRIPT, keys(secretId), content);
+        log.debug("View Counter :: Late payload cache for secret: {}, cached: {}", secretId, cached);
+    }
+
+    /**
+     * Marks the secret deleted in Redis (after the soft delete committed). Unlike a DEL, a concurrent access
+     * that read the row before the commit cannot re-seed it as active.
+     */
+    public void markDeleted(String secretId, Instant expiresAt) {
+        pin(secretId, expiresAt, "deleted", "1", "active", "0");
+        log.debug("View Counter :: Marked secret deleted: {}", secretId);
+    }
+
+    /**
+     * Replaces the password hash in Redis (after the new hash committed), a re-seed with the old hash cannot undo it.
+     */
+    public void updatePassword(String secretId, String passwordHash, Instant expiresAt) {
+        pin(secretId, expiresAt, "pwd", nullToEmpty(passwordHash));
+        log.debug("View Counter :: Updated password hash for secret: {}", secretId);
+    }
+
+    public void delete(String secretId) {
+        redisTemplate.delete(keys(secretId));
+        log.debug("View Counter :: Deleted state for secret: {}", secretId);
+    }
+
+    /**
+     * Evicts the state (and cached payload) of many secrets with a single DEL.
+     */
+    public void deleteAll(Collection<String> secretIds) {
+        if (secretIds.isEmpty()) {
+            return;
+        }
+        List<String> allKeys = new ArrayList<>(secretIds.size() * 2);
+        for (String secretId : secretIds) {
+            allKeys.addAll(keys(secretId));
+        }
+        Long deleted = redisTemplate.delete(allKeys);
+        log.debug("View Counter :: Evicted state of {} secrets, {} keys deleted", secretIds.size(), deleted);
+    }
+
+    private void pin(String secretId, Instant expiresAt, String... fieldsAndValues) {
+        long ttl = Math.max(PIN_MIN_TTL_MS, expiresAt.toEpochMilli() - System.currentTimeMillis());
+        Object[] args = new Object[4 + fieldsAndValues.length];
+        args[0] = String.valueOf(System.currentTimeMillis());
+        args[1] = MODE_PIN;
+        args[2] = "";
+        args[3] = String.valueOf(ttl);
+        System.arraycopy(fieldsAndValues, 0, args, 4, fieldsAndValues.length);
+        redisTemplate.execute(VIEW_CONSUME_SCRIPT, keys(secretId), args);
+    }
+
+    private void record(ViewConsumptionResult result) {
+        outcomes.get(result.getStatus()).increment();
+
+        if (result.getStatus() == ViewConsumptionResult.Status.CONSUMED) {
+            (result.getContent() != null ? payloadHits : payloadMisses).increment();
+        }
+    }
+
+    private Object[] seedArgs(SecretAccessView view, Instant now, String mode, String verifiedPasswordHash) {
+        return new Object[]{
+                String.valueOf(now.toEpochMilli()),
+                mode,
+                nullToEmpty(verifiedPasswordHash),
+                String.valueOf(view.getViewsLeft()),
+                String.valueOf(view.getExpiresAt().toEpochMilli()),
+                view.isActive() ? "1" : "0",
+                view.isDeleted() ? "1" : "0",
+                nullToEmpty(view.getPasswordHash()),
+                String.valueOf(view.getViewTimeSeconds()),
+                view.isShowTimeBomb() ? "1" : "0",
+                view.getType() == null ? KieruUtil.SecretType.TEXT.name() : view.getType().name(),
+                payloadCacheConfig.isCacheable(view.getEncryptedContent()) ? view.getEncryptedContent() : ""
+        };
+    }
+
+    private ViewConsumptionResult toResult(List<?> reply) {
+        if (reply == null || reply.isEmpty()) {
+            throw new IllegalStateException("View consume script returned an empty reply");
+        }
+
+        ViewConsumptionResult.Status status = ViewConsumptionResult.Status.valueOf(String.valueOf(reply.get(0)));
+        ViewConsumptionResult.ViewConsumptionResultBuilder result = ViewConsumptionResult.builder()
+                .status(status)
+                .viewsLeft(Integer.parseInt(String.valueOf(reply.get(1))));
+
+        if (status == ViewConsumptionResult.Status.PASSWORD_REQUIRED) {
+            return result.passwordHash(String.valueOf(reply.get(2))).build();
+        }
+
+        if (reply.size() > 2) {
+            result.expiresAt(Instant.ofEpochMilli(Long.parseLong(String.valueOf(reply.get(2)))));
+        }
+
+        if (status == ViewConsumptionResult.Status.CONSUMED) {
+            result.viewTimeSeconds(Integer.parseInt(String.valueOf(reply.get(3))))
+                    .showTimeBomb("1".equals(String.valueOf(reply.get(4))))
+                    .type(String.valueOf(reply.get(5)))
+                    .content(reply.size() > 6 && reply.get(6) != null ? String.valueOf(reply.get(6)) : null);
+        }
+
+        return result.build();
+    }
+
+    private static List<String> keys(String secretId) {
+        return List.of(
+                RedisKeyUtil.buildKey(RedisKeyUtil.KeyType.SECRET_STATE, secretId),
+                RedisKeyUtil.buildKey(RedisKeyUtil.KeyType.SECRET_PAYLOAD, secretId)
+        );
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,23 @@
+package com.kieru.backend.util;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Monthly RANGE partitioning of secret_access_logs on accessed_at (Postgres only, AccessLogPartitionJob).
+ * Retention comes from app.purge.access-log-retention-days.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.access-log.partitioning")
+@Data
+public class AccessLogPartitionConfig {
+
+    private boolean enabled = true;
+
+    // Months created ahead of the current one, so inserts never wait on DDL
+    private int premakeMonths = 3;
+
+    // Detach/drop need a short exclusive lock on the parent, give up rather than queue behind long readers
+    private long lockTimeoutMs = 5000;
+}
@@ -0,0 +1,40 @@
+package com.kieru.backend.util;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Access-log ingestion. Entries are buffered in a bounded queue and written
+ * by a single drainer thread in batches of up to batchSize rows.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.access-log")
+@Data
+public class AccessLogWriterConfig {
+
+    public enum OverflowPolicy {
+        BLOCK,          // Wait up to blockTimeoutMs for space, then drop
+        DROP_OLDEST,    // Evict the oldest queued entry to make room
+        SAMPLE          // Above sampleThreshold keep only sampleRate of new entries, drop when full
+    }
+
+    private int queueCapacity = 10000;
+    private int batchSize = 500;
+    private long flushIntervalMs = 1000;
+
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+    private long blockTimeoutMs = 50;
+
+    // Queue fill ratio (0..1) at which SAMPLE starts thinning, and the fraction it keeps
+    private double sampleThreshold = 0.8;
+    private double sampleRate = 0.1;
+
+    // After a batch fails for a reason other than a bad row (DB down or slow), batches are dropped whole for this
+    // long, doubling with every further failure up to maxOutageBackoffMs, so the drainer keeps the queue moving
+    private long outageBackoffMs = 1000;
+    private long maxOutageBackoffMs = 30000;
+
+    // Max time the drainer gets on shutdown to write what is still queued
+    private long shutdownTimeoutMs = 10000;
+}
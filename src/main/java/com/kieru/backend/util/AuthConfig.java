@@ -0,0 +1,40 @@
+package com.kieru.backend.util;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ID token verification (TokenVerifier). FIREBASE needs FIREBASE_CREDENTIALS and Google's key endpoint,
+ * LOCAL checks RS256 tokens against the keys configured here and never leaves the process
+ * (load tests, benchmarks, offline development).
+ */
+@Component
+@ConfigurationProperties(prefix = "app.auth")
+@Data
+public class AuthConfig {
+
+    public enum Verifier {
+        FIREBASE,
+        LOCAL
+    }
+
+    private Verifier verifier = Verifier.FIREBASE;
+
+    private Local local = new Local();
+
+    @Data
+    public static class Local {
+        // kid -> RSA public key, base64 X.509 (PEM armor allowed)
+        private Map<String, String> publicKeys = new LinkedHashMap<>();
+
+        // Required: the token's iss and aud (https://securetoken.google.com/{project} and {project} for Firebase keys)
+        private String issuer;
+        private String audience;
+
+        private long clockSkewSeconds = 60;
+    }
+}
@@ -0,0 +1,22 @@
+package com.kieru.backend.util;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Live per-day counters in Redis (DailyCounterStore), snapshotted nightly by DailyAnalyticsJob.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.daily-counters")
+@Data
+public class DailyCounterConfig {
+
+    private boolean enabled = true;
+
+    // Hot path only touches memory, buffered counts reach Redis in one pipeline per flush
+    private long flushIntervalMs = 1000;
+
+    // How long a day's counters stay in Redis after it starts, must cover the nightly snapshot
+    private int retentionDays = 8;
+}
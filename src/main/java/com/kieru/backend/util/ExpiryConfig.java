@@ -0,0 +1,28 @@
+package com.kieru.backend.util;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Expiry of secrets. ExpiryIndex (Redis) drives it within seconds of expiresAt,
+ * the DB sweep only catches what the index missed (Redis down at create time, flushed, ...).
+ */
+@Component
+@ConfigurationProperties(prefix = "app.expiry")
+@Data
+public class ExpiryConfig {
+
+    private boolean enabled = true;
+
+    private long pollIntervalMs = 5000;
+    private int batchSize = 500;
+
+    // Per poll, whatever is left is claimed by the next one
+    private int maxBatchesPerPoll = 20;
+
+    private String sweepCron = "0 0 */6 * * *";
+
+    // Chunks of batchSize per sweep run
+    private int maxSweepChunks = 40;
+}
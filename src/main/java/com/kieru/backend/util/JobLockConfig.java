@@ -0,0 +1,29 @@
+package com.kieru.backend.util;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Locks for @JobLock jobs, so every replica can keep @Scheduled enabled and each run still happens once.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.job-lock")
+@Data
+public class JobLockConfig {
+
+    public enum Provider {
+        REDIS,
+        MEMORY   // Single node / tests
+    }
+
+    // false = every node runs every job (no lock, no history)
+    private boolean enabled = true;
+
+    private Provider provider = Provider.REDIS;
+
+    // Recorded in job_run_history and in the lock value, defaults to the host name
+    private String nodeId;
+
+    private int historyRetentionDays = 30;
+}
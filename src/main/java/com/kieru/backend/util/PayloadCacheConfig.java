@@ -0,0 +1,24 @@
+package com.kieru.backend.util;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Redis payload tier. Postgres stays the source of truth, Redis only holds a copy
+ * of small payloads for as long as the secret can still be viewed.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.payload-cache")
+@Data
+public class PayloadCacheConfig {
+
+    private boolean enabled = true;
+
+    // Payloads larger than this (in chars of the encrypted string) are always read from the DB
+    private int maxSize = 262144;
+
+    public boolean isCacheable(String content) {
+        return enabled && content != null && !content.isEmpty() && content.length() <= maxSize;
+    }
+}
@@ -0,0 +1,189 @@
+package com.kieru.backend.util;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Encodes secret content for the encoded_content (bytea) column.
+ *
+ * Layout: [header][body]
+ *   header low nibble  -> Algorithm (how body is compressed)
+ *   header high nibble -> Format (what body decodes to)
+ *
+ * With binary enabled, base64 content is decoded once at ingestion and stored as raw ciphertext
+ * (3/4 of the text size), then re-encoded on read so the API contract does not change.
+ *
+ * Rows written before the codec existed only have encrypted_content (text) and are read as-is
+ * until PayloadMigrationJob rewrites them.
+ */
+@Component
+@RequiredArgsConstructor
+public class PayloadCodec {
+
+    public enum Algorithm {
+        IDENTITY(0),
+        GZIP(1),
+        DEFLATE(2);
+
+        private final int id;
+
+        Algorithm(int id) {
+            this.id = id;
+        }
+
+        static Algorithm fromId(int id) {
+            for (Algorithm algorithm : values()) {
+                if (algorithm.id == id) {
+                    return algorithm;
+                }
+            }
+            throw new IllegalStateException("Unknown payload algorithm: " + id);
+        }
+    }
+
+    public enum Format {
+        TEXT(0),    // UTF-8 of the encrypted string as submitted
+        BINARY(1);  // Raw ciphertext, the submitted string was canonical base64 and is re-encoded on read
+
+        private final int id;
+
+        Format(int id) {
+            this.id = id;
+        }
+
+        static Format fromId(int id) {
+            for (Format format : values()) {
+                if (format.id == id) {
+                    return format;
+                }
+            }
+            throw new IllegalStateException("Unknown payload format: " + id);
+        }
+    }
+
+    private final PayloadCodecConfig config;
+
+    public byte[] encode(String content) {
+        byte[] binary = config.isBinary() ? decodeCanonicalBase64(content) : null;
+        Format format = binary != null ? Format.BINARY : Format.TEXT;
+        byte[] raw = binary != null ? binary : content.getBytes(StandardCharsets.UTF_8);
+
+        Algorithm algorithm = raw.length >= config.getThreshold() ? config.getAlgorithm() : Algorithm.IDENTITY;
+        byte[] body = algorithm == Algorithm.IDENTITY ? raw : compress(raw, algorithm);
+
+        // Not worth it (already dense data), keep the original bytes
+        if (body.length >= raw.length) {
+            algorithm = Algorithm.IDENTITY;
+            body = raw;
+        }
+
+        byte[] encoded = new byte[body.length + 1];
+        encoded[0] = header(format, algorithm);
+        System.arraycopy(body, 0, encoded, 1, body.length);
+        return encoded;
+    }
+
+    public String decode(byte[] encoded) {
+        byte[] body = decodeBody(encoded);
+
+        return switch (Format.fromId((encoded[0] >> 4) & 0x0F)) {
+            case TEXT -> new String(body, StandardCharsets.UTF_8);
+            case BINARY -> Base64.getEncoder().encodeToString(body);
+        };
+    }
+
+    /**
+     * Decompressed body without the format step: raw ciphertext for BINARY, UTF-8 text for TEXT.
+     */
+    public byte[] decodeBody(byte[] encoded) {
+        if (encoded == null || encoded.length == 0) {
+            throw new IllegalStateException("Encoded payload is empty");
+        }
+
+        Algorithm algorithm = Algorithm.fromId(encoded[0] & 0x0F);
+        return algorithm == Algorithm.IDENTITY
+                ? Arrays.copyOfRange(encoded, 1, encoded.length)
+                : decompress(encoded, algorithm);
+    }
+
+    /**
+     * Legacy-aware read: the text column wins when present (rows written before the codec).
+     */
+    public String decode(String legacyContent, byte[] encoded) {
+        return legacyContent != null ? legacyContent : (encoded == null ? null : decode(encoded));
+    }
+
+    /**
+     * Header of a payload stored as raw, uncompressed ciphertext: body bytes can be streamed
+     * (and sliced) straight from storage without decoding.
+     */
+    public static byte rawBinaryHeader() {
+        return header(Format.BINARY, Algorithm.IDENTITY);
+    }
+
+    public static boolean isBinary(byte header) {
+        return ((header >> 4) & 0x0F) == Format.BINARY.id;
+    }
+
+    /**
+     * True when reading the value costs a decompression, i.e. it should wait until a view is actually granted.
+     */
+    public boolean isCompressed(byte[] encoded) {
+        return encoded != null && encoded.length > 0 && (encoded[0] & 0x0F) != Algorithm.IDENTITY.id;
+    }
+
+    /**
+     * Decoded bytes, or null when re-encoding them would not give back exactly the same string
+     * (not base64, missing padding, non-zero trailing bits, line breaks, ...), in which case it is stored as TEXT.
+     */
+    private static byte[] decodeCanonicalBase64(String content) {
+        if (content.length() % 4 != 0) {
+            return null;
+        }
+        try {
+            byte[] decoded = Base64.getDecoder().decode(content);
+            return Base64.getEncoder().encodeToString(decoded).equals(content) ? decoded : null;
+        }
+        catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static byte header(Format format, Algorithm algorithm) {
+        return (byte) ((format.id << 4) | algorithm.id);
+    }
+
+    private static byte[] compress(byte[] raw, Algorithm algorithm) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, raw.length / 2));
+        try (OutputStream out = algorithm == Algorithm.GZIP ? new GZIPOutputStream(buffer) : new DeflaterOutputStream(buffer)) {
+            out.write(raw);
+        }
+        catch (IOException e) {
+            throw new IllegalStateException("Failed to compress payload", e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static byte[] decompress(byte[] encoded, Algorithm algorithm) {
+        ByteArrayInputStream source = new ByteArrayInputStream(encoded, 1, encoded.length - 1);
+        try (InputStream in = algorithm == Algorithm.GZIP ? new GZIPInputStream(source) : new InflaterInputStream(source)) {
+            return in.readAllBytes();
+        }
+        catch (IOException e) {
+            throw new IllegalStateException("Failed to decompress payload", e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.kieru.backend.util;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Storage codec for secret_payload.encoded_content.
+ * Payloads of at least threshold bytes are compressed with the configured algorithm,
+ * smaller ones (and ones that do not shrink) are stored as-is behind the header byte.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.payload-codec")
+@Data
+public class PayloadCodecConfig {
+
+    private PayloadCodec.Algorithm algorithm = PayloadCodec.Algorithm.GZIP;
+
+    private int threshold = 1024;
+
+    // Store canonical base64 payloads as raw bytes (decoded once at ingestion)
+    private boolean binary = true;
+
+    private Migration migration = new Migration();
+
+    /**
+     * Background rewrite of legacy rows (encrypted_content text -> encoded_content bytes).
+     */
+    @Data
+    public static class Migration {
+        private boolean enabled = false;
+        private int batchSize = 200;
+        // Upper bound per run, so one run never holds the DB for long
+        private int maxRowsPerRun = 20000;
+    }
+}
@@ -0,0 +1,33 @@
+package com.kieru.backend.util;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Where streamed (image) payload bodies are written. Reads always follow the storage_key recorded on the
+ * payload row, so switching the type only affects new secrets.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.payload-store")
+@Data
+public class PayloadStoreConfig {
+
+    public enum Type {
+        DATABASE,   // secret_payload.encoded_content
+        FILE        // Local or NFS directory, the row only keeps storage_key + content_length
+    }
+
+    private Type type = Type.DATABASE;
+
+    private File file = new File();
+
+    @Data
+    public static class File {
+        // Shared by every node when on NFS
+        private String root = "./data/payloads";
+
+        // fsync each body before the secret is committed
+        private boolean sync = true;
+    }
+}
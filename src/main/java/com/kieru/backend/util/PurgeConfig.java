@@ -0,0 +1,32 @@
+package com.kieru.backend.util;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hard purge of data that can never be served again (SecretPurgeJob).
+ * Every chunk is one short transaction of at most batchSize rows, followed by a throttleMs pause.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.purge")
+@Data
+public class PurgeConfig {
+
+    private boolean enabled = true;
+
+    private long intervalMs = 300000;
+    private int batchSize = 500;
+    private long throttleMs = 200;
+
+    // Per phase and per run, so one run never holds the DB for long
+    private int maxChunksPerRun = 200;
+    private long maxRunMs = 120000;
+
+    // Payloads of consumed/expired/deleted secrets go after this grace (lets an in-flight download finish)
+    private long payloadGraceMinutes = 15;
+
+    // Metadata (with its access logs) of dead secrets, then access logs of any secret
+    private int secretRetentionDays = 30;
+    private int accessLogRetentionDays = 90;
+}
@@ -0,0 +1,21 @@
+package com.kieru.backend.util;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Node-local rate limit leases (RateLimitLeases), used by @RateLimit(leased = true) endpoints.
+ * A lease is at most min(maxBlockSize, limit * blockFraction) requests and lives leaseTtlMs.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.rate-limit-lease")
+@Data
+public class RateLimitLeaseConfig {
+
+    private boolean enabled = true;
+    private int maxBlockSize = 16;
+    private double blockFraction = 0.2;
+    private long leaseTtlMs = 5000;
+    private int maxEntries = 10000;
+}
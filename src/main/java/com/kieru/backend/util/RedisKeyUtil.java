@@ -10,12 +10,24 @@ public class RedisKeyUtil {
 
     @Getter
     public enum KeyType {
-        VIEWS_LEFT("views:left"),
+        SECRET_STATE("secret:state"),  // Hash: views, exp, active, deleted, pwd, vts, bomb, type
+        SECRET_PAYLOAD("secret:payload"),
+        EXPIRY_INDEX("secret:expiry"),  // ZSET: secret id scored by expiresAt (epoch ms)
         SUBSCRIPTION_PLAN("subscription:plan"),
+        USER_PRINCIPAL("user:principal"),  // Hash: email, name, photo, role, plan, provider, banned, sv, revoked, joined, created
+        USER_PRINCIPAL_CHANNEL("user:principal:invalidate"),  // Pub/sub channel, message = user id
+        USER_PRINCIPAL_GENERATION("user:principal:gen"),  // Counter bumped by every invalidation of the user
         RATE_LIMIT_DAILY_USER("limit:daily:user"),
         RATE_LIMIT_DAILY_IP("limit:daily:ip"),
         RATE_LIMIT_FAILED_ATTEMPT("limit:failed"),
 
+        // --- ANALYTICS ---
+        STATS_DAY("stats:day"),  // Usage: stats:day:{yyyy-MM-dd} hash, stats:day:{date}:users|viewers HyperLogLog
+
+        // --- JOBS ---
+        JOB_LOCK("job:lock"),  // Usage: job:lock:{name}, value = owning node + run
+        PURGE_CHECKPOINT("job:purge:checkpoint"),  // Usage: job:purge:checkpoint:{phase}, keyset cursor
+
         // --- IDEMPOTENCY ---
         IDEMPOTENCY_KEY("processed");  // Usage: processed:{requestId}
 
@@ -0,0 +1,28 @@
+package com.kieru.backend.util;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hourly analytics rollup (HourlyRollupJob) and its backfill.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.rollup")
+@Data
+public class RollupConfig {
+
+    private boolean enabled = true;
+
+    // An hour is rolled up once it closed this long ago (access logs are written asynchronously)
+    private long lagMinutes = 5;
+
+    // Caps one incremental run after downtime, the rest follows on the next runs
+    private int maxHoursPerRun = 48;
+
+    // Where a fresh install starts, older days are filled by a backfill
+    private int initialLookbackHours = 48;
+
+    // Widest range a single backfill request may cover
+    private int maxBackfillDays = 400;
+}
@@ -0,0 +1,34 @@
+package com.kieru.backend.util;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Session revocation. Logout rotates User.sessionVersion and stamps User.sessionsRevokedAt, FirebaseAuthFilter then
+ * rejects every ID token issued before that stamp (header or not) and, when the client sends X-Session-Version
+ * (the version /api/auth/login returned), any other version.
+ *
+ * Revocation is per user: logout ends the sessions of every device, not just the calling one. Login does not
+ * rotate the version, so signing in on a second device never logs the first one out.
+ *
+ * The current version comes from UserPrincipalCache, so the check costs no DB read. A revoked session can
+ * stay accepted for at most app.user-cache.local-ttl-seconds on a node that missed the pub/sub invalidation.
+ * A rejection re-reads the user (shared Redis tier first, then the DB) at most once per user per
+ * recheckIntervalMs, in case this node's copy is the stale one; replayed revoked tokens cost no more than that.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.session")
+@Data
+public class SessionConfig {
+
+    public enum Enforcement {
+        OFF,      // Header ignored
+        LENIENT,  // Header optional: tokens issued before logout and stale versions are rejected
+        STRICT    // Header required as well (once every client sends it)
+    }
+
+    private Enforcement enforcement = Enforcement.LENIENT;
+    private String header = "X-Session-Version";
+    private long recheckIntervalMs = 2000;
+}
@@ -0,0 +1,20 @@
+package com.kieru.backend.util;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-process cache of verified Firebase ID tokens (VerifiedTokenCache), per node.
+ * An entry never outlives the token's exp claim minus expirySkewSeconds, nor maxTtlSeconds.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.token-cache")
+@Data
+public class TokenCacheConfig {
+
+    private boolean enabled = true;
+    private int maxEntries = 10000;
+    private long maxTtlSeconds = 900;
+    private long expirySkewSeconds = 30;
+}
@@ -0,0 +1,26 @@
+package com.kieru.backend.util;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Authenticated user principals (UserPrincipalCache) and the coalesced lastLoginAt writes (LastLoginWriter).
+ * The local tier is per node, the Redis tier is shared. Changes made through the app are pushed to every node
+ * over pub/sub, changes made directly in the DB show up after the TTLs.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.user-cache")
+@Data
+public class UserCacheConfig {
+
+    private boolean enabled = true;
+
+    private int localMaxEntries = 10000;
+    private long localTtlSeconds = 30;
+    private long redisTtlSeconds = 600;
+
+    // lastLoginAt is written at most once per user per interval
+    private long lastLoginIntervalSeconds = 300;
+    private long lastLoginFlushMs = 5000;
+}
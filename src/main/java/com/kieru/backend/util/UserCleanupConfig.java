@@ -0,0 +1,26 @@
+package com.kieru.backend.util;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deletion of inactive users (UserCleanupJob). Every chunk is one short transaction of at most batchSize rows,
+ * followed by a throttleMs pause, so the cleanup never holds locks or floods the WAL.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.user-cleanup")
+@Data
+public class UserCleanupConfig {
+
+    private int batchSize = 500;
+    private long throttleMs = 250;
+
+    // Per run, whatever is left goes on the next day
+    private int maxChunksPerRun = 400;
+    private long maxRunMs = 600000;
+
+    // ANONYMOUS + EXPLORER users, and ANONYMOUS only
+    private int inactiveDays = 180;
+    private int anonymousInactiveDays = 30;
+}
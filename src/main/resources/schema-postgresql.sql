@@ -0,0 +1,20 @@
+-- Runs on every start before Hibernate (spring.sql.init), so everything here must be idempotent.
+-- ddl-auto=update only adds columns, constraint changes on existing tables go here.
+
+-- PayloadCodec writes encoded_content, the legacy text column stays for old rows only
+ALTER TABLE IF EXISTS secret_payload ALTER COLUMN encrypted_content DROP NOT NULL;
+
+-- Binary payloads are already-encrypted ciphertext, pglz cannot shrink them: keep them out of line
+-- without TOAST compression. Column is created here too so this also works before Hibernate adds it
+-- (on a brand-new database the table does not exist yet and this applies from the next start).
+ALTER TABLE IF EXISTS secret_payload ADD COLUMN IF NOT EXISTS encoded_content bytea;
+ALTER TABLE IF EXISTS secret_payload ALTER COLUMN encoded_content SET STORAGE EXTERNAL;
+
+-- UserCleanupJob walks users by (COALESCE(last_login_at, joined_at), id), JPA cannot declare an expression index.
+-- The DO body is single-quoted (not $$) so spring.sql.init does not split it on the inner semicolons,
+-- and guarded because on a brand-new database the table only exists from the next start.
+DO 'BEGIN
+    IF to_regclass(''kieru_users'') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS idx_kieru_users_activity ON kieru_users ((COALESCE(last_login_at, joined_at)), id);
+    END IF;
+END';
@@ -0,0 +1,14 @@
+-- Claims the secrets whose expiry time has passed from the expiry index.
+--
+-- KEYS[1] : expiry index (secret:expiry), member = secret id, score = expiresAt (epoch ms)
+-- ARGV[1] : now (epoch ms)
+-- ARGV[2] : max members to claim
+--
+-- Read and remove happen in one call, so two nodes draining the index never claim the same id.
+-- Returns the claimed ids, oldest expiry first.
+
+local due = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2]))
+if #due > 0 then
+    redis.call('ZREM', KEYS[1], unpack(due))
+end
+return due
@@ -0,0 +1,26 @@
+-- Owner-checked operations on a scheduled job lock.
+--
+-- KEYS[1] : job lock (job:lock:{name}), value = owner
+-- ARGV[1] : owner
+-- ARGV[2] : mode -> "extend" | "unlock"
+-- ARGV[3] : extend -> new lease (ms), unlock -> time to keep the lock (ms, 0 = delete)
+--
+-- Returns 1 when the lock was held by the owner, 0 otherwise (expired, or taken by another node).
+
+if redis.call('GET', KEYS[1]) ~= ARGV[1] then
+    return 0
+end
+
+local ms = tonumber(ARGV[3])
+if ARGV[2] == 'extend' then
+    redis.call('PEXPIRE', KEYS[1], ms)
+elseif ms > 0 then
+    -- Never extends: a run that outlived lockAtLeast is released right away
+    local ttl = redis.call('PTTL', KEYS[1])
+    if ttl > ms then
+        redis.call('PEXPIRE', KEYS[1], ms)
+    end
+else
+    redis.call('DEL', KEYS[1])
+end
+return 1
@@ -0,0 +1,22 @@
+-- Late fill of the payload tier, used after a DB read when the payload was not cached at seed time
+-- (e.g. stored compressed, decoded only once a view was granted).
+--
+-- KEYS[1] : secret state hash (secret:state:{id})
+-- KEYS[2] : cached payload    (secret:payload:{id})
+-- ARGV[1] : payload
+--
+-- Only caches while the state still allows views, with the state's remaining TTL.
+-- Returns 1 when cached, 0 otherwise.
+
+local state = redis.call('HMGET', KEYS[1], 'views', 'active', 'deleted')
+if (tonumber(state[1]) or 0) <= 0 or state[2] ~= '1' or state[3] == '1' then
+    return 0
+end
+
+local ttl = redis.call('PTTL', KEYS[1])
+if ttl <= 0 then
+    return 0
+end
+
+redis.call('SET', KEYS[2], ARGV[1], 'PX', ttl)
+return 1
@@ -0,0 +1,20 @@
+-- Fills the shared principal tier after a DB read, unless the user was invalidated since that read.
+--
+-- KEYS[1] : principal hash       (user:principal:{id})
+-- KEYS[2] : invalidation counter (user:principal:gen:{id})
+-- ARGV[1] : counter value read before the DB load ("0" = no counter)
+-- ARGV[2] : ttl (seconds)
+-- ARGV[3..] : field, value, field, value...
+--
+-- Returns 1 when cached, 0 when an invalidate() ran in between (the row read may predate it).
+
+if (redis.call('GET', KEYS[2]) or '0') ~= ARGV[1] then
+    return 0
+end
+
+redis.call('DEL', KEYS[1])
+for i = 3, #ARGV, 2 do
+    redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1])
+end
+redis.call('EXPIRE', KEYS[1], ARGV[2])
+return 1
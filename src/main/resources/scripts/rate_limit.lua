@@ -0,0 +1,50 @@
+-- GCRA rate limit with lockout, executed atomically inside Redis.
+--
+-- KEYS[1] : limiter state (ratelimit:{type}:{endpoint}:{id}), value = theoretical arrival time (epoch millis)
+-- KEYS[2] : lockout       (ratelimit:lock:{id})
+-- ARGV[1] : limit  -> requests per period, also the burst size
+-- ARGV[2] : period (ms)
+-- ARGV[3] : lockout (ms) applied when a request is rejected, 0 = none
+-- ARGV[4] : tokens   -> most requests to take at once (a lease, see RateLimitLeases), optional, default 1
+--
+-- Returns { status, value[, granted] }:
+--   1, remaining, granted -> allowed, requests left before the limit and requests taken (1..tokens)
+--   0, retryAfter  -> rejected, ms until the caller may try again (the lockout when one was applied)
+--  -1, retryAfter  -> already locked out, ms left on the lockout
+--
+-- Time comes from the Redis server, so every node sees the same clock. Each request moves the TAT forward by
+-- period / limit: a smooth sliding window with no 2x burst at window boundaries. Every key carries a TTL.
+
+local lockTtl = redis.call('PTTL', KEYS[2])
+if lockTtl > 0 then
+    return { -1, lockTtl }
+end
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local limit = tonumber(ARGV[1])
+local period = tonumber(ARGV[2])
+local lockout = tonumber(ARGV[3])
+local tokens = tonumber(ARGV[4] or '1')
+local interval = period / limit
+
+local tat = tonumber(redis.call('GET', KEYS[1]) or now)
+if tat < now then
+    tat = now
+end
+
+-- The TAT may run at most one period ahead of now (the epsilon absorbs the 3 decimals the TAT is stored with)
+local available = math.floor((now + period - tat) / interval + 0.000001)
+if available < 1 then
+    if lockout > 0 then
+        redis.call('SET', KEYS[2], '1', 'PX', lockout)
+        return { 0, lockout }
+    end
+    return { 0, math.ceil(tat + interval - period - now) }
+end
+
+local granted = math.min(tokens, available)
+local newTat = tat + granted * interval
+redis.call('SET', KEYS[1], string.format('%.3f', newTat), 'PX', math.ceil(newTat - now))
+return { 1, available - granted, granted }
@@ -0,0 +1,135 @@
+-- View consumption for a single secret, executed atomically inside Redis.
+--
+-- KEYS[1] : secret state hash (secret:state:{id})
+-- KEYS[2] : cached payload    (secret:payload:{id})
+-- ARGV[1] : now (epoch millis)
+-- ARGV[2] : mode -> "consume" | "seed-consume" | "seed" | "pin"
+-- ARGV[3] : password hash the caller has already verified ("" if none)
+-- ARGV[4..12] (seed modes only):
+--           viewsLeft, expiresAt (epoch millis), active (1/0), deleted (1/0),
+--           passwordHash, viewTimeSeconds, showTimeBomb (1/0), type,
+--           payload ("" = not cached)
+-- ARGV[4..] (pin only): ttl (millis, used when the key does not exist yet), field, value, field, value...
+--
+-- Returns: { status, viewsLeft, ... }
+--   CONSUMED          -> { status, viewsLeft, expiresAt, viewTimeSeconds, showTimeBomb, type, payload|nil }
+--   PASSWORD_REQUIRED -> { status, viewsLeft, passwordHash }
+--   anything else     -> { status, viewsLeft, expiresAt }
+--
+-- The payload is only returned in "consume" mode; seeding callers already hold it.
+-- When the last view is consumed the payload is removed with GETDEL, so burn-after-reading
+-- secrets are served and destroyed in the same call.
+--
+-- "pin" writes committed changes (deleted, pwd) that must survive a concurrent re-seed: when no state
+-- exists yet it creates a partial hash (no 'views'), and "seed-consume" completes a partial hash without
+-- overwriting the pinned fields. A seed built from a row read before the change can never undo it.
+
+local key = KEYS[1]
+local payloadKey = KEYS[2]
+local now = tonumber(ARGV[1])
+local mode = ARGV[2]
+
+local seedFields = { 'views', 'exp', 'active', 'deleted', 'pwd', 'vts', 'bomb', 'type' }
+
+local function seed(overwrite)
+    if not overwrite and redis.call('EXISTS', key) == 1 and redis.call('HEXISTS', key, 'views') == 0 then
+        -- Partial hash left by "pin": fill in the rest, the pinned fields win
+        for i, field in ipairs(seedFields) do
+            redis.call('HSETNX', key, field, ARGV[i + 3])
+        end
+        return
+    end
+    if overwrite or redis.call('EXISTS', key) == 0 then
+        redis.call('HSET', key,
+                'views', ARGV[4],
+                'exp', ARGV[5],
+                'active', ARGV[6],
+                'deleted', ARGV[7],
+                'pwd', ARGV[8],
+                'vts', ARGV[9],
+                'bomb', ARGV[10],
+                'type', ARGV[11])
+
+        -- Align the key with the secret lifetime. Already-dead secrets are kept
+        -- for a minute so repeated hits are still answered without the DB.
+        local ttl = tonumber(ARGV[5]) - now
+        if ttl <= 0 then
+            ttl = 60000
+        elseif ARGV[12] and ARGV[12] ~= '' and ARGV[6] == '1' and ARGV[7] == '0' then
+            redis.call('SET', payloadKey, ARGV[12], 'PX', ttl)
+        end
+        redis.call('PEXPIRE', key, ttl)
+    end
+end
+
+local function reject(status, views, exp)
+    redis.call('DEL', payloadKey)
+    return { status, views, exp }
+end
+
+if mode == 'pin' then
+    local created = redis.call('EXISTS', key) == 0
+    for i = 5, #ARGV, 2 do
+        redis.call('HSET', key, ARGV[i], ARGV[i + 1])
+    end
+    if created then
+        redis.call('PEXPIRE', key, ARGV[4])
+    end
+    redis.call('DEL', payloadKey)
+    return { 'PINNED', -1 }
+end
+
+if mode == 'seed' then
+    seed(true)
+    return { 'SEEDED', tonumber(ARGV[4]) }
+end
+
+if mode == 'seed-consume' then
+    seed(false)
+elseif redis.call('HEXISTS', key, 'views') == 0 then
+    -- No state, or only pinned fields: the caller seeds from the DB
+    return { 'MISS', -1 }
+end
+
+local state = redis.call('HMGET', key, 'views', 'exp', 'active', 'deleted', 'pwd', 'vts', 'bomb', 'type')
+local views = tonumber(state[1]) or 0
+local exp = state[2]
+
+if state[4] == '1' then
+    return reject('DELETED', views, exp)
+end
+
+if now >= tonumber(exp) then
+    redis.call('HSET', key, 'active', '0')
+    return reject('EXPIRED', views, exp)
+end
+
+if state[3] ~= '1' then
+    return reject('INACTIVE', views, exp)
+end
+
+local pwd = state[5]
+if pwd and pwd ~= '' and pwd ~= ARGV[3] then
+    return { 'PASSWORD_REQUIRED', views, pwd }
+end
+
+if views <= 0 then
+    redis.call('HSET', key, 'active', '0')
+    return reject('EXHAUSTED', 0, exp)
+end
+
+views = redis.call('HINCRBY', key, 'views', -1)
+
+local payload = false
+if views <= 0 then
+    redis.call('HSET', key, 'active', '0')
+    if mode == 'consume' then
+        payload = redis.call('GETDEL', payloadKey)
+    else
+        redis.call('DEL', payloadKey)
+    end
+elseif mode == 'consume' then
+    payload = redis.call('GET', payloadKey)
+end
+
+return { 'CONSUMED', views, exp, state[6], state[7], state[8], payload }
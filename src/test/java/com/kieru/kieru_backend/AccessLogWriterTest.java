@@ -0,0 +1,71 @@
+package com.kieru.kieru_backend;
+
+import com.kieru.backend.dto.CreateAccessLog;
+import com.kieru.backend.service.impl.AccessLogWriterImpl;
+import com.kieru.backend.util.AccessLogWriterConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * The DB is a mock JdbcTemplate: only which statements the drainer attempts is asserted.
+ */
+class AccessLogWriterTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private AccessLogWriterImpl writer;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        AccessLogWriterConfig config = new AccessLogWriterConfig();
+        config.setFlushIntervalMs(20);
+        writer = new AccessLogWriterImpl(jdbcTemplate, config, meterRegistry);
+    }
+
+    @Test
+    void badRowIsRetriedRowByRow() {
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class)))
+                .thenThrow(new DataIntegrityViolationException("fk"));
+        when(jdbcTemplate.update(anyString(), any(PreparedStatementSetter.class)))
+                .thenReturn(1)
+                .thenThrow(new DataIntegrityViolationException("fk"))
+                .thenReturn(1);
+
+        writeThree();
+
+        verify(jdbcTemplate, times(3)).update(anyString(), any(PreparedStatementSetter.class));
+        assertEquals(2, meterRegistry.counter("kieru.access_log.written").count());
+        assertEquals(1, meterRegistry.counter("kieru.access_log.dropped", "reason", "failed").count());
+    }
+
+    @Test
+    void unavailableDatabaseDropsTheBatchWhole() {
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class)))
+                .thenThrow(new CannotGetJdbcConnectionException("connection timeout"));
+
+        writeThree();
+
+        verify(jdbcTemplate, never()).update(anyString(), any(PreparedStatementSetter.class));
+        assertEquals(3, meterRegistry.counter("kieru.access_log.dropped", "reason", "unavailable").count());
+    }
+
+    private void writeThree() {
+        writer.start();
+        for (int i = 0; i < 3; i++) {
+            writer.submit(CreateAccessLog.builder().secretId("s-" + i).wasSuccessful(true).build());
+        }
+        writer.stop();
+    }
+}
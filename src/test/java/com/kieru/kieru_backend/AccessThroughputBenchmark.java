@@ -0,0 +1,99 @@
+package com.kieru.kieru_backend;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load against POST /api/secrets/{id}/access of a running instance.
+ * Not a unit test: skipped unless kieru.bench.url is set, and not matched by surefire's default includes.
+ *
+ * Compare thread models by starting the app twice (VIRTUAL_THREADS=false, then true) against the same
+ * Redis/Postgres and running:
+ *
+ *   ./mvnw test -Dtest=AccessThroughputBenchmark -Dkieru.bench.url=http://localhost:8080 \
+ *       -Dkieru.bench.concurrency=1000,5000 -Dkieru.bench.seconds=30
+ *
+ * Without kieru.bench.secret-id an unknown id is used, which still walks the full blocking path
+ * (Redis miss -> DB lookup -> 404). Every caller sends its own X-Forwarded-For so the IP rate limit
+ * does not dominate the numbers; raise the OS open-file limit before going to 5k connections.
+ */
+@EnabledIfSystemProperty(named = "kieru.bench.url", matches = ".+")
+class AccessThroughputBenchmark {
+
+    @Test
+    void accessEndpointThroughput() throws Exception {
+        String baseUrl = System.getProperty("kieru.bench.url");
+        String secretId = System.getProperty("kieru.bench.secret-id", "bench-missing-secret");
+        int seconds = Integer.getInteger("kieru.bench.seconds", 30);
+        int[] levels = Arrays.stream(System.getProperty("kieru.bench.concurrency", "1000,5000").split(","))
+                .map(String::trim).mapToInt(Integer::parseInt).toArray();
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        URI uri = URI.create(baseUrl + "/api/secrets/" + secretId + "/access");
+
+        for (int concurrency : levels) {
+            run(client, uri, concurrency, Duration.ofSeconds(seconds));
+        }
+    }
+
+    private static void run(HttpClient client, URI uri, int concurrency, Duration duration) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(concurrency);
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        AtomicLong errors = new AtomicLong();
+        AtomicLong callers = new AtomicLong();
+
+        long deadline = System.nanoTime() + duration.toNanos();
+        while (System.nanoTime() < deadline) {
+            inFlight.acquire();
+            long caller = callers.incrementAndGet();
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .header("X-Forwarded-For", "10." + (caller >> 16 & 255) + "." + (caller >> 8 & 255) + "." + (caller & 255))
+                    .POST(HttpRequest.BodyPublishers.ofString("{}"))
+                    .build();
+
+            long start = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                // 404/410 are valid answers of the access path, only transport errors and 5xx/429 count as failures
+                if (error != null || response.statusCode() >= 500 || response.statusCode() == 429) {
+                    errors.incrementAndGet();
+                }
+                else {
+                    latencies.add(System.nanoTime() - start);
+                }
+                inFlight.release();
+            });
+        }
+        inFlight.acquire(concurrency);
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        sorted.sort(Long::compare);
+        double throughput = sorted.size() / (double) duration.toSeconds();
+        System.out.printf("concurrency=%d ok=%d errors=%d throughput=%.1f req/s p50=%.1f ms p99=%.1f ms%n",
+                concurrency, sorted.size(), errors.get(), throughput, percentileMillis(sorted, 0.50), percentileMillis(sorted, 0.99));
+    }
+
+    private static double percentileMillis(List<Long> sorted, double percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.size() - 1, Math.ceil(percentile * sorted.size()) - 1);
+        return sorted.get(Math.max(0, index)) / 1_000_000.0;
+    }
+}
@@ -0,0 +1,78 @@
+package com.kieru.kieru_backend;
+
+import com.kieru.backend.exception.PayloadTooLargeException;
+import com.kieru.backend.store.FilePayloadStore;
+import com.kieru.backend.store.PayloadStore;
+import com.kieru.backend.util.PayloadStoreConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilePayloadStoreTest {
+
+    @TempDir
+    Path root;
+
+    private FilePayloadStore store;
+
+    @BeforeEach
+    void setUp() {
+        PayloadStoreConfig config = new PayloadStoreConfig();
+        config.getFile().setRoot(root.toString());
+        config.getFile().setSync(false);
+        store = new FilePayloadStore(config);
+    }
+
+    @Test
+    void writesShardedFileAndCopiesItBack() throws Exception {
+        byte[] body = new byte[300 * 1024];
+        new Random(7).nextBytes(body);
+
+        PayloadStore.StoredBody stored = store.write("Ab12cd34Ef", new ByteArrayInputStream(body), body.length);
+
+        assertEquals(body.length, stored.getLength());
+        assertEquals("file:Ab/12/Ab12cd34Ef", stored.getStorageKey());
+        assertTrue(store.holds(stored.getStorageKey()));
+        assertFalse(store.holds(null));
+        assertTrue(Files.exists(root.resolve("Ab/12/Ab12cd34Ef")));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        store.copyTo("Ab12cd34Ef", stored.getStorageKey(), stored.getLength(), out);
+        assertArrayEquals(body, out.toByteArray());
+    }
+
+    @Test
+    void oversizedBodyLeavesNothingBehind() throws Exception {
+        assertThrows(PayloadTooLargeException.class,
+                () -> store.write("Zz99yy88Xx", new ByteArrayInputStream(new byte[2048]), 1024));
+
+        try (Stream<Path> files = Files.walk(root)) {
+            assertTrue(files.noneMatch(Files::isRegularFile));
+        }
+    }
+
+    @Test
+    void deleteUnlinksAndIsIdempotent() throws Exception {
+        PayloadStore.StoredBody stored = store.write("Qq11ww22Ee", new ByteArrayInputStream(new byte[]{1, 2, 3}), 10);
+
+        store.delete("Qq11ww22Ee", stored.getStorageKey());
+        store.delete("Qq11ww22Ee", stored.getStorageKey());
+
+        assertFalse(Files.exists(root.resolve("Qq/11/Qq11ww22Ee")));
+    }
+
+    @Test
+    void rejectsKeysOutsideTheRoot() {
+        assertThrows(IllegalArgumentException.class,
+                () -> store.copyTo("x", "file:../../etc/passwd", 10, new ByteArrayOutputStream()));
+    }
+}
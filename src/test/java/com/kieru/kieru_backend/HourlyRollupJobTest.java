@@ -0,0 +1,179 @@
+package com.kieru.kieru_backend;
+
+import com.kieru.backend.entity.*;
+import com.kieru.backend.job.HourlyRollupJob;
+import com.kieru.backend.repository.*;
+import com.kieru.backend.util.KieruUtil;
+import com.kieru.backend.util.PurgeConfig;
+import com.kieru.backend.util.RollupConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hourly buckets come from the same JDBC statements as on Postgres. The backfill executor runs chunks on the
+ * calling thread here, so they join the test transaction.
+ */
+@JpaSliceTest
+class HourlyRollupJobTest {
+
+    private static final LocalDate DAY = LocalDate.parse("2025-03-01");
+    private static final Instant START = Instant.parse("2025-03-01T00:00:00Z");
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private HourlyStatisticRepository hourlyRepo;
+
+    @Autowired
+    private DailyStatisticRepository statsRepo;
+
+    @Autowired
+    private RollupWatermarkRepository watermarkRepo;
+
+    @Autowired
+    private AccessLogRepository logRepo;
+
+    @Autowired
+    private UserRepository userRepo;
+
+    private HourlyRollupJob job;
+
+    @BeforeEach
+    void setUp() {
+        // DAY is long gone under the default retention, pretend nothing was purged
+        PurgeConfig purgeConfig = new PurgeConfig();
+        purgeConfig.setSecretRetentionDays(100_000);
+        purgeConfig.setAccessLogRetentionDays(100_000);
+        job = job(purgeConfig);
+    }
+
+    private HourlyRollupJob job(PurgeConfig purgeConfig) {
+        return new HourlyRollupJob(new JdbcTemplate(dataSource), new TransactionTemplate(transactionManager), hourlyRepo,
+                statsRepo, watermarkRepo, logRepo, userRepo, new RollupConfig(), purgeConfig, new TaskExecutorAdapter(Runnable::run));
+    }
+
+    @Test
+    void backfillBucketsByHourAndSumsTheDay() {
+        user("u-1", START.plus(30, ChronoUnit.MINUTES));
+        SecretMetadata first = secret("s-1", START.plus(90, ChronoUnit.MINUTES), 40L, new byte[10]);
+        secret("s-2", START.plus(100, ChronoUnit.MINUTES), 8L, new byte[4]);
+        log(first, START.plus(2, ChronoUnit.HOURS), true, "10.0.0.1");
+        log(first, START.plus(2, ChronoUnit.HOURS).plus(5, ChronoUnit.MINUTES), false, "10.0.0.2");
+        log(first, START.plus(1, ChronoUnit.DAYS), true, "10.0.0.3");    // next day, excluded
+        entityManager.flush();
+
+        assertEquals(3, job.backfill(DAY, DAY).join());
+
+        List<HourlyStatistic> hours = hourlyRepo.findByHourStartGreaterThanEqualAndHourStartLessThanOrderByHourStartAsc(START, START.plus(1, ChronoUnit.DAYS));
+        assertEquals(List.of(START, START.plus(1, ChronoUnit.HOURS), START.plus(2, ChronoUnit.HOURS)),
+                hours.stream().map(HourlyStatistic::getHourStart).toList());
+        assertEquals(1, hours.get(0).getNewUsers());
+        assertEquals(2, hours.get(1).getSecretsCreated());
+        assertEquals(48, hours.get(1).getTotalLogicalBytes());
+        assertEquals(14, hours.get(1).getTotalStorageBytes());
+        assertEquals(1, hours.get(2).getSecretsViewed());
+        assertEquals(1, hours.get(2).getSecretsFailedViews());
+
+        DailyStatistic daily = statsRepo.findByDate(DAY).orElseThrow();
+        assertEquals(1, daily.getNewUsers());
+        assertEquals(2, daily.getSecretsCreated());
+        assertEquals(1, daily.getSecretsViewed());
+        assertEquals(1, daily.getSecretsFailedViews());
+        assertEquals(2, daily.getUniqueViewers());
+        assertFalse(job.isBackfillRunning());
+    }
+
+    @Test
+    void backfillIsIdempotentAndKeepsLiveDistinctCountsAndBytes() {
+        secret("s-3", START.plus(5, ChronoUnit.HOURS), 4L, new byte[2]);
+        statsRepo.save(DailyStatistic.builder().date(DAY).activeUsers(7).uniqueViewers(9)
+                .totalStorageBytes(500).totalLogicalBytes(800).build());
+        entityManager.flush();
+
+        job.backfill(DAY, DAY).join();
+        job.backfill(DAY, DAY).join();
+
+        assertEquals(1, hourlyRepo.findByHourStartGreaterThanEqualAndHourStartLessThanOrderByHourStartAsc(START, START.plus(1, ChronoUnit.DAYS)).size());
+        DailyStatistic daily = statsRepo.findByDate(DAY).orElseThrow();
+        assertEquals(1, daily.getSecretsCreated());
+        assertEquals(7, daily.getActiveUsers());
+        assertEquals(9, daily.getUniqueViewers());
+        assertEquals(500, daily.getTotalStorageBytes());
+        assertEquals(800, daily.getTotalLogicalBytes());
+    }
+
+    @Test
+    void backfillRejectsDaysPastRetention() {
+        HourlyRollupJob retained = job(new PurgeConfig());
+        LocalDate earliest = retained.earliestBackfillDay();
+
+        assertThrows(IllegalArgumentException.class, () -> retained.backfill(earliest.minusDays(1), earliest));
+        assertFalse(retained.isBackfillRunning());
+    }
+
+    @Test
+    void backfillRejectsInvertedRange() {
+        assertThrows(IllegalArgumentException.class, () -> job.backfill(DAY, DAY.minusDays(1)));
+    }
+
+    private void user(String id, Instant joinedAt) {
+        entityManager.persist(User.builder()
+                .id(id)
+                .displayName("User")
+                .role(KieruUtil.UserRole.USER)
+                .subscription(KieruUtil.SubscriptionPlan.EXPLORER)
+                .loginProvider(KieruUtil.LoginProvider.GOOGLE)
+                .joinedAt(joinedAt)
+                .build());
+    }
+
+    private SecretMetadata secret(String id, Instant createdAt, Long contentLength, byte[] encoded) {
+        SecretMetadata meta = new SecretMetadata();
+        meta.setId(id);
+        meta.setMaxViews(3);
+        meta.setViewsLeft(3);
+        meta.setViewTimeSeconds(90);
+        meta.setExpiresAt(createdAt.plus(1, ChronoUnit.DAYS));
+        meta.setCreatedAt(createdAt);
+        meta.setActive(true);
+        entityManager.persist(meta);
+
+        SecretPayload payload = new SecretPayload();
+        payload.setMetadata(meta);
+        payload.setType(KieruUtil.SecretType.TEXT);
+        payload.setEncodedContent(encoded);
+        payload.setContentLength(contentLength);
+        entityManager.persist(payload);
+        return meta;
+    }
+
+    private void log(SecretMetadata secret, Instant accessedAt, boolean successful, String ipAddress) {
+        SecretAccessLog accessLog = new SecretAccessLog();
+        accessLog.setSecret(secret);
+        accessLog.setAccessedAt(accessedAt);
+        accessLog.setWasSuccessful(successful);
+        accessLog.setIpAddress(ipAddress);
+        entityManager.persist(accessLog);
+    }
+}
@@ -0,0 +1,207 @@
+package com.kieru.kieru_backend;
+
+import com.kieru.backend.annotation.JobLock;
+import com.kieru.backend.aspect.JobLockAspect;
+import com.kieru.backend.entity.JobRunHistory;
+import com.kieru.backend.job.JobRunContext;
+import com.kieru.backend.repository.JobRunHistoryRepository;
+import com.kieru.backend.store.InMemoryJobLockProvider;
+import com.kieru.backend.store.JobLockProvider;
+import com.kieru.backend.util.JobLockConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.aspectj.lang.ProceedingJoinPoint;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Two "nodes" (aspects with their own node id) share one in-process lock provider.
+ * The aspect is called directly with a stub join point, the way Spring AOP invokes it around a @JobLock method.
+ */
+class JobLockAspectTest {
+
+    static class SampleJob {
+        int runs;
+        Runnable body = () -> { };
+
+        @JobLock(name = "sample", lockAtLeastMs = 0)
+        public void quick() {
+            runs++;
+            JobRunContext.addRows(5);
+            body.run();
+        }
+
+        @JobLock(name = "sample-held", lockAtLeastMs = 10000)
+        public void held() {
+            runs++;
+        }
+
+        @JobLock(name = "sample-slow", leaseMs = 60, lockAtLeastMs = 0)
+        public void slow() {
+            runs++;
+            body.run();
+        }
+
+        @JobLock(name = "sample-failing", lockAtLeastMs = 0)
+        public void failing() {
+            runs++;
+            throw new IllegalStateException("boom");
+        }
+    }
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private final List<JobRunHistory> history = new ArrayList<>();
+    private final List<JobLockAspect> aspects = new ArrayList<>();
+    private JobRunHistoryRepository historyRepo;
+
+    @BeforeEach
+    void setUp() {
+        historyRepo = mock(JobRunHistoryRepository.class);
+        when(historyRepo.save(any())).thenAnswer(invocation -> {
+            JobRunHistory run = invocation.getArgument(0);
+            if (!history.contains(run)) {
+                history.add(run);
+            }
+            return run;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        aspects.forEach(JobLockAspect::destroy);
+    }
+
+    @Test
+    void otherNodeSkipsWhileLockIsHeld() throws Throwable {
+        JobLockProvider provider = new InMemoryJobLockProvider(clock::get);
+        SampleJob jobA = new SampleJob();
+        SampleJob jobB = new SampleJob();
+        Node nodeA = node(jobA, provider, "node-a");
+        Node nodeB = node(jobB, provider, "node-b");
+
+        jobA.body = () -> runQuietly(nodeB, "quick");
+        nodeA.run("quick");
+
+        assertEquals(1, jobA.runs);
+        assertEquals(0, jobB.runs);
+
+        // Released right away (lockAtLeastMs = 0)
+        nodeB.run("quick");
+        assertEquals(1, jobB.runs);
+    }
+
+    @Test
+    void shortRunKeepsLockForLockAtLeast() throws Throwable {
+        JobLockProvider provider = new InMemoryJobLockProvider(clock::get);
+        SampleJob jobB = new SampleJob();
+        Node nodeA = node(new SampleJob(), provider, "node-a");
+        Node nodeB = node(jobB, provider, "node-b");
+
+        nodeA.run("held");
+        nodeB.run("held");
+        assertEquals(0, jobB.runs);
+
+        clock.addAndGet(10001);
+        nodeB.run("held");
+        assertEquals(1, jobB.runs);
+    }
+
+    @Test
+    void leaseIsRenewedDuringLongRuns() throws Throwable {
+        JobLockProvider provider = new InMemoryJobLockProvider();
+        SampleJob jobA = new SampleJob();
+        SampleJob jobB = new SampleJob();
+        Node nodeA = node(jobA, provider, "node-a");
+        Node nodeB = node(jobB, provider, "node-b");
+
+        jobA.body = () -> {
+            sleep(250);   // Four leases long
+            runQuietly(nodeB, "slow");
+        };
+        nodeA.run("slow");
+
+        assertEquals(0, jobB.runs);
+        assertFalse(history.get(0).isLeaseLost());
+    }
+
+    @Test
+    void historyRecordsNodeRowsAndFailures() throws Throwable {
+        JobLockProvider provider = new InMemoryJobLockProvider(clock::get);
+        SampleJob job = new SampleJob();
+        Node nodeA = node(job, provider, "node-a");
+
+        nodeA.run("quick");
+        assertThrows(IllegalStateException.class, () -> nodeA.run("failing"));
+
+        assertEquals(2, history.size());
+        JobRunHistory succeeded = history.get(0);
+        assertEquals("sample", succeeded.getJobName());
+        assertEquals("node-a", succeeded.getNode());
+        assertEquals(JobRunHistory.Status.SUCCEEDED, succeeded.getStatus());
+        assertEquals(5, succeeded.getRowsAffected());
+        assertNotNull(succeeded.getFinishedAt());
+
+        JobRunHistory failed = history.get(1);
+        assertEquals(JobRunHistory.Status.FAILED, failed.getStatus());
+        assertTrue(failed.getError().contains("boom"));
+
+        // The failed run released its lock too
+        assertThrows(IllegalStateException.class, () -> nodeA.run("failing"));
+        assertEquals(3, job.runs);
+    }
+
+    /**
+     * The job as node nodeId would run it, the aspect sees the method's @JobLock as Spring AOP would pass it.
+     */
+    private Node node(SampleJob target, JobLockProvider provider, String nodeId) {
+        JobLockConfig config = new JobLockConfig();
+        config.setNodeId(nodeId);
+        JobLockAspect aspect = new JobLockAspect(provider, historyRepo, config);
+        aspects.add(aspect);
+        return method -> {
+            Method jobMethod = SampleJob.class.getMethod(method);
+            ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+            when(joinPoint.proceed()).thenAnswer(invocation -> {
+                try {
+                    return jobMethod.invoke(target);
+                }
+                catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+            aspect.runLocked(joinPoint, jobMethod.getAnnotation(JobLock.class));
+        };
+    }
+
+    @FunctionalInterface
+    interface Node {
+        void run(String method) throws Throwable;
+    }
+
+    private static void runQuietly(Node node, String method) {
+        try {
+            node.run(method);
+        }
+        catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
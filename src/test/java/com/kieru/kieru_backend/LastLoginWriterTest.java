@@ -0,0 +1,90 @@
+package com.kieru.kieru_backend;
+
+import com.kieru.backend.entity.User;
+import com.kieru.backend.repository.UserRepository;
+import com.kieru.backend.service.impl.LastLoginWriterImpl;
+import com.kieru.backend.util.KieruUtil;
+import com.kieru.backend.util.UserCacheConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@JpaSliceTest
+class LastLoginWriterTest {
+
+    private static final Instant NOW = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private UserRepository userRepo;
+
+    private SimpleMeterRegistry meterRegistry;
+    private LastLoginWriterImpl writer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        writer = new LastLoginWriterImpl(new JdbcTemplate(dataSource), new UserCacheConfig(), meterRegistry);
+    }
+
+    @Test
+    void writesOncePerInterval() {
+        user("u-1", NOW.minus(1, ChronoUnit.DAYS));
+
+        writer.record("u-1", NOW);
+        writer.record("u-1", NOW.plusSeconds(1));
+        writer.flush();
+        writer.record("u-1", NOW.plusSeconds(60));     // within the interval of the last write
+        writer.flush();
+
+        assertEquals(NOW.plusSeconds(1), lastLoginAt("u-1"));
+        assertEquals(1, meterRegistry.counter("kieru.users.last_login", "result", "written").count());
+        assertEquals(2, meterRegistry.counter("kieru.users.last_login", "result", "coalesced").count());
+
+        writer.record("u-1", NOW.plusSeconds(301));
+        writer.flush();
+        assertEquals(NOW.plusSeconds(301), lastLoginAt("u-1"));
+    }
+
+    @Test
+    void neverMovesLastLoginBackwards() {
+        user("u-2", NOW.plusSeconds(10));
+
+        writer.record("u-2", NOW);
+        writer.flush();
+
+        assertEquals(NOW.plusSeconds(10), lastLoginAt("u-2"));
+    }
+
+    private Instant lastLoginAt(String id) {
+        entityManager.clear();
+        return userRepo.findById(id).orElseThrow().getLastLoginAt();
+    }
+
+    private void user(String id, Instant lastLoginAt) {
+        entityManager.persistAndFlush(User.builder()
+                .id(id)
+                .displayName("User")
+                .role(KieruUtil.UserRole.USER)
+                .subscription(KieruUtil.SubscriptionPlan.EXPLORER)
+                .loginProvider(KieruUtil.LoginProvider.GOOGLE)
+                .joinedAt(NOW.minus(10, ChronoUnit.DAYS))
+                .lastLoginAt(lastLoginAt)
+                .build());
+        entityManager.clear();
+    }
+}
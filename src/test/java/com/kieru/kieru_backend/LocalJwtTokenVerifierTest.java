@@ -0,0 +1,96 @@
+package com.kieru.kieru_backend;
+
+import com.kieru.backend.dto.VerifiedToken;
+import com.kieru.backend.exception.InvalidTokenException;
+import com.kieru.backend.service.impl.LocalJwtTokenVerifier;
+import com.kieru.backend.util.AuthConfig;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalJwtTokenVerifierTest {
+
+    private static final Instant NOW = Instant.parse("2025-03-01T12:00:00Z");
+    private static final long IAT = NOW.getEpochSecond() - 60;
+    private static final long EXP = NOW.getEpochSecond() + 3540;
+
+    private static KeyPair keyPair;
+    private static KeyPair otherKeyPair;
+
+    private AuthConfig.Local config;
+    private LocalJwtTokenVerifier verifier;
+
+    @BeforeAll
+    static void keys() throws Exception {
+        keyPair = TestTokens.rsaKeyPair();
+        otherKeyPair = TestTokens.rsaKeyPair();
+    }
+
+    @BeforeEach
+    void setUp() {
+        config = new AuthConfig.Local();
+        config.getPublicKeys().put("k1", TestTokens.publicKey(keyPair));
+        config.setIssuer("https://securetoken.google.com/kieru");
+        config.setAudience("kieru");
+        verifier = new LocalJwtTokenVerifier(config, () -> NOW);
+    }
+
+    @Test
+    void validTokenYieldsFirebaseShapedClaims() throws Exception {
+        VerifiedToken token = verifier.verify(TestTokens.sign(keyPair, "k1", TestTokens.claims("u-1", IAT, EXP)));
+
+        assertEquals("u-1", token.getUid());
+        assertEquals("u-1@example.com", token.getEmail());
+        assertEquals("Bench User", token.getName());
+        assertEquals("google.com", token.getSignInProvider());
+        assertEquals(Instant.ofEpochSecond(EXP), token.getExpiresAt());
+    }
+
+    @Test
+    void rejectsSignatureOfAnotherKey() throws Exception {
+        String token = TestTokens.sign(otherKeyPair, "k1", TestTokens.claims("u-1", IAT, EXP));
+        assertThrows(InvalidTokenException.class, () -> verifier.verify(token));
+    }
+
+    @Test
+    void rejectsUnknownKeyId() throws Exception {
+        String token = TestTokens.sign(keyPair, "k2", TestTokens.claims("u-1", IAT, EXP));
+        assertThrows(InvalidTokenException.class, () -> verifier.verify(token));
+    }
+
+    @Test
+    void rejectsExpiredTokenBeyondSkew() throws Exception {
+        String withinSkew = TestTokens.sign(keyPair, "k1", TestTokens.claims("u-1", IAT - 3600, NOW.getEpochSecond() - 30));
+        String expired = TestTokens.sign(keyPair, "k1", TestTokens.claims("u-1", IAT - 3600, NOW.getEpochSecond() - 61));
+
+        assertEquals("u-1", verifier.verify(withinSkew).getUid());
+        assertThrows(InvalidTokenException.class, () -> verifier.verify(expired));
+    }
+
+    @Test
+    void rejectsWrongAudienceAndGarbage() throws Exception {
+        config.setAudience("other-project");
+        String token = TestTokens.sign(keyPair, "k1", TestTokens.claims("u-1", IAT, EXP));
+
+        assertThrows(InvalidTokenException.class, () -> verifier.verify(token));
+        assertThrows(InvalidTokenException.class, () -> verifier.verify("not-a-token"));
+        assertThrows(InvalidTokenException.class, () -> verifier.verify("e30.e30.AAAA"));
+    }
+
+    @Test
+    void refusesToStartWithoutIssuerOrAudience() {
+        AuthConfig.Local noAudience = new AuthConfig.Local();
+        noAudience.getPublicKeys().put("k1", TestTokens.publicKey(keyPair));
+        noAudience.setIssuer("https://securetoken.google.com/kieru");
+        assertThrows(IllegalStateException.class, () -> new LocalJwtTokenVerifier(noAudience, () -> NOW));
+
+        noAudience.setAudience("kieru");
+        noAudience.setIssuer(" ");
+        assertThrows(IllegalStateException.class, () -> new LocalJwtTokenVerifier(noAudience, () -> NOW));
+    }
+}
@@ -0,0 +1,98 @@
+package com.kieru.kieru_backend;
+
+import com.kieru.backend.util.PayloadCodec;
+import com.kieru.backend.util.PayloadCodecConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PayloadCodecTest {
+
+    private static PayloadCodec codec(PayloadCodec.Algorithm algorithm, int threshold) {
+        return codec(algorithm, threshold, false);
+    }
+
+    private static PayloadCodec codec(PayloadCodec.Algorithm algorithm, int threshold, boolean binary) {
+        PayloadCodecConfig config = new PayloadCodecConfig();
+        config.setBinary(binary);
+        config.setAlgorithm(algorithm);
+        config.setThreshold(threshold);
+        return new PayloadCodec(config);
+    }
+
+    private static String base64Payload(int bytes) {
+        byte[] data = new byte[bytes];
+        new Random(42).nextBytes(data);
+        return Base64.getEncoder().encodeToString(data);
+    }
+
+    @Test
+    void roundTripsWithEveryAlgorithm() {
+        String content = base64Payload(64 * 1024);
+        for (PayloadCodec.Algorithm algorithm : PayloadCodec.Algorithm.values()) {
+            PayloadCodec codec = codec(algorithm, 1024);
+            byte[] encoded = codec.encode(content);
+
+            assertEquals(content, codec.decode(encoded));
+            assertEquals(algorithm != PayloadCodec.Algorithm.IDENTITY, codec.isCompressed(encoded));
+        }
+    }
+
+    @Test
+    void compressesBase64BelowItsTextSize() {
+        String content = base64Payload(64 * 1024);
+        byte[] encoded = codec(PayloadCodec.Algorithm.GZIP, 1024).encode(content);
+
+        // base64 carries 6 bits per byte, so even random ciphertext shrinks by roughly a quarter
+        assertTrue(encoded.length < content.length() * 0.8, "encoded size " + encoded.length);
+    }
+
+    @Test
+    void smallPayloadsStayUncompressed() {
+        PayloadCodec codec = codec(PayloadCodec.Algorithm.GZIP, 1024);
+        byte[] encoded = codec.encode("short");
+
+        assertFalse(codec.isCompressed(encoded));
+        assertEquals(6, encoded.length);
+        assertEquals("short", codec.decode(encoded));
+    }
+
+    @Test
+    void binaryModeStoresDecodedBytes() {
+        String content = base64Payload(30 * 1024);
+        PayloadCodec codec = codec(PayloadCodec.Algorithm.GZIP, 1024, true);
+        byte[] encoded = codec.encode(content);
+
+        // Random ciphertext does not compress, so this is header + raw bytes
+        assertEquals(30 * 1024 + 1, encoded.length);
+        assertEquals(content, codec.decode(encoded));
+    }
+
+    @Test
+    void binaryModeKeepsNonCanonicalInputAsText() {
+        PayloadCodec codec = codec(PayloadCodec.Algorithm.GZIP, 1024, true);
+
+        for (String content : new String[]{"not base64!", "QQ", "QR==", "iv:QUJD", "QUJD\nREVG"}) {
+            byte[] encoded = codec.encode(content);
+            assertEquals(content.getBytes().length + 1, encoded.length, content);
+            assertEquals(content, codec.decode(encoded));
+        }
+    }
+
+    @Test
+    void legacyTextColumnWins() {
+        PayloadCodec codec = codec(PayloadCodec.Algorithm.GZIP, 1024);
+
+        assertEquals("legacy", codec.decode("legacy", null));
+        assertEquals("new", codec.decode(null, codec.encode("new")));
+        assertNull(codec.decode(null, null));
+    }
+
+    @Test
+    void rejectsUnknownHeader() {
+        assertThrows(IllegalStateException.class, () -> codec(PayloadCodec.Algorithm.GZIP, 1024).decode(new byte[]{0x0F, 1}));
+    }
+}
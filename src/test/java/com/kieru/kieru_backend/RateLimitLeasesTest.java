@@ -0,0 +1,216 @@
+package com.kieru.kieru_backend;
+
+import com.kieru.backend.dto.RateLimitDecision;
+import com.kieru.backend.service.RateLimitService;
+import com.kieru.backend.store.RateLimitLeases;
+import com.kieru.backend.util.RateLimitLeaseConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitLeasesTest {
+
+    /**
+     * Stands in for the Redis limiter: a shared budget of requests with no refill, every call counted.
+     */
+    private static class BudgetLimiter implements RateLimitService {
+        final AtomicInteger budget;
+        final AtomicInteger calls = new AtomicInteger();
+        final long lockoutMs;
+
+        BudgetLimiter(int budget, long lockoutMs) {
+            this.budget = new AtomicInteger(budget);
+            this.lockoutMs = lockoutMs;
+        }
+
+        @Override
+        public RateLimitDecision consume(String key, String lockIdentifier, int limit, int windowSeconds, int lockDurationMinutes, int tokens) {
+            calls.incrementAndGet();
+            while (true) {
+                int left = budget.get();
+                if (left <= 0) {
+                    return RateLimitDecision.builder().status(RateLimitDecision.Status.REJECTED).retryAfterMs(lockoutMs).build();
+                }
+                int granted = Math.min(tokens, left);
+                if (budget.compareAndSet(left, left - granted)) {
+                    return RateLimitDecision.builder().status(RateLimitDecision.Status.ALLOWED)
+                            .remaining(left - granted).granted(granted).build();
+                }
+            }
+        }
+    }
+
+    /**
+     * Stands in for the Redis limiter with one budget of limit requests per key (no refill) and a lockout on rejection.
+     */
+    private static class PerKeyLimiter implements RateLimitService {
+        final Map<String, AtomicInteger> budgets = new ConcurrentHashMap<>();
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public RateLimitDecision consume(String key, String lockIdentifier, int limit, int windowSeconds, int lockDurationMinutes, int tokens) {
+            calls.incrementAndGet();
+            AtomicInteger budget = budgets.computeIfAbsent(key, k -> new AtomicInteger(limit));
+            int granted = Math.min(tokens, budget.get());
+            if (granted <= 0) {
+                return RateLimitDecision.builder().status(RateLimitDecision.Status.REJECTED).retryAfterMs(lockDurationMinutes * 60_000L).build();
+            }
+            return RateLimitDecision.builder().status(RateLimitDecision.Status.ALLOWED)
+                    .remaining(budget.addAndGet(-granted)).granted(granted).build();
+        }
+    }
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final RateLimitLeaseConfig config = new RateLimitLeaseConfig();
+
+    @Test
+    void coldCallerGoesToRedisEveryTime() {
+        BudgetLimiter limiter = new BudgetLimiter(100, 0);
+        RateLimitLeases leases = new RateLimitLeases(limiter, config, new SimpleMeterRegistry(), now::get);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(leases.consume("k", "ip", 100, 60, 0).isAllowed());
+            now.addAndGet(config.getLeaseTtlMs() + 1);
+        }
+
+        assertEquals(5, limiter.calls.get());
+        assertEquals(95, limiter.budget.get());
+    }
+
+    @Test
+    void hotCallerLeasesGrowingBlocks() {
+        BudgetLimiter limiter = new BudgetLimiter(1000, 0);
+        RateLimitLeases leases = new RateLimitLeases(limiter, config, new SimpleMeterRegistry(), now::get);
+
+        for (int i = 0; i < 200; i++) {
+            assertTrue(leases.consume("k", "ip", 1000, 60, 0).isAllowed());
+        }
+
+        // 1 + 2 + 4 + 8 + 16 = 31 requests in 5 calls, then one call per 16
+        assertEquals(5 + (200 - 31 + 15) / 16, limiter.calls.get());
+        assertTrue(limiter.calls.get() * 10 < 200);
+    }
+
+    @Test
+    void blockIsCappedByLimitFraction() {
+        BudgetLimiter limiter = new BudgetLimiter(30, 60_000);
+        RateLimitLeases leases = new RateLimitLeases(limiter, config, new SimpleMeterRegistry(), now::get);
+
+        for (int i = 0; i < 30; i++) {
+            assertTrue(leases.consume("k", "ip", 30, 300, 5).isAllowed());
+        }
+        // 30 * 0.2 = 6: blocks of 1, 2, 4, 6, 6, 6, 5
+        assertEquals(7, limiter.calls.get());
+    }
+
+    @Test
+    void lockoutIsServedLocallyUntilItEnds() {
+        BudgetLimiter limiter = new BudgetLimiter(1, 60_000);
+        RateLimitLeases leases = new RateLimitLeases(limiter, config, new SimpleMeterRegistry(), now::get);
+
+        assertTrue(leases.consume("k", "ip", 10, 60, 1).isAllowed());
+        assertEquals(RateLimitDecision.Status.REJECTED, leases.consume("k", "ip", 10, 60, 1).getStatus());
+
+        now.addAndGet(59_000);
+        RateLimitDecision locked = leases.consume("other-endpoint", "ip", 10, 60, 1);
+        assertEquals(RateLimitDecision.Status.LOCKED, locked.getStatus());
+        assertEquals(1_000, locked.getRetryAfterMs());
+        assertEquals(2, limiter.calls.get());
+
+        now.addAndGet(1_000);
+        leases.consume("k", "ip", 10, 60, 1);
+        assertEquals(3, limiter.calls.get());
+    }
+
+    @Test
+    void nodesNeverAdmitMoreThanTheLimit() throws Exception {
+        int limit = 500;
+        int nodes = 4;
+        BudgetLimiter limiter = new BudgetLimiter(limit, 0);
+        List<RateLimitLeases> cluster = new ArrayList<>();
+        for (int n = 0; n < nodes; n++) {
+            cluster.add(new RateLimitLeases(limiter, config, new SimpleMeterRegistry(), now::get));
+        }
+
+        AtomicInteger allowed = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < 8; t++) {
+                RateLimitLeases node = cluster.get(t % nodes);
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 200; i++) {
+                        if (node.consume("k", "ip", limit, 3600, 0).isAllowed()) {
+                            allowed.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        finally {
+            pool.shutdownNow();
+        }
+
+        // Never over the limit, and at most nodes x (block - 1) requests left stranded in leases
+        assertTrue(allowed.get() <= limit, "allowed=" + allowed.get());
+        assertTrue(allowed.get() >= limit - nodes * (config.getMaxBlockSize() - 1), "allowed=" + allowed.get());
+    }
+
+    @Test
+    void redisCallsPerTrafficPattern() {
+        // POST /api/secrets/{id}/access: 50 per hour per IP per secret, 10 minute lockout
+        int limit = 50;
+        int lockMinutes = 10;
+
+        // Password guessing: 10 requests/s for 10 minutes against one secret
+        PerKeyLimiter guessing = new PerKeyLimiter();
+        RateLimitLeases guessingLeases = new RateLimitLeases(guessing, config, new SimpleMeterRegistry(), now::get);
+        int guessesAllowed = 0;
+        for (int i = 0; i < 6000; i++) {
+            if (guessingLeases.consume("POST:/api/secrets/s-1/access:ip", "ip", limit, 3600, lockMinutes).isAllowed()) {
+                guessesAllowed++;
+            }
+            now.addAndGet(100);
+        }
+        // Blocks of 1, 2, 4, 8, 10, 10, 10, 5, one rejection, then local lockout: 9 calls instead of 6000
+        assertEquals(9, guessing.calls.get());
+        assertEquals(limit, guessesAllowed);
+
+        // Scraper: same rate, a different secret each time. Every key is cold, leasing saves nothing
+        PerKeyLimiter scraping = new PerKeyLimiter();
+        RateLimitLeases scrapingLeases = new RateLimitLeases(scraping, config, new SimpleMeterRegistry(), now::get);
+        for (int i = 0; i < 6000; i++) {
+            assertTrue(scrapingLeases.consume("POST:/api/secrets/s-" + i + "/access:ip2", "ip2", limit, 3600, lockMinutes).isAllowed());
+            now.addAndGet(100);
+        }
+        assertEquals(6000, scraping.calls.get());
+
+        // Regular caller: 20 secrets an hour, one every 3 minutes, never holds a block
+        PerKeyLimiter regular = new PerKeyLimiter();
+        RateLimitLeases regularLeases = new RateLimitLeases(regular, config, new SimpleMeterRegistry(), now::get);
+        for (int i = 0; i < 20; i++) {
+            assertTrue(regularLeases.consume("POST:/api/secrets/s-" + (i % 3) + "/access:user-ip", "user-ip", limit, 3600, lockMinutes).isAllowed());
+            now.addAndGet(180_000);
+        }
+        assertEquals(20, regular.calls.get());
+    }
+}
@@ -0,0 +1,152 @@
+package com.kieru.kieru_backend;
+
+import com.kieru.backend.dto.RateLimitDecision;
+import com.kieru.backend.service.impl.RateLimitServiceImpl;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Properties of scripts/rate_limit.lua against a real Redis (the script cannot run without one).
+ * Skipped unless kieru.redis.url is set; every run uses fresh random keys, so any scratch Redis will do.
+ *
+ *   ./mvnw test -Dtest=RateLimitScriptPropertyTest -Dkieru.redis.url=redis://localhost:6379
+ */
+@EnabledIfSystemProperty(named = "kieru.redis.url", matches = ".+")
+class RateLimitScriptPropertyTest {
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+    private static RateLimitServiceImpl limiter;
+
+    private final Random random = new Random(Long.getLong("kieru.test.seed", System.nanoTime()));
+
+    @BeforeAll
+    static void connect() {
+        URI uri = URI.create(System.getProperty("kieru.redis.url"));
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(uri.getHost(), uri.getPort()));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        limiter = new RateLimitServiceImpl(redisTemplate);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void concurrentBurstAdmitsExactlyTheLimit() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            int limit = 1 + random.nextInt(50);
+            int callers = limit + 1 + random.nextInt(200);
+            String key = "ratelimit:test:" + UUID.randomUUID();
+
+            // A long window: nothing refills while the burst runs
+            int allowed = burst(key, limit, 3600, callers, 16);
+
+            assertEquals(limit, allowed, "limit=" + limit + " callers=" + callers);
+            assertTrue(redisTemplate.getExpire(key) > 0, "limiter state must carry a TTL");
+        }
+    }
+
+    @Test
+    void sustainedRateNeverExceedsLimitPlusRefill() throws Exception {
+        for (int round = 0; round < 5; round++) {
+            int limit = 2 + random.nextInt(8);
+            int windowSeconds = 1;
+            String key = "ratelimit:test:" + UUID.randomUUID();
+            String lockId = "test-" + UUID.randomUUID();
+
+            long start = System.currentTimeMillis();
+            int allowed = 0;
+            while (System.currentTimeMillis() - start < 2500) {
+                if (limiter.consume(key, lockId, limit, windowSeconds, 0).isAllowed()) {
+                    allowed++;
+                }
+                Thread.sleep(random.nextInt(5));
+            }
+            long elapsed = System.currentTimeMillis() - start;
+
+            // GCRA: the burst, plus one request per interval of elapsed time
+            double interval = windowSeconds * 1000.0 / limit;
+            int ceiling = limit + (int) Math.ceil(elapsed / interval);
+            assertTrue(allowed <= ceiling, "allowed=" + allowed + " ceiling=" + ceiling);
+            assertTrue(allowed >= ceiling - 2, "allowed=" + allowed + " ceiling=" + ceiling + ": limiter is too strict");
+        }
+    }
+
+    @Test
+    void rejectionLocksTheCallerOutEverywhere() {
+        String lockId = "test-" + UUID.randomUUID();
+        String key = "ratelimit:test:" + UUID.randomUUID();
+
+        assertTrue(limiter.consume(key, lockId, 1, 60, 1).isAllowed());
+        RateLimitDecision rejected = limiter.consume(key, lockId, 1, 60, 1);
+        assertEquals(RateLimitDecision.Status.REJECTED, rejected.getStatus());
+        assertEquals(60_000, rejected.getRetryAfterMs());
+
+        // Any endpoint of the same caller
+        RateLimitDecision locked = limiter.consume("ratelimit:test:" + UUID.randomUUID(), lockId, 100, 60, 1);
+        assertEquals(RateLimitDecision.Status.LOCKED, locked.getStatus());
+        assertTrue(locked.getRetryAfterMs() > 0 && locked.getRetryAfterMs() <= 60_000);
+    }
+
+    @Test
+    void leasesNeverGrantMoreThanIsLeft() {
+        String key = "ratelimit:test:" + UUID.randomUUID();
+        String lockId = "test-" + UUID.randomUUID();
+
+        assertEquals(10, limiter.consume(key, lockId, 25, 3600, 0, 10).getGranted());
+        assertEquals(10, limiter.consume(key, lockId, 25, 3600, 0, 10).getGranted());
+        RateLimitDecision last = limiter.consume(key, lockId, 25, 3600, 0, 10);
+        assertEquals(5, last.getGranted());
+        assertEquals(0, last.getRemaining());
+        assertFalse(limiter.consume(key, lockId, 25, 3600, 0, 10).isAllowed());
+    }
+
+    private static int burst(String key, int limit, int windowSeconds, int callers, int threads) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger allowed = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < callers; i++) {
+                String lockId = "test-" + UUID.randomUUID();
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    if (limiter.consume(key, lockId, limit, windowSeconds, 0).isAllowed()) {
+                        allowed.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        finally {
+            pool.shutdownNow();
+        }
+        return allowed.get();
+    }
+}
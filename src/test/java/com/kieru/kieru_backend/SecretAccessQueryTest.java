@@ -0,0 +1,220 @@
+package com.kieru.kieru_backend;
+
+import com.kieru.backend.dto.SecretAccessView;
+import com.kieru.backend.dto.StoredContent;
+import com.kieru.backend.entity.SecretAccessLog;
+import com.kieru.backend.entity.SecretMetadata;
+import com.kieru.backend.entity.SecretPayload;
+import com.kieru.backend.repository.AccessLogRepository;
+import com.kieru.backend.repository.SecretMetadataRepository;
+import com.kieru.backend.repository.SecretPayloadRepository;
+import com.kieru.backend.util.KieruUtil;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The access path must load metadata + payload with exactly one statement.
+ * Also covers the storage and view analytics queries.
+ */
+@JpaSliceTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class SecretAccessQueryTest {
+
+    @Autowired
+    private SecretPayloadRepository payloadRepo;
+
+    @Autowired
+    private SecretMetadataRepository metaRepo;
+
+    @Autowired
+    private AccessLogRepository logRepo;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void accessViewIsLoadedWithSingleStatement() {
+        Instant expiresAt = Instant.now().plus(1, ChronoUnit.HOURS).truncatedTo(ChronoUnit.MILLIS);
+        persistSecret("s-1", expiresAt, "hash", "cipher-text", new byte[]{0, 'x'});
+
+        statistics.clear();
+        Optional<SecretAccessView> view = payloadRepo.findAccessViewById("s-1");
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertTrue(view.isPresent());
+        assertTrue(view.get().hasPayload());
+        assertEquals(3, view.get().getViewsLeft());
+        assertEquals(expiresAt, view.get().getExpiresAt());
+        assertEquals(90, view.get().getViewTimeSeconds());
+        assertTrue(view.get().isActive());
+        assertTrue(view.get().isShowTimeBomb());
+        assertEquals("hash", view.get().getPasswordHash());
+        assertEquals(KieruUtil.SecretType.TEXT, view.get().getType());
+        assertEquals("cipher-text", view.get().getEncryptedContent());
+        assertArrayEquals(new byte[]{0, 'x'}, view.get().getEncodedContent());
+    }
+
+    @Test
+    void accessViewWithoutPayloadRowHasNoPayload() {
+        SecretMetadata meta = metadata("s-2", Instant.now().plus(1, ChronoUnit.HOURS));
+        entityManager.persistAndFlush(meta);
+        entityManager.clear();
+
+        statistics.clear();
+        Optional<SecretAccessView> view = payloadRepo.findAccessViewById("s-2");
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertTrue(view.isPresent());
+        assertFalse(view.get().hasPayload());
+    }
+
+    @Test
+    void accessStateLeavesContentUnread() {
+        persistSecret("s-6", Instant.now().plus(1, ChronoUnit.HOURS), "hash", null, new byte[]{0x10, 1, 2});
+
+        statistics.clear();
+        Optional<SecretAccessView> view = payloadRepo.findAccessStateById("s-6");
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertTrue(view.isPresent());
+        assertTrue(view.get().hasPayload());
+        assertEquals("hash", view.get().getPasswordHash());
+        assertNull(view.get().getEncodedContent());
+    }
+
+    @Test
+    void unknownSecretIsEmpty() {
+        statistics.clear();
+        assertTrue(payloadRepo.findAccessViewById("missing").isEmpty());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void storedContentIsLoadedWithSingleStatement() {
+        persistSecret("s-3", Instant.now().plus(1, ChronoUnit.HOURS), null, null, new byte[]{1, 2, 3});
+
+        statistics.clear();
+        Optional<StoredContent> content = payloadRepo.findStoredContentById("s-3");
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertTrue(content.isPresent());
+        assertNull(content.get().getEncryptedContent());
+        assertArrayEquals(new byte[]{1, 2, 3}, content.get().getEncodedContent());
+    }
+
+    @Test
+    void storageBytesReportLogicalAndPhysical() {
+        Instant expiresAt = Instant.now().plus(1, ChronoUnit.HOURS);
+        persistSecret("s-4", expiresAt, null, "legacy", null);
+
+        SecretMetadata meta = metadata("s-5", expiresAt);
+        entityManager.persist(meta);
+        SecretPayload payload = new SecretPayload();
+        payload.setMetadata(meta);
+        payload.setType(KieruUtil.SecretType.TEXT);
+        payload.setEncodedContent(new byte[10]);
+        payload.setContentLength(40L);
+        entityManager.persistAndFlush(payload);
+
+        SecretMetadataRepository.StorageBytes bytes = metaRepo.sumStorageBytesBetween(
+                Instant.now().minus(1, ChronoUnit.HOURS), Instant.now().plus(1, ChronoUnit.HOURS));
+
+        assertEquals(6 + 40, bytes.getLogicalBytes());
+        assertEquals(6 + 10, bytes.getPhysicalBytes());
+    }
+
+    @Test
+    void viewCountsUseHalfOpenRange() {
+        Instant day = Instant.parse("2025-03-01T00:00:00Z");
+        SecretMetadata meta = metadata("s-7", day.plus(10, ChronoUnit.DAYS));
+        entityManager.persist(meta);
+        log(meta, day, true, "10.0.0.1");
+        log(meta, day.plus(5, ChronoUnit.HOURS), false, "10.0.0.1");
+        log(meta, day.plus(6, ChronoUnit.HOURS), true, "10.0.0.2");
+        log(meta, day.plus(1, ChronoUnit.DAYS), true, "10.0.0.3");     // next day, excluded
+        entityManager.flush();
+
+        AccessLogRepository.ViewCounts counts = logRepo.countViewsBetween(day, day.plus(1, ChronoUnit.DAYS));
+
+        assertEquals(2, counts.getSuccessful());
+        assertEquals(1, counts.getFailed());
+        assertEquals(2, counts.getUniqueViewers());
+    }
+
+    @Test
+    void deactivateExpiredOnlyTouchesDueActiveRows() {
+        Instant now = Instant.now();
+        entityManager.persist(metadata("s-8", now.minus(1, ChronoUnit.MINUTES)));
+        entityManager.persist(metadata("s-9", now.plus(1, ChronoUnit.HOURS)));     // index entry ahead of the row
+        SecretMetadata consumed = metadata("s-10", now.minus(1, ChronoUnit.MINUTES));
+        consumed.setActive(false);
+        entityManager.persist(consumed);
+        entityManager.flush();
+        entityManager.clear();
+
+        int expired = metaRepo.deactivateExpired(List.of("s-8", "s-9", "s-10", "missing"), now);
+
+        assertEquals(1, expired);
+        assertFalse(metaRepo.findById("s-8").orElseThrow().isActive());
+        assertTrue(metaRepo.findById("s-9").orElseThrow().isActive());
+    }
+
+    private void log(SecretMetadata secret, Instant accessedAt, boolean successful, String ipAddress) {
+        SecretAccessLog accessLog = new SecretAccessLog();
+        accessLog.setSecret(secret);
+        accessLog.setAccessedAt(accessedAt);
+        accessLog.setWasSuccessful(successful);
+        accessLog.setIpAddress(ipAddress);
+        entityManager.persist(accessLog);
+    }
+
+    private void persistSecret(String id, Instant expiresAt, String passwordHash, String content, byte[] encoded) {
+        SecretMetadata meta = metadata(id, expiresAt);
+        entityManager.persist(meta);
+
+        SecretPayload payload = new SecretPayload();
+        payload.setMetadata(meta);
+        payload.setPasswordHash(passwordHash);
+        payload.setType(KieruUtil.SecretType.TEXT);
+        payload.setEncryptedContent(content);
+        payload.setEncodedContent(encoded);
+        entityManager.persistAndFlush(payload);
+        entityManager.clear();
+    }
+
+    private static SecretMetadata metadata(String id, Instant expiresAt) {
+        SecretMetadata meta = new SecretMetadata();
+        meta.setId(id);
+        meta.setMaxViews(3);
+        meta.setViewsLeft(3);
+        meta.setViewTimeSeconds(90);
+        meta.setShowTimeBomb(true);
+        meta.setExpiresAt(expiresAt);
+        meta.setCreatedAt(Instant.now());
+        meta.setActive(true);
+        return meta;
+    }
+}
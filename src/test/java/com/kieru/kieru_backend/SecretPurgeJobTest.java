@@ -0,0 +1,131 @@
+package com.kieru.kieru_backend;
+
+import com.kieru.backend.entity.SecretAccessLog;
+import com.kieru.backend.entity.SecretMetadata;
+import com.kieru.backend.entity.SecretPayload;
+import com.kieru.backend.job.AccessLogPartitionJob;
+import com.kieru.backend.job.SecretPurgeJob;
+import com.kieru.backend.store.PayloadStores;
+import com.kieru.backend.util.KieruUtil;
+import com.kieru.backend.util.PurgeConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Purge chunks run on H2 through the same JDBC statements as on Postgres.
+ */
+@JpaSliceTest
+class SecretPurgeJobTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private JdbcTemplate jdbcTemplate;
+    private PayloadStores payloadStores;
+    private SecretPurgeJob job;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        PurgeConfig config = new PurgeConfig();
+        config.setBatchSize(2);
+        config.setThrottleMs(0);
+
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        when(redisTemplate.opsForValue()).thenReturn(mock(ValueOperations.class));
+        payloadStores = mock(PayloadStores.class);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        job = new SecretPurgeJob(jdbcTemplate, new NamedParameterJdbcTemplate(jdbcTemplate), new TransactionTemplate(transactionManager),
+                redisTemplate, payloadStores, mock(AccessLogPartitionJob.class), config, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void purgesPayloadsOfDeadSecretsOnly() {
+        Instant now = Instant.now();
+        persist("live-1", 3, now.plus(1, ChronoUnit.HOURS), false);
+        persist("used-1", 0, now.plus(1, ChronoUnit.HOURS), false);
+        persist("used-2", 0, now.plus(1, ChronoUnit.HOURS), false);
+        persist("gone-1", 2, now.plus(1, ChronoUnit.HOURS), true);
+        persist("exp-1", 2, now.minus(1, ChronoUnit.HOURS), false);
+        SecretMetadata recent = persist("used-3", 0, now.plus(1, ChronoUnit.HOURS), false);
+        log(recent, now.minus(1, ChronoUnit.MINUTES));
+        entityManager.flush();
+
+        job.purge();
+
+        assertEquals(2, count("secret_payload"));        // live-1, and used-3 still inside the grace window
+        assertEquals(6, count("secret_metadata"));
+        verify(payloadStores, atLeastOnce()).release(anyCollection());
+    }
+
+    @Test
+    void purgesSecretsAndLogsAfterRetention() {
+        Instant now = Instant.now();
+        SecretMetadata old = persist("old-1", 1, now.minus(40, ChronoUnit.DAYS), false);
+        log(old, now.minus(41, ChronoUnit.DAYS));
+        SecretMetadata live = persist("live-2", 1, now.plus(1, ChronoUnit.DAYS), false);
+        log(live, now.minus(100, ChronoUnit.DAYS));
+        log(live, now.minus(1, ChronoUnit.DAYS));
+        entityManager.flush();
+
+        job.purge();
+
+        assertEquals(1, count("secret_metadata"));
+        assertEquals(1, count("secret_payload"));
+        assertEquals(1, count("secret_access_logs"));
+    }
+
+    private SecretMetadata persist(String id, int viewsLeft, Instant expiresAt, boolean deleted) {
+        SecretMetadata meta = new SecretMetadata();
+        meta.setId(id);
+        meta.setMaxViews(3);
+        meta.setViewsLeft(viewsLeft);
+        meta.setExpiresAt(expiresAt);
+        meta.setCreatedAt(expiresAt.minus(1, ChronoUnit.DAYS));
+        meta.setActive(viewsLeft > 0 && !deleted);
+        meta.setDeleted(deleted);
+        entityManager.persist(meta);
+
+        SecretPayload payload = new SecretPayload();
+        payload.setMetadata(meta);
+        payload.setType(KieruUtil.SecretType.TEXT);
+        payload.setEncodedContent(new byte[]{0, 'x'});
+        entityManager.persist(payload);
+        return meta;
+    }
+
+    private void log(SecretMetadata secret, Instant accessedAt) {
+        SecretAccessLog accessLog = new SecretAccessLog();
+        accessLog.setSecret(secret);
+        accessLog.setAccessedAt(accessedAt);
+        accessLog.setWasSuccessful(true);
+        entityManager.persist(accessLog);
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+}
@@ -0,0 +1,88 @@
+package com.kieru.kieru_backend;
+
+import com.kieru.backend.entity.User;
+import com.kieru.backend.filter.SessionVersionCheck;
+import com.kieru.backend.util.SessionConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionVersionCheckTest {
+
+    private static final Instant ISSUED = Instant.parse("2026-01-01T10:00:00Z");
+
+    private SessionConfig config;
+    private SessionVersionCheck check;
+
+    @BeforeEach
+    void setUp() {
+        config = new SessionConfig();
+        check = new SessionVersionCheck(config, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void currentVersionIsValid() {
+        assertEquals(SessionVersionCheck.Result.VALID, check.check(request("v2"), user("v2"), ISSUED));
+    }
+
+    @Test
+    void versionRotatedByLogoutIsRevoked() {
+        SessionVersionCheck.Result result = check.check(request("v1"), user("v2"), ISSUED);
+
+        assertEquals(SessionVersionCheck.Result.REVOKED, result);
+        assertFalse(result.isAccepted());
+    }
+
+    @Test
+    void missingHeaderDependsOnEnforcement() {
+        assertTrue(check.check(request(null), user("v2"), ISSUED).isAccepted());
+
+        config.setEnforcement(SessionConfig.Enforcement.STRICT);
+        assertEquals(SessionVersionCheck.Result.MISSING, check.check(request(null), user("v2"), ISSUED));
+
+        config.setEnforcement(SessionConfig.Enforcement.OFF);
+        assertEquals(SessionVersionCheck.Result.NOT_CHECKED, check.check(request("v1"), user("v2"), ISSUED));
+    }
+
+    @Test
+    void userWithoutSessionIsNotChecked() {
+        config.setEnforcement(SessionConfig.Enforcement.STRICT);
+        assertEquals(SessionVersionCheck.Result.NOT_CHECKED, check.check(request(null), user(null), ISSUED));
+    }
+
+    @Test
+    void tokenIssuedBeforeLogoutIsRevokedWithoutHeader() {
+        User user = user("v2");
+        user.setSessionsRevokedAt(ISSUED.plusSeconds(60));
+
+        assertEquals(SessionVersionCheck.Result.REVOKED, check.check(request(null), user, ISSUED));
+        assertEquals(SessionVersionCheck.Result.REVOKED, check.check(request("v2"), user, ISSUED));
+        assertEquals(SessionVersionCheck.Result.REVOKED, check.check(request(null), user, null));
+    }
+
+    @Test
+    void tokenIssuedAfterLogoutIsAccepted() {
+        User user = user("v2");
+        user.setSessionsRevokedAt(ISSUED.minusSeconds(60));
+
+        assertTrue(check.check(request(null), user, ISSUED).isAccepted());
+        assertEquals(SessionVersionCheck.Result.VALID, check.check(request("v2"), user, ISSUED));
+    }
+
+    private static MockHttpServletRequest request(String sessionVersion) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (sessionVersion != null) {
+            request.addHeader("X-Session-Version", sessionVersion);
+        }
+        return request;
+    }
+
+    private static User user(String sessionVersion) {
+        return User.builder().id("u-1").sessionVersion(sessionVersion).build();
+    }
+}
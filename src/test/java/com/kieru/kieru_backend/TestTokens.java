@@ -0,0 +1,44 @@
+package com.kieru.kieru_backend;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.util.Base64;
+
+/**
+ * RS256 ID tokens shaped like Firebase's, for LocalJwtTokenVerifier tests and the auth benchmark.
+ */
+final class TestTokens {
+
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+
+    private TestTokens() {
+    }
+
+    static KeyPair rsaKeyPair() throws GeneralSecurityException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        return generator.generateKeyPair();
+    }
+
+    static String publicKey(KeyPair keyPair) {
+        return Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded());
+    }
+
+    static String sign(KeyPair keyPair, String kid, String claimsJson) throws GeneralSecurityException {
+        String signingInput = BASE64_URL.encodeToString(("{\"alg\":\"RS256\",\"typ\":\"JWT\",\"kid\":\"" + kid + "\"}").getBytes(StandardCharsets.UTF_8))
+                + "." + BASE64_URL.encodeToString(claimsJson.getBytes(StandardCharsets.UTF_8));
+        Signature signer = Signature.getInstance("SHA256withRSA");
+        signer.initSign(keyPair.getPrivate());
+        signer.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+        return signingInput + "." + BASE64_URL.encodeToString(signer.sign());
+    }
+
+    static String claims(String uid, long iat, long exp) {
+        return "{\"iss\":\"https://securetoken.google.com/kieru\",\"aud\":\"kieru\",\"sub\":\"" + uid + "\"," +
+                "\"iat\":" + iat + ",\"exp\":" + exp + ",\"email\":\"" + uid + "@example.com\",\"name\":\"Bench User\"," +
+                "\"firebase\":{\"sign_in_provider\":\"google.com\"}}";
+    }
+}
@@ -0,0 +1,176 @@
+package com.kieru.kieru_backend;
+
+import com.kieru.backend.entity.User;
+import com.kieru.backend.filter.FirebaseAuthFilter;
+import com.kieru.backend.filter.SessionVersionCheck;
+import com.kieru.backend.repository.UserRepository;
+import com.kieru.backend.service.TokenVerifier;
+import com.kieru.backend.service.impl.LastLoginWriterImpl;
+import com.kieru.backend.service.impl.LocalJwtTokenVerifier;
+import com.kieru.backend.store.DailyCounterStore;
+import com.kieru.backend.store.UserPrincipalCache;
+import com.kieru.backend.store.VerifiedTokenCache;
+import com.kieru.backend.util.AuthConfig;
+import com.kieru.backend.util.KieruUtil;
+import com.kieru.backend.util.SessionConfig;
+import com.kieru.backend.util.TokenCacheConfig;
+import com.kieru.backend.util.UserCacheConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.security.KeyPair;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Offline auth harness: LocalJwtTokenVerifier stands in for Firebase (same RS256 check, no network),
+ * everything else is the production code path.
+ *
+ *   1. Verification CPU per request: full RS256 verification vs a VerifiedTokenCache hit.
+ *   2. FirebaseAuthFilter throughput end to end (token -> principal -> session check -> SecurityContext),
+ *      with the token cache off and on. Redis and the DB are mocks, the principal is served from the local tier.
+ *
+ * Not a unit test: skipped unless kieru.bench.auth is set.
+ *
+ *   ./mvnw test -Dtest=TokenVerificationBenchmark -Dkieru.bench.auth=true \
+ *       -Dkieru.bench.iterations=20000 -Dkieru.bench.threads=4
+ */
+@EnabledIfSystemProperty(named = "kieru.bench.auth", matches = "true")
+class TokenVerificationBenchmark {
+
+    private static final String UID = "bench-user";
+
+    @Test
+    void authCpuAndFilterThroughput() throws Exception {
+        int iterations = Integer.getInteger("kieru.bench.iterations", 20000);
+        int threads = Integer.getInteger("kieru.bench.threads", Runtime.getRuntime().availableProcessors());
+
+        KeyPair keyPair = TestTokens.rsaKeyPair();
+        AuthConfig.Local local = new AuthConfig.Local();
+        local.getPublicKeys().put("bench", TestTokens.publicKey(keyPair));
+        local.setIssuer("https://securetoken.google.com/kieru");
+        local.setAudience("kieru");
+        TokenVerifier verifier = new LocalJwtTokenVerifier(local, Instant::now);
+
+        long now = Instant.now().getEpochSecond();
+        String idToken = TestTokens.sign(keyPair, "bench", TestTokens.claims(UID, now, now + 3600));
+
+        verificationCpu(verifier, idToken, iterations);
+        for (boolean cached : new boolean[]{false, true}) {
+            filterThroughput(verifier, idToken, cached, iterations, threads);
+        }
+    }
+
+    private static void verificationCpu(TokenVerifier verifier, String idToken, int iterations) {
+        VerifiedTokenCache cache = new VerifiedTokenCache(new TokenCacheConfig(), new SimpleMeterRegistry());
+        cache.put(idToken, verifier.verify(idToken));
+
+        // Warm up both paths before measuring
+        for (int i = 0; i < iterations / 10; i++) {
+            verifier.verify(idToken);
+            cache.get(idToken);
+        }
+
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+        long start = threadBean.getCurrentThreadCpuTime();
+        for (int i = 0; i < iterations; i++) {
+            verifier.verify(idToken);
+        }
+        long verifyNanos = threadBean.getCurrentThreadCpuTime() - start;
+
+        start = threadBean.getCurrentThreadCpuTime();
+        for (int i = 0; i < iterations; i++) {
+            if (cache.get(idToken) == null) {
+                throw new IllegalStateException("Benchmark token fell out of the cache");
+            }
+        }
+        long cachedNanos = threadBean.getCurrentThreadCpuTime() - start;
+
+        System.out.printf("verification iterations=%d verify=%.1f us/request cached=%.2f us/request%n",
+                iterations, verifyNanos / 1000.0 / iterations, cachedNanos / 1000.0 / iterations);
+    }
+
+    private static void filterThroughput(TokenVerifier verifier, String idToken, boolean cached, int iterations, int threads) throws Exception {
+        FirebaseAuthFilter filter = filter(verifier, cached);
+        FilterChain chain = (request, response) -> { };
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            // Warm up, then every thread runs its share of the iterations
+            run(pool, filter, chain, idToken, threads, iterations / 10);
+            long start = System.nanoTime();
+            run(pool, filter, chain, idToken, threads, iterations);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf("filter tokenCache=%s threads=%d requests=%d throughput=%.0f req/s%n",
+                    cached, threads, (long) iterations * threads, iterations * threads / seconds);
+        }
+        finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void run(ExecutorService pool, FirebaseAuthFilter filter, FilterChain chain, String idToken,
+                            int threads, int iterations) throws Exception {
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < iterations; i++) {
+                    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/dashboard/secrets");
+                    request.addHeader("Authorization", "Bearer " + idToken);
+                    MockHttpServletResponse response = new MockHttpServletResponse();
+                    filter.doFilter(request, response, chain);
+                    if (response.getStatus() != 200) {
+                        throw new IllegalStateException("Filter rejected the benchmark token: " + response.getStatus());
+                    }
+                    SecurityContextHolder.clearContext();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+    private static FirebaseAuthFilter filter(TokenVerifier verifier, boolean cached) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        TokenCacheConfig tokenCacheConfig = new TokenCacheConfig();
+        tokenCacheConfig.setEnabled(cached);
+
+        UserCacheConfig userCacheConfig = new UserCacheConfig();
+        userCacheConfig.setLocalTtlSeconds(3600);
+        UserPrincipalCache principalCache = new UserPrincipalCache(mock(StringRedisTemplate.class), userCacheConfig,
+                meterRegistry, System::currentTimeMillis);
+        principalCache.put(User.builder()
+                .id(UID)
+                .email(UID + "@example.com")
+                .displayName("Bench User")
+                .role(KieruUtil.UserRole.USER)
+                .subscription(KieruUtil.SubscriptionPlan.EXPLORER)
+                .loginProvider(KieruUtil.LoginProvider.GOOGLE)
+                .build(), 0);
+
+        return new FirebaseAuthFilter(verifier, mock(UserRepository.class), mock(DailyCounterStore.class),
+                new VerifiedTokenCache(tokenCacheConfig, meterRegistry), principalCache,
+                new LastLoginWriterImpl(mock(JdbcTemplate.class), userCacheConfig, meterRegistry),
+                new SessionVersionCheck(new SessionConfig(), meterRegistry));
+    }
+}
@@ -0,0 +1,122 @@
+package com.kieru.kieru_backend;
+
+import com.kieru.backend.entity.User;
+import com.kieru.backend.job.UserCleanupJob;
+import com.kieru.backend.repository.UserRepository;
+import com.kieru.backend.util.KieruUtil;
+import com.kieru.backend.util.UserCleanupConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * Chunked deletes run against H2 with the same statements as on Postgres. Chunk transactions join the test one.
+ */
+@JpaSliceTest
+class UserCleanupJobTest {
+
+    private static final Instant NOW = Instant.now();
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserRepository userRepo;
+
+    private StringRedisTemplate redisTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private UserCleanupConfig config;
+    private UserCleanupJob job;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        config = new UserCleanupConfig();
+        config.setBatchSize(2);
+        config.setThrottleMs(0);
+        job = new UserCleanupJob(new NamedParameterJdbcTemplate(dataSource), new TransactionTemplate(transactionManager),
+                redisTemplate, config, meterRegistry);
+    }
+
+    @Test
+    void deletesEveryInactiveUserAcrossChunks() {
+        for (int i = 0; i < 5; i++) {
+            user("old-" + i, KieruUtil.SubscriptionPlan.EXPLORER, NOW.minus(400, ChronoUnit.DAYS), NOW.minus(200 + i, ChronoUnit.DAYS));
+        }
+        user("never-back", KieruUtil.SubscriptionPlan.ANONYMOUS, NOW.minus(190, ChronoUnit.DAYS), null);
+        user("active", KieruUtil.SubscriptionPlan.EXPLORER, NOW.minus(400, ChronoUnit.DAYS), NOW.minus(1, ChronoUnit.DAYS));
+        user("paid", KieruUtil.SubscriptionPlan.CHALLENGER, NOW.minus(400, ChronoUnit.DAYS), NOW.minus(300, ChronoUnit.DAYS));
+        entityManager.flush();
+        entityManager.clear();
+
+        job.removeInactiveUsers();
+
+        assertEquals(2, userRepo.count());
+        assertTrue(userRepo.existsById("active"));
+        assertTrue(userRepo.existsById("paid"));
+        verify(redisTemplate, times(3)).delete(anyCollection());
+        assertEquals(6, meterRegistry.counter("kieru.user_cleanup.deleted", "cleanup", "inactive").count());
+    }
+
+    @Test
+    void stopsAtChunkLimitAndResumesNextRun() {
+        for (int i = 0; i < 5; i++) {
+            user("anon-" + i, KieruUtil.SubscriptionPlan.ANONYMOUS, NOW.minus(60, ChronoUnit.DAYS), null);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        config.setMaxChunksPerRun(1);
+
+        job.removeAnonymousUsers();
+        assertEquals(3, userRepo.count());
+
+        config.setMaxChunksPerRun(400);
+        job.removeAnonymousUsers();
+        assertEquals(0, userRepo.count());
+    }
+
+    @Test
+    void redisFailureDoesNotStopCleanup() {
+        user("anon", KieruUtil.SubscriptionPlan.ANONYMOUS, NOW.minus(60, ChronoUnit.DAYS), null);
+        entityManager.flush();
+        entityManager.clear();
+        when(redisTemplate.delete(anyCollection())).thenThrow(new IllegalStateException("redis down"));
+
+        job.removeAnonymousUsers();
+
+        assertEquals(0, userRepo.count());
+    }
+
+    private void user(String id, KieruUtil.SubscriptionPlan plan, Instant joinedAt, Instant lastLoginAt) {
+        entityManager.persist(User.builder()
+                .id(id)
+                .displayName("User")
+                .role(KieruUtil.UserRole.USER)
+                .subscription(plan)
+                .loginProvider(KieruUtil.LoginProvider.GOOGLE)
+                .joinedAt(joinedAt)
+                .lastLoginAt(lastLoginAt)
+                .build());
+    }
+}
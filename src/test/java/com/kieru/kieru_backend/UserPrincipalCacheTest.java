@@ -0,0 +1,139 @@
+package com.kieru.kieru_backend;
+
+import com.kieru.backend.entity.User;
+import com.kieru.backend.store.UserPrincipalCache;
+import com.kieru.backend.util.KieruUtil;
+import com.kieru.backend.util.UserCacheConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Redis is a mock: the Redis tier is a hash the test fills, writes through the put script are not asserted.
+ */
+class UserPrincipalCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final Map<Object, Object> redisHash = new HashMap<>();
+    private StringRedisTemplate redisTemplate;
+    private ValueOperations<String, String> valueOps;
+    private UserPrincipalCache cache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        HashOperations<String, Object, Object> hashOps = mock(HashOperations.class);
+        when(redisTemplate.opsForHash()).thenReturn(hashOps);
+        when(hashOps.entries(anyString())).thenAnswer(invocation -> new HashMap<>(redisHash));
+        valueOps = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        cache = new UserPrincipalCache(redisTemplate, new UserCacheConfig(), new SimpleMeterRegistry(), now::get);
+    }
+
+    @Test
+    void localTierServesUntilTtl() {
+        User user = user();
+        cache.put(user, 0);
+
+        assertSame(user, cache.get("u-1"));
+
+        now.addAndGet(30_000);
+        assertNull(cache.get("u-1"));
+    }
+
+    @Test
+    void redisTierRebuildsThePrincipal() {
+        redisHash.putAll(Map.of("email", "a@b.c", "name", "Ana", "role", "ADMIN", "plan", "CHALLENGER",
+                "provider", "GITHUB", "banned", "1", "sv", "v2", "joined", "1700000000000", "created", "4"));
+
+        User user = cache.get("u-1");
+
+        assertEquals("u-1", user.getId());
+        assertEquals("Ana", user.getDisplayName());
+        assertEquals(KieruUtil.UserRole.ADMIN, user.getRole());
+        assertEquals(KieruUtil.SubscriptionPlan.CHALLENGER, user.getSubscription());
+        assertEquals(KieruUtil.LoginProvider.GITHUB, user.getLoginProvider());
+        assertTrue(user.isBanned());
+        assertEquals("v2", user.getSessionVersion());
+        assertEquals(Instant.ofEpochMilli(1700000000000L), user.getJoinedAt());
+        assertEquals(4, user.getSecretsCreatedCount());
+    }
+
+    @Test
+    void invalidationMessageDropsLocalEntry() {
+        cache.put(user(), 0);
+
+        cache.onMessage(new DefaultMessage("user:principal:invalidate".getBytes(StandardCharsets.UTF_8),
+                "u-1".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertNull(cache.get("u-1"));
+    }
+
+    @Test
+    void invalidatePublishesToOtherNodes() {
+        cache.put(user(), 0);
+
+        cache.invalidate("u-1");
+
+        assertNull(cache.get("u-1"));
+        verify(redisTemplate).convertAndSend("user:principal:invalidate", "u-1");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void putRefusesRowReadBeforeAnInvalidation() {
+        // principal_put.lua answers 0: the generation moved since the DB read
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(0L);
+
+        cache.put(user(), 0);
+
+        assertNull(cache.get("u-1"));
+    }
+
+    @Test
+    void invalidateBumpsTheGeneration() {
+        cache.invalidate("u-1");
+
+        verify(valueOps).increment("user:principal:gen:u-1");
+    }
+
+    @Test
+    void loadedWithinTracksTheLastLoad() {
+        cache.put(user(), 0);
+        assertTrue(cache.loadedWithin("u-1", 2_000));
+
+        now.addAndGet(5_000);
+        assertEquals("u-1", cache.get("u-1").getId());
+        assertFalse(cache.loadedWithin("u-1", 2_000));
+
+        redisHash.putAll(Map.of("name", "Ana", "sv", "v3"));
+        assertEquals("v3", cache.getShared("u-1").getSessionVersion());
+        assertTrue(cache.loadedWithin("u-1", 2_000));
+    }
+
+    private static User user() {
+        return User.builder()
+                .id("u-1")
+                .displayName("User")
+                .role(KieruUtil.UserRole.USER)
+                .subscription(KieruUtil.SubscriptionPlan.EXPLORER)
+                .loginProvider(KieruUtil.LoginProvider.GOOGLE)
+                .build();
+    }
+}
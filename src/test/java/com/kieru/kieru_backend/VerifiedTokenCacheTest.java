@@ -0,0 +1,90 @@
+package com.kieru.kieru_backend;
+
+import com.kieru.backend.dto.VerifiedToken;
+import com.kieru.backend.store.VerifiedTokenCache;
+import com.kieru.backend.util.TokenCacheConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTest {
+
+    private static final long START = Instant.parse("2025-03-01T12:00:00Z").toEpochMilli();
+
+    private final AtomicLong now = new AtomicLong(START);
+    private SimpleMeterRegistry meterRegistry;
+    private TokenCacheConfig config;
+    private VerifiedTokenCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        config = new TokenCacheConfig();
+        cache = new VerifiedTokenCache(config, meterRegistry, now::get);
+    }
+
+    @Test
+    void entryLivesUntilExpMinusSkew() {
+        cache.put("token-a", token("u-1", 600));
+
+        now.addAndGet(569_000);
+        assertEquals("u-1", cache.get("token-a").getUid());
+
+        now.addAndGet(1_000);
+        assertNull(cache.get("token-a"));
+        assertEquals(1, meterRegistry.counter("kieru.auth.token_cache", "result", "hit").count());
+        assertEquals(1, meterRegistry.counter("kieru.auth.token_cache", "result", "miss").count());
+    }
+
+    @Test
+    void entryNeverOutlivesMaxTtl() {
+        config.setMaxTtlSeconds(60);
+        cache.put("token-a", token("u-1", 3600));
+
+        now.addAndGet(60_000);
+        assertNull(cache.get("token-a"));
+    }
+
+    @Test
+    void expiredTokenIsNotCached() {
+        cache.put("token-a", token("u-1", 10));
+        assertNull(cache.get("token-a"));
+    }
+
+    @Test
+    void evictUserDropsAllTokensOfThatUser() {
+        cache.put("token-a", token("u-1", 600));
+        cache.put("token-b", token("u-1", 600));
+        cache.put("token-c", token("u-2", 600));
+
+        cache.evictUser("u-1");
+
+        assertNull(cache.get("token-a"));
+        assertNull(cache.get("token-b"));
+        assertNotNull(cache.get("token-c"));
+    }
+
+    @Test
+    void staysWithinMaxEntries() {
+        config.setMaxEntries(2);
+        cache.put("token-a", token("u-1", 600));
+        cache.put("token-b", token("u-2", 600));
+        cache.put("token-c", token("u-3", 600));
+
+        assertEquals(2, meterRegistry.get("kieru.auth.token_cache.size").gauge().value());
+        assertNotNull(cache.get("token-c"));
+    }
+
+    private VerifiedToken token(String uid, long expiresInSeconds) {
+        return VerifiedToken.builder()
+                .uid(uid)
+                .signInProvider("google.com")
+                .expiresAt(Instant.ofEpochMilli(now.get()).plusSeconds(expiresInSeconds))
+                .build();
+    }
+}